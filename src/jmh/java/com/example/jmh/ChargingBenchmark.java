@@ -0,0 +1,65 @@
+package com.example.jmh;
+
+import com.example.Main;
+import com.example.api.ElpriserAPI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Main#calculateOptimalChargingWindow(List, Duration)} över två dygn kvartspriser (192
+ * perioder) för olika laddningstider, inklusive utskriften av fönstret.
+ *
+ * @see MainBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChargingBenchmark {
+
+    @Param({"series", "list"})
+    public String representation;
+
+    @Param({"2h", "4h", "8h"})
+    public String duration;
+
+    private List<ElpriserAPI.Elpris> twoDays;
+    private Duration chargingDuration;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setup() {
+        twoDays = PriceData.asRepresentation(PriceData.quarterHours(2), representation);
+        chargingDuration = Duration.parse("PT" + duration.toUpperCase());
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public void calculateOptimalChargingWindow() {
+        Main.calculateOptimalChargingWindow(twoDays, chargingDuration);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.jmh;
+
+import com.example.Main;
+import com.example.api.ElpriserAPI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregering, statistik och sortering i {@link Main} på ett respektive två dygn kvartspriser.
+ * <p>
+ * {@code representation} väljer mellan den kompakta serien som API:et levererar och en vanlig
+ * {@code ArrayList} med samma priser, så att både snabbvägarna och de allmänna vägarna mäts.
+ * Utskrifterna går till en {@link PrintStream} utan mål, så kostnaden för att formatera texten
+ * ingår men inte terminalen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MainBenchmark {
+
+    @Param({"series", "list"})
+    public String representation;
+
+    private List<ElpriserAPI.Elpris> today;
+    private List<ElpriserAPI.Elpris> twoDays;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setup() {
+        today = PriceData.asRepresentation(PriceData.quarterHours(1), representation);
+        twoDays = PriceData.asRepresentation(PriceData.quarterHours(2), representation);
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public List<ElpriserAPI.Elpris> convertQuarterlyToHourlyPrices() {
+        return Main.convertQuarterlyToHourlyPrices(today);
+    }
+
+    @Benchmark
+    public void printPriceStatistics() {
+        Main.printPriceStatistics(today, "Dagens");
+    }
+
+    /** Sorterar en kopia, eftersom metoden sorterar listan på plats; kopian ingår i tiden. */
+    @Benchmark
+    public List<ElpriserAPI.Elpris> sortPricesAscending() {
+        List<ElpriserAPI.Elpris> copy = new ArrayList<>(twoDays);
+        Main.sortPricesAscending(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.jmh;
+
+import com.example.api.ElprisParser;
+import com.example.api.ElpriserAPI;
+import com.example.api.PriceSeries;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tolkning av ett API-svar till en prislista, samma väg som {@code ElpriserAPI.parseSimpleJson}:
+ * den strömmande {@link ElprisParser} direkt till en {@link PriceSeries.Builder}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    /** Timpriser, kvartspriser och kvartspriser för dygnet då sommartiden slutar. */
+    @Param({"24", "96", "100"})
+    public int slots;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        json = PriceData.json(slots);
+    }
+
+    @Benchmark
+    public List<ElpriserAPI.Elpris> parseSimpleJson() {
+        PriceSeries.Builder builder = new PriceSeries.Builder();
+        ElprisParser.parse(json, builder);
+        return builder.toList();
+    }
+
+    /** Den allmänna vägen som skapar ett {@code Elpris}-objekt per period. */
+    @Benchmark
+    public List<ElpriserAPI.Elpris> parseToObjects() {
+        return ElprisParser.parse(json);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.jmh;
+
+import com.example.api.ElprisParser;
+import com.example.api.ElpriserAPI;
+import com.example.api.PriceSeries;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministiska testdata i API:ets format för benchmarkerna.
+ */
+final class PriceData {
+
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
+
+    private PriceData() {
+    }
+
+    /**
+     * Ett svar med {@code slots} perioder: 24 ger timpriser, 96 kvartspriser för ett vanligt dygn
+     * och 100 kvartspriser för dygnet då sommartiden slutar (2025-10-26, 25 timmar).
+     */
+    static String json(int slots) {
+        LocalDate day = switch (slots) {
+            case 24, 96 -> LocalDate.of(2025, 9, 4);
+            case 100 -> LocalDate.of(2025, 10, 26);
+            default -> throw new IllegalArgumentException("Stöds inte: " + slots + " perioder");
+        };
+        return json(day, slots == 24 ? 60 : 15, slots, slots);
+    }
+
+    /**
+     * @return {@code days} sammanhängande dygn med kvartspriser från 2025-09-04, som en kompakt serie.
+     */
+    static List<ElpriserAPI.Elpris> quarterHours(int days) {
+        StringBuilder json = new StringBuilder();
+        for (int i = 0; i < days; i++) {
+            String day = json(LocalDate.of(2025, 9, 4).plusDays(i), 15, 96, 1 + i);
+            json.append(i == 0 ? day.substring(0, day.length() - 1) : "," + day.substring(1, day.length() - 1));
+        }
+        PriceSeries.Builder builder = new PriceSeries.Builder(days * 96);
+        ElprisParser.parse(json.append(']'), builder);
+        return builder.toList();
+    }
+
+    /**
+     * @param representation "series" för den kompakta serien som API:et levererar, "list" för en vanlig {@code ArrayList}.
+     */
+    static List<ElpriserAPI.Elpris> asRepresentation(List<ElpriserAPI.Elpris> prices, String representation) {
+        return switch (representation) {
+            case "series" -> prices;
+            case "list" -> new ArrayList<>(prices);
+            default -> throw new IllegalArgumentException("Okänd representation: " + representation);
+        };
+    }
+
+    private static String json(LocalDate day, int minutes, int slots, long seed) {
+        Random random = new Random(seed);
+        ZonedDateTime start = day.atStartOfDay(STOCKHOLM);
+        StringBuilder json = new StringBuilder(slots * 150).append('[');
+        for (int i = 0; i < slots; i++) {
+            double sek = 0.5 + 0.4 * Math.sin(i * minutes / 180.0) + random.nextInt(20_000) / 100_000.0;
+            ZonedDateTime end = start.plusMinutes(minutes);
+            json.append(i == 0 ? "" : ",").append(String.format(Locale.ROOT,
+                    "{\"SEK_per_kWh\":%.5f,\"EUR_per_kWh\":%.5f,\"EXR\":11.0,\"time_start\":\"%s\",\"time_end\":\"%s\"}",
+                    sek, sek / 11, TIMESTAMP.format(start), TIMESTAMP.format(end)));
+            start = end;
+        }
+        return json.append(']').toString();
+    }
+}
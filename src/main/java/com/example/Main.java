@@ -1,46 +1,167 @@
 package com.example;
 
+import com.example.api.ChargingWindowOptimizer;
 import com.example.api.ElpriserAPI;
-
+import com.example.api.FixedDecimal;
+import com.example.api.LoadScheduler;
+import com.example.api.PriceSeries;
+import com.example.api.PriceSource;
+import com.example.api.PriceServer;
+import com.example.api.PriceWatcher;
+import com.example.api.PriceWriter;
+import com.example.api.PriceStatistics;
+import com.example.api.SlotScheduler;
+import com.example.api.ZoneComparison;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class Main {
 
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+    // Programmet använder svensk locale för att alltid skriva priser i rätt format (t.ex. "12,34 öre").
+    private static final Locale SV = new Locale("sv", "SE");
+    private static final String NEWLINE = System.lineSeparator();
+    // Värde för --zone som jämför alla elområden
+    private static final String ALL_ZONES = "ALL";
+
     public static void main(String[] args) {
-        // Programmet använder svensk locale för att alltid skriva priser i rätt format (t.ex. "12,34 öre").
-        Locale.setDefault(new Locale("sv", "SE"));
-        ElpriserAPI api = new ElpriserAPI();
+        Locale.setDefault(SV);
 
         UserInput input = parseUserInput(args);
         if (input == null) {
             return;
         }
 
+        if (input.getServePort() >= 0) {
+            servePrices(input.getServePort(), new ElpriserAPI());
+            return;
+        }
+        if (input.getBatch() != null) {
+            runBatch(input.getBatch(), new ElpriserAPI());
+            return;
+        }
+        runQuery(input, ElpriserAPI::new);
+    }
+
+    /**
+     * Kör en fråga, dvs. en uppsättning argument utöver --serve och --batch.
+     * <p>
+     * API:et skapas först när argumenten har godkänts, så att t.ex. en ogiltig zon eller ett
+     * felskrivet datum inte betalar för HTTP-klienten och disk-cachen. {@code api} anropas högst en gång.
+     */
+    public static void runQuery(UserInput input, Supplier<ElpriserAPI> api) {
+        if (input.getFormat() != PriceWriter.Format.TEXT) {
+            if (input.getChargingDuration() != null || !input.getLoads().isEmpty() || input.isWatch()) {
+                System.out.println("--format " + input.getFormat().name().toLowerCase() + " kan inte kombineras med --charging, --load eller --watch");
+                return;
+            }
+            writePrices(input, api);
+            return;
+        }
+
+        if (ALL_ZONES.equals(input.getZone())) {
+            if (input.getFrom() != null || input.getChargingDuration() != null || !input.getLoads().isEmpty() || input.isWatch()) {
+                System.out.println("--zone ALL kan inte kombineras med --from, --charging, --load eller --watch");
+                return;
+            }
+            LocalDate parsedDate = parseDate(input.getDate());
+            if (parsedDate != null) {
+                processAndPrintAllZones(parsedDate, api.get(), input.isHourly());
+            }
+            return;
+        }
+
         ElpriserAPI.Prisklass priceClass = getPriceClass(input.getZone());
         if (priceClass == null) {
             return;
         }
 
+        boolean chargingEnabled = input.getChargingDuration() != null || !input.getLoads().isEmpty();
+        if (input.getChargingDuration() == null && (input.getSplitOptions() != null || input.getAlternatives() > 0)) {
+            System.out.println("Delad laddning och alternativa fönster kräver --charging");
+            return;
+        }
+
+        if (input.getFrom() != null) {
+            LocalDate from = parseDate(input.getFrom());
+            LocalDate to = from == null ? null : parseDate(input.getTo());
+            if (to == null) {
+                return;
+            }
+            if (input.isWatch()) {
+                System.out.println("--watch kan inte kombineras med --from");
+                return;
+            }
+            ChargingPlan charging = toChargingPlan(input, from);
+            if (chargingEnabled && charging == null) {
+                return;
+            }
+            processAndPrintDateRange(from, to, priceClass, input.getZone(), api.get(), input.isHourly(), charging);
+            return;
+        }
+
         LocalDate parsedDate = parseDate(input.getDate());
         if (parsedDate == null) {
             return;
         }
 
-        int hours = input.getChargingHours();
-        boolean chargingEnabled = hours > 0;
-
-        processAndPrintPrices(parsedDate, priceClass, input.getZone(), api, input.isSorted(), chargingEnabled, hours);
+        ChargingPlan charging = toChargingPlan(input, parsedDate);
+        if (chargingEnabled && charging == null) {
+            return;
+        }
+        if (input.isWatch()) {
+            watchPrices(priceClass, input.getZone(), api.get(), input.isHourly(), charging);
+            return;
+        }
+        processAndPrintPrices(parsedDate, priceClass, input.getZone(), api.get(), input.isSorted(), input.isHourly(),
+                input.getCheapest(), charging);
     }
 
     public static UserInput parseUserInput(String[] args) {
         String zone = null;
         String date = null;
+        String from = null;
+        String to = null;
         boolean sorted = false;
-        int chargingHours = 0;
+        boolean hourly = false;
+        boolean watch = false;
+        int servePort = -1;
+        String batch = null;
+        int cheapest = 0;
+        PriceWriter.Format format = PriceWriter.Format.TEXT;
+        Duration chargingDuration = null;
+        boolean splitCharging = false;
+        Duration minRun = null;
+        int maxSwitches = Integer.MAX_VALUE;
+        String deadline = null;
+        int alternatives = 0;
+        List<LoadScheduler.Load> loads = new ArrayList<>();
+        double maxPowerKW = Double.POSITIVE_INFINITY;
 
         for (int i = 0; i < args.length; i++) {
             switch (args[i]) {
@@ -69,40 +190,241 @@ public class Main {
                         return null;
                     }
                 }
+                case "--from", "--to" -> {
+                    if (i + 1 < args.length) {
+                        if (args[i].equals("--from")) {
+                            from = args[i + 1];
+                        } else {
+                            to = args[i + 1];
+                        }
+                        i = i + 1;
+                    } else {
+                        System.out.println("Du måste ange ett datum efter " + args[i] + " (skriv enligt format YYYY-MM-DD)");
+                        System.out.println();
+                        printHelpInfo();
+                        return null;
+                    }
+                }
                 case "--sorted" -> sorted = true;
+                case "--hourly" -> hourly = true;
+                case "--watch" -> watch = true;
+                case "--batch" -> {
+                    batch = "-";
+                    if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                        batch = args[i + 1];
+                        i = i + 1;
+                    }
+                }
+                case "--serve" -> {
+                    servePort = PriceServer.DEFAULT_PORT;
+                    if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                        try {
+                            servePort = Integer.parseInt(args[i + 1]);
+                        } catch (NumberFormatException e) {
+                            servePort = -1;
+                        }
+                        if (servePort < 0 || servePort > 65535) {
+                            System.out.println("Ogiltig port efter --serve (0-65535)");
+                            return null;
+                        }
+                        i = i + 1;
+                    }
+                }
+                case "--split" -> splitCharging = true;
+                case "--min-run" -> {
+                    minRun = i + 1 < args.length ? parseChargingDuration(args[i + 1]) : null;
+                    if (minRun == null) {
+                        System.out.println("Du måste ange en giltig körtid efter --min-run (t.ex. 30m eller 1h)");
+                        return null;
+                    }
+                    splitCharging = true;
+                    i = i + 1;
+                }
+                case "--max-switches" -> {
+                    try {
+                        maxSwitches = Integer.parseInt(args[i + 1]);
+                    } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                        maxSwitches = 0;
+                    }
+                    if (maxSwitches < 1) {
+                        System.out.println("Du måste ange ett positivt heltal efter --max-switches");
+                        return null;
+                    }
+                    splitCharging = true;
+                    i = i + 1;
+                }
+                case "--format" -> {
+                    format = i + 1 < args.length ? PriceWriter.Format.parse(args[i + 1]) : null;
+                    if (format == null) {
+                        System.out.println("Du måste ange ett format efter --format (text, csv, json eller bin)");
+                        return null;
+                    }
+                    i = i + 1;
+                }
+                case "--cheapest" -> {
+                    try {
+                        cheapest = Integer.parseInt(args[i + 1]);
+                    } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                        cheapest = 0;
+                    }
+                    if (cheapest < 1) {
+                        System.out.println("Du måste ange ett positivt heltal efter --cheapest");
+                        return null;
+                    }
+                    i = i + 1;
+                }
+                case "--alternatives" -> {
+                    try {
+                        alternatives = Integer.parseInt(args[i + 1]);
+                    } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                        alternatives = 0;
+                    }
+                    if (alternatives < 1) {
+                        System.out.println("Du måste ange ett positivt heltal efter --alternatives");
+                        return null;
+                    }
+                    i = i + 1;
+                }
+                case "--load" -> {
+                    LoadScheduler.Load load = i + 1 < args.length ? parseLoad(args[i + 1]) : null;
+                    if (load == null) {
+                        System.out.println("Du måste ange en last efter --load (namn:tid:kW, t.ex. elbil:4h:11)");
+                        return null;
+                    }
+                    loads.add(load);
+                    i = i + 1;
+                }
+                case "--max-power" -> {
+                    try {
+                        maxPowerKW = Double.parseDouble(args[i + 1].replace(',', '.'));
+                    } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                        maxPowerKW = 0;
+                    }
+                    if (!(maxPowerKW > 0)) {
+                        System.out.println("Du måste ange en positiv effekt i kW efter --max-power");
+                        return null;
+                    }
+                    i = i + 1;
+                }
+                case "--deadline" -> {
+                    if (i + 1 < args.length) {
+                        deadline = args[i + 1];
+                        splitCharging = true;
+                        i = i + 1;
+                    } else {
+                        System.out.println("Du måste ange en tidpunkt efter --deadline (HH:mm eller YYYY-MM-DDTHH:mm)");
+                        return null;
+                    }
+                }
                 case "--charging" -> {
                     if (i + 1 < args.length) {
-                        String ch = args[i + 1].toLowerCase();
+                        chargingDuration = parseChargingDuration(args[i + 1]);
                         i = i + 1;
-                        if (ch.equals("2h")) {
-                            chargingHours = 2;
-                        } else if (ch.equals("4h")) {
-                            chargingHours = 4;
-                        } else if (ch.equals("8h")) {
-                            chargingHours = 8;
-                        } else {
-                            System.out.println("Ogiltig laddningstid (välj 2h, 4h eller 8h)");
+                        if (chargingDuration == null) {
+                            System.out.println("Ogiltig laddningstid (t.ex. 2h, 90m eller 5h15m)");
                             return null;
                         }
                     } else {
-                        System.out.println("Du måste ange laddningstid efter --charging (välj 2h, 4h eller 8h)");
+                        System.out.println("Du måste ange laddningstid efter --charging (t.ex. 2h, 90m eller 5h15m)");
                         return null;
                     }
                 }
             }
         }
 
-        if (zone == null) {
+        if (zone == null && servePort < 0 && batch == null) {
             System.out.println("Du måste skriva --zone (välj SE1-SE4)");
             printHelpInfo();
             return null;
         }
 
+        if (to != null && from == null) {
+            System.out.println("Du måste ange --from tillsammans med --to");
+            return null;
+        }
+
         if (date == null) {
             date = LocalDate.now().toString();
         }
 
-        return new UserInput(zone, date, sorted, chargingHours);
+        if (from != null && to == null) {
+            to = LocalDate.now().toString();
+        }
+
+        SplitOptions split = splitCharging ? new SplitOptions(minRun, maxSwitches, deadline) : null;
+        return new UserInput(zone, date, from, to, sorted, hourly, watch, servePort, batch, cheapest, format, chargingDuration, split, alternatives,
+                loads, maxPowerKW);
+    }
+
+    /**
+     * Tolkar en laddningstid som "2h", "90m", "5h15m" eller "45min".
+     * @return Laddningstiden, eller null om texten inte är en positiv tid.
+     */
+    public static Duration parseChargingDuration(String text) {
+        return ChargingWindowOptimizer.parseDuration(text);
+    }
+
+    /**
+     * Tolkar en last som "namn:tid:kW", t.ex. "elbil:4h:11" eller "disk:90m:1,8".
+     * @return Lasten, eller null om texten inte går att tolka.
+     */
+    public static LoadScheduler.Load parseLoad(String text) {
+        String[] parts = text.split(":");
+        if (parts.length != 3 || parts[0].isBlank()) {
+            return null;
+        }
+        Duration duration = parseChargingDuration(parts[1]);
+        if (duration == null) {
+            return null;
+        }
+        try {
+            double kW = Double.parseDouble(parts[2].replace(',', '.'));
+            return kW > 0 && !Double.isInfinite(kW) ? new LoadScheduler.Load(parts[0], duration, kW) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param day Dagen som en deadline på formen HH:mm avser.
+     * @return Vad som ska beräknas för laddningen, eller null om ingen laddning begärts eller villkoren inte gick att tolka.
+     */
+    public static ChargingPlan toChargingPlan(UserInput input, LocalDate day) {
+        if (input.getChargingDuration() == null && input.getLoads().isEmpty()) {
+            return null;
+        }
+        SlotScheduler.Constraints split = null;
+        if (input.getSplitOptions() != null) {
+            split = toConstraints(input.getSplitOptions(), day);
+            if (split == null) {
+                return null;
+            }
+        }
+        return new ChargingPlan(input.getChargingDuration(), split, input.getAlternatives(), input.getLoads(),
+                input.getMaxPowerKW());
+    }
+
+    /**
+     * Gör om kommandoradens villkor för delad laddning till villkor för {@link SlotScheduler}.
+     * @param day Dagen som en deadline på formen HH:mm avser.
+     * @return Villkoren, eller null om deadline inte gick att tolka.
+     */
+    public static SlotScheduler.Constraints toConstraints(SplitOptions split, LocalDate day) {
+        SlotScheduler.Constraints constraints = SlotScheduler.Constraints.none()
+                .withMinRun(split.minRun())
+                .withMaxSwitches(split.maxSwitches());
+        if (split.deadline() == null) {
+            return constraints;
+        }
+        try {
+            LocalDateTime deadline = split.deadline().contains("T")
+                    ? LocalDateTime.parse(split.deadline())
+                    : day.atTime(LocalTime.parse(split.deadline()));
+            return constraints.withDeadline(deadline.atZone(STOCKHOLM));
+        } catch (DateTimeParseException e) {
+            System.out.println("Ogiltig deadline (skriv enligt format HH:mm eller YYYY-MM-DDTHH:mm)");
+            return null;
+        }
     }
 
     public static void printHelpInfo() {
@@ -110,10 +432,25 @@ public class Main {
         System.out.println();
         System.out.println("=== Hjälp ===");
         System.out.println();
-        System.out.println("--zone SE1|SE2|SE3|SE4   (obligatoriskt)");
+        System.out.println("--zone SE1|SE2|SE3|SE4   (obligatoriskt, ALL jämför alla zoner för --date)");
         System.out.println("--date YYYY-MM-DD        (valfritt, använder dagens datum om inget annat anges)");
+        System.out.println("--from YYYY-MM-DD        (valfritt, visar statistik dag för dag från detta datum)");
+        System.out.println("--to YYYY-MM-DD          (valfritt, sista dagen för --from, använder dagens datum om inget annat anges)");
         System.out.println("--sorted                 (valfritt, sorterar efter pris)");
-        System.out.println("--charging 2h|4h|8h      (valfritt, används för att hitta det optimala laddningsfönstret)");
+        System.out.println("--cheapest N             (valfritt, listar de N billigaste perioderna idag och imorgon)");
+        System.out.println("--hourly                 (valfritt, visar timmedelvärden istället för API:ets kvartspriser)");
+        System.out.println("--charging 2h|90m|5h15m  (valfritt, används för att hitta det optimala laddningsfönstret)");
+        System.out.println("--split                  (valfritt, med --charging: laddningen får delas upp i flera perioder)");
+        System.out.println("--min-run 30m            (valfritt, minsta tid per period vid delad laddning)");
+        System.out.println("--max-switches N         (valfritt, högsta antal perioder vid delad laddning)");
+        System.out.println("--alternatives N         (valfritt, med --charging: visar de N billigaste fönstren som inte överlappar)");
+        System.out.println("--load namn:4h:11        (valfritt, kan upprepas: laster som schemaläggs tillsammans, t.ex. elbil:4h:11)");
+        System.out.println("--max-power kW           (valfritt, med --load: säkringens gräns för sammanlagd effekt)");
+        System.out.println("--deadline HH:mm         (valfritt, laddningen ska vara klar då; HH:mm avser --date, annars YYYY-MM-DDTHH:mm)");
+        System.out.println("--format text|csv|json|bin (valfritt, maskinläsbar utskrift av priserna istället för svensk text)");
+        System.out.println("--watch                  (valfritt, körs tills den avbryts och skriver ut nya priser när de publiceras)");
+        System.out.println("--batch [fil]            (valfritt, läser en fråga per rad från filen eller stdin och skriver svaren i samma ordning)");
+        System.out.println("--serve [port]           (valfritt, startar en HTTP-server med priser, statistik och laddningsfönster; port 8080 om inget annat anges)");
         System.out.println("--help                   (visar denna hjälptext)");
     }
 
@@ -151,48 +488,466 @@ public class Main {
     public static void processAndPrintPrices(LocalDate parsedDate, ElpriserAPI.Prisklass priceClass,
                                              String zone, ElpriserAPI api,
                                              boolean sorted, boolean chargingEnabled, int chargingHours) {
+        Duration chargingDuration = chargingEnabled && chargingHours > 0 ? Duration.ofHours(chargingHours) : null;
+        processAndPrintPrices(parsedDate, priceClass, zone, api, sorted, false,
+                chargingDuration == null ? null : ChargingPlan.window(chargingDuration));
+    }
 
+    /**
+     * Priserna skrivs ut, sorteras och används för laddning i den upplösning API:et levererar,
+     * t.ex. kvartar.
+     * @param hourly Om priserna istället ska slås ihop till timmedelvärden, se {@link #hourlyView(List)}.
+     * @param charging Vad som ska beräknas för laddningen, eller null för ingen laddning.
+     */
+    public static void processAndPrintPrices(LocalDate parsedDate, ElpriserAPI.Prisklass priceClass,
+                                             String zone, ElpriserAPI api, boolean sorted, boolean hourly,
+                                             ChargingPlan charging) {
+        processAndPrintPrices(parsedDate, priceClass, zone, api, sorted, hourly, 0, charging);
+    }
+
+    /**
+     * Som {@link #processAndPrintPrices(LocalDate, ElpriserAPI.Prisklass, String, ElpriserAPI, boolean, boolean, ChargingPlan)}
+     * men listar även de {@code cheapest} billigaste perioderna över båda dagarna.
+     * <p>
+     * Sorterad utskrift visar morgondagens priser när de fortsätter direkt efter dagens, så att
+     * sorteringen och listan över de billigaste perioderna bara gäller riktiga, angränsande perioder.
+     */
+    public static void processAndPrintPrices(LocalDate parsedDate, ElpriserAPI.Prisklass priceClass,
+                                             String zone, ElpriserAPI api, boolean sorted, boolean hourly,
+                                             int cheapest, ChargingPlan charging) {
+
+        // Morgondagens priser hämtas i bakgrunden medan dagens priser hämtas
+        CompletableFuture<List<ElpriserAPI.Elpris>> tomorrowsFuture = fetchTomorrowsPricesAsync(parsedDate, priceClass, api);
         List<ElpriserAPI.Elpris> todaysPrices = fetchTodaysPrices(parsedDate, priceClass, api);
-        List<ElpriserAPI.Elpris> tomorrowsPrices = fetchTomorrowsPrices(parsedDate, priceClass, api);
+        List<ElpriserAPI.Elpris> tomorrowsPrices = tomorrowsFuture.join();
+
+        if (hourly) {
+            todaysPrices = hourlyView(todaysPrices);
+            tomorrowsPrices = hourlyView(tomorrowsPrices);
+        }
 
         printPricesAndStatistics(todaysPrices, zone, parsedDate.toString(), sorted, "Dagens");
 
-        if (!sorted && !tomorrowsPrices.isEmpty()) {
-            printPricesAndStatistics(tomorrowsPrices, zone, parsedDate.plusDays(1).toString(), false, "Morgondagens");
+        boolean continues = continuesAfter(todaysPrices, tomorrowsPrices);
+        if (!tomorrowsPrices.isEmpty() && (!sorted || continues)) {
+            printPricesAndStatistics(tomorrowsPrices, zone, parsedDate.plusDays(1).toString(), sorted, "Morgondagens");
+        }
+
+        if (cheapest > 0) {
+            printCheapestSlots(continues ? PriceSeries.concat(todaysPrices, tomorrowsPrices) : todaysPrices, zone, cheapest);
+        }
+
+        if (charging != null) {
+            List<ElpriserAPI.Elpris> combined = PriceSeries.concat(todaysPrices, tomorrowsPrices);
+            printCharging(combined, charging);
+        }
+    }
+
+    /**
+     * Skriver ut statistik för varje dag i intervallet i tidsordning och därefter för hela perioden.
+     * Hämtningarna ligger högst {@link ElpriserAPI#DEFAULT_MAX_CONCURRENCY} dagar före utskriften,
+     * så att varje dag skrivs ut så snart den och alla tidigare dagar har kommit.
+     */
+    public static void processAndPrintDateRange(LocalDate from, LocalDate to, ElpriserAPI.Prisklass priceClass,
+                                                String zone, ElpriserAPI api, boolean hourly, ChargingPlan charging) {
+        List<LocalDate> days;
+        try {
+            days = ElpriserAPI.daysBetween(from, to);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Ogiltigt datumintervall (--to får inte ligga före --from)");
+            return;
+        }
+
+        List<CompletableFuture<List<ElpriserAPI.Elpris>>> futures = new ArrayList<>(days.size());
+        List<List<ElpriserAPI.Elpris>> perDay = new ArrayList<>(days.size());
+        // Dagarnas statistik slås ihop till periodens, så att priserna bara gås igenom en gång
+        PriceStatistics period = new PriceStatistics();
+        for (int i = 0; i < days.size(); i++) {
+            while (futures.size() < Math.min(days.size(), i + ElpriserAPI.DEFAULT_MAX_CONCURRENCY)) {
+                futures.add(api.getPriserAsync(days.get(futures.size()), priceClass));
+            }
+            List<ElpriserAPI.Elpris> prices = futures.get(i).join();
+            if (hourly) {
+                prices = hourlyView(prices);
+            }
+            perDay.add(prices);
+            if (prices.isEmpty()) {
+                System.out.println("Inga priser för " + days.get(i) + " i zon " + zone + " – ingen data.");
+            } else {
+                PriceStatistics day = PriceStatistics.of(prices);
+                System.out.println();
+                printPriceStatistics(day, days.get(i).toString());
+                period.merge(day);
+            }
+        }
+
+        if (period.isEmpty()) {
+            System.out.println("Inga priser hittades för " + from + " – " + to + " i zon " + zone);
+            return;
+        }
+        System.out.println();
+        System.out.println("=== Perioden " + from + " – " + to + " (zon " + zone + ", " + period.count() + " priser) ===");
+        printPriceStatistics(period, "Periodens");
+
+        if (charging != null) {
+            printCharging(PriceSeries.concat(perDay), charging);
+        }
+    }
+
+    /**
+     * Skriver priserna i ett maskinläsbart format till {@code System.out}, utan någon svensk text.
+     * Med {@code --from} skrivs hela intervallet, annars dagen och morgondagen om den fortsätter
+     * direkt efter. {@code --zone ALL} ger ett block per zon.
+     */
+    public static void writePrices(UserInput input, Supplier<ElpriserAPI> api) {
+        Collection<ElpriserAPI.Prisklass> zones;
+        if (ALL_ZONES.equals(input.getZone())) {
+            zones = EnumSet.allOf(ElpriserAPI.Prisklass.class);
+        } else {
+            ElpriserAPI.Prisklass priceClass = getPriceClass(input.getZone());
+            if (priceClass == null) {
+                return;
+            }
+            zones = List.of(priceClass);
+        }
+
+        Map<ElpriserAPI.Prisklass, List<ElpriserAPI.Elpris>> pricesByZone;
+        if (input.getFrom() != null) {
+            LocalDate from = parseDate(input.getFrom());
+            LocalDate to = from == null ? null : parseDate(input.getTo());
+            if (to == null) {
+                return;
+            }
+            if (to.isBefore(from)) {
+                System.out.println("Ogiltigt datumintervall (--to får inte ligga före --from)");
+                return;
+            }
+            pricesByZone = api.get().getPriser(from, to, zones);
+        } else {
+            LocalDate date = parseDate(input.getDate());
+            if (date == null) {
+                return;
+            }
+            ElpriserAPI fetcher = api.get();
+            pricesByZone = fetcher.getPriser(date, zones);
+            Map<ElpriserAPI.Prisklass, List<ElpriserAPI.Elpris>> tomorrow = fetcher.getPriser(date.plusDays(1), zones);
+            pricesByZone.replaceAll((zone, today) -> continuesAfter(today, tomorrow.get(zone))
+                    ? PriceSeries.concat(today, tomorrow.get(zone)) : today);
         }
 
-        if (chargingEnabled && chargingHours > 0) {
-            List<ElpriserAPI.Elpris> combined = new ArrayList<ElpriserAPI.Elpris>(todaysPrices);
-            combined.addAll(tomorrowsPrices);
-            calculateChargingWindow(combined, chargingHours);
+        try (PriceWriter writer = PriceWriter.create(input.getFormat(), System.out)) {
+            for (Map.Entry<ElpriserAPI.Prisklass, List<ElpriserAPI.Elpris>> entry : pricesByZone.entrySet()) {
+                List<ElpriserAPI.Elpris> prices = input.isHourly() ? hourlyView(entry.getValue()) : entry.getValue();
+                writer.write(entry.getKey(), input.isSorted() ? sortedView(prices) : prices);
+            }
+        } catch (IOException e) {
+            System.err.println("Kunde inte skriva priserna: " + e.getMessage());
         }
     }
 
+    /**
+     * Hämtar alla elområden samtidigt och skriver ut statistik per zon följt av en tabell med
+     * zonernas priser och skillnaden mellan billigaste och dyraste zon i varje period.
+     */
+    public static void processAndPrintAllZones(LocalDate date, ElpriserAPI api, boolean hourly) {
+        Map<ElpriserAPI.Prisklass, List<ElpriserAPI.Elpris>> pricesByZone =
+                api.getPriser(date, EnumSet.allOf(ElpriserAPI.Prisklass.class));
+        if (hourly) {
+            pricesByZone.replaceAll((zone, prices) -> hourlyView(prices));
+        }
+        ZoneComparison comparison = ZoneComparison.of(pricesByZone);
+        if (comparison.slotCount() == 0) {
+            System.out.println("Inga priser för " + date + " i någon zon – ingen data.");
+            return;
+        }
+
+        // Hela utskriften byggs i en buffert; tabellen kan ha 96 rader med fyra zoner var
+        StringBuilder out = new StringBuilder(64 * (comparison.slotCount() + 16));
+        out.append(NEWLINE).append("=== Alla zoner (").append(date).append(") ===").append(NEWLINE).append(NEWLINE);
+        out.append("Zon    Medel  Lägsta  Högsta  (öre)").append(NEWLINE);
+        for (ElpriserAPI.Prisklass zone : comparison.zones()) {
+            PriceStatistics statistics = comparison.statistics(zone);
+            padEnd(out.append(zone), out.length() - zone.name().length(), 4);
+            if (statistics.isEmpty()) {
+                out.append("       -  ingen data").append(NEWLINE);
+            } else {
+                appendOreColumn(out, statistics.mean(), 8);
+                appendOreColumn(out, statistics.min(), 8);
+                appendOreColumn(out, statistics.max(), 8).append(NEWLINE);
+            }
+        }
+
+        out.append(NEWLINE).append("Tid        ");
+        for (ElpriserAPI.Prisklass zone : comparison.zones()) {
+            out.append("     ").append(zone);
+        }
+        out.append("  Skillnad").append(NEWLINE);
+        for (int slot = 0; slot < comparison.slotCount(); slot++) {
+            int from = out.length();
+            padEnd(appendSlot(out, comparison.timeStart(slot), comparison.timeEnd(slot)), from, 11);
+            for (ElpriserAPI.Prisklass zone : comparison.zones()) {
+                double sek = comparison.sekPerKWh(zone, slot);
+                if (Double.isNaN(sek)) {
+                    out.append("       -");
+                } else {
+                    appendOreColumn(out, sek, 8);
+                }
+            }
+            appendOreColumn(out, comparison.spread(slot), 10).append(NEWLINE);
+        }
+
+        int widest = comparison.maxSpreadSlot();
+        out.append(NEWLINE).append("Största skillnad: ");
+        appendSlot(out, comparison.timeStart(widest), comparison.timeEnd(widest)).append(' ');
+        appendOre(out, comparison.spread(widest)).append(" öre (")
+                .append(comparison.cheapestZone(widest)).append(" billigast, ")
+                .append(comparison.dearestZone(widest)).append(" dyrast)").append(NEWLINE);
+        appendOre(out.append("Medelskillnad: "), comparison.spreadStatistics().mean()).append(" öre").append(NEWLINE);
+        System.out.print(out);
+    }
+
+    /** Skriver priset i öre högerjusterat i en kolumn med bredden {@code width}. */
+    private static StringBuilder appendOreColumn(StringBuilder out, double sekPerKWh, int width) {
+        int from = out.length();
+        appendOre(out, sekPerKWh);
+        int missing = width - (out.length() - from);
+        for (int i = 0; i < missing; i++) {
+            out.insert(from, ' ');
+        }
+        return out;
+    }
+
+    /** Fyller ut med mellanslag till {@code width} tecken räknat från {@code from}. */
+    private static StringBuilder padEnd(StringBuilder out, int from, int width) {
+        for (int i = out.length() - from; i < width; i++) {
+            out.append(' ');
+        }
+        return out;
+    }
+
+    /**
+     * Bevakar priserna tills processen avbryts, med en och samma {@link ElpriserAPI}. Varje gång en
+     * dag får nya priser skrivs bara den dagens priser och statistik ut, och laddningen räknas om
+     * för de perioder som ännu inte har passerat.
+     * @see PriceWatcher
+     */
+    public static void watchPrices(ElpriserAPI.Prisklass priceClass, String zone, ElpriserAPI api, boolean hourly,
+                                   ChargingPlan charging) {
+        Map<LocalDate, List<ElpriserAPI.Elpris>> days = new TreeMap<>();
+        PriceWatcher watcher = new PriceWatcher(api, priceClass, (day, prices) -> {
+            LocalDate today = LocalDate.now(STOCKHOLM);
+            List<ElpriserAPI.Elpris> shown = hourly ? hourlyView(prices) : prices;
+            days.keySet().removeIf(known -> known.isBefore(today));
+            days.put(day, shown);
+
+            System.out.println();
+            System.out.println("Nya priser för " + day + " (hämtade " + formatClock(ZonedDateTime.now(STOCKHOLM)) + ")");
+            printPricesAndStatistics(shown, zone, day.toString(), false, day.equals(today) ? "Dagens" : "Morgondagens");
+
+            if (charging != null) {
+                // Bara fönster som berör den nya dagen räknas om; fönster helt inom andra dagar är oförändrade.
+                // Delad laddning väljer perioder över hela horisonten och räknas därför om helt.
+                List<ElpriserAPI.Elpris> all = PriceSeries.concat(new ArrayList<>(days.values()));
+                ZonedDateTime now = ZonedDateTime.now(STOCKHOLM);
+                List<ElpriserAPI.Elpris> affected = charging.split() != null
+                        ? upcomingPrices(all, now) : affectedPrices(all, day, chargingReach(charging), now);
+                if (!affected.isEmpty()) {
+                    System.out.println("Laddning i fönster som berör " + day + ":");
+                    printCharging(affected, charging);
+                }
+            }
+        });
+        System.out.println("Bevakar priserna för zon " + zone + ". Avsluta med Ctrl+C.");
+        watcher.run();
+    }
+
+    /**
+     * Startar en HTTP-server som svarar på frågor om priser, statistik och laddningsfönster med
+     * samma {@link ElpriserAPI} för alla förfrågningar, och blockerar tills processen avbryts.
+     * @see PriceServer
+     */
+    public static void servePrices(int port, ElpriserAPI api) {
+        try (PriceServer server = PriceServer.start(api, new InetSocketAddress(port))) {
+            System.out.println("Servern lyssnar på http://localhost:" + server.port() + " (/prices, /stats, /charging). Avsluta med Ctrl+C.");
+            Thread.currentThread().join();
+        } catch (IOException e) {
+            System.out.println("Kunde inte starta servern på port " + port + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Läser en fråga per rad (samma argument som på kommandoraden, t.ex. "--zone SE3 --charging 2h")
+     * från en fil eller stdin ("-") och besvarar alla med samma {@link ElpriserAPI}.
+     * @see #runBatch(BufferedReader, ElpriserAPI)
+     */
+    public static void runBatch(String source, ElpriserAPI api) {
+        try (BufferedReader reader = "-".equals(source)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(source), StandardCharsets.UTF_8)) {
+            runBatch(reader, api);
+        } catch (IOException e) {
+            System.out.println("Kunde inte läsa frågorna från " + source + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tolkar alla rader först och samlar de (datum, zon)-par som frågorna behöver. Varje par hämtas
+     * bara en gång, samtidigt på virtuella trådar med högst {@link ElpriserAPI#DEFAULT_MAX_CONCURRENCY}
+     * pågående hämtningar. Frågorna besvaras sedan ur just de hämtningarna, även när en dag saknas,
+     * så ingen fråga hämtar något på nytt. Svaren skrivs i radernas ordning, och varje rad besvaras
+     * så snart dess egna priser finns, medan senare rader fortfarande hämtas. Tomma rader och rader
+     * som börjar med # hoppas över.
+     */
+    public static void runBatch(BufferedReader reader, ElpriserAPI api) throws IOException {
+        List<BatchQuery> queries = new ArrayList<>();
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            String trimmed = line.strip();
+            if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+                queries.add(parseBatchQuery(trimmed));
+            }
+        }
+
+        Map<ElpriserAPI.PriceQuery, Future<List<ElpriserAPI.Elpris>>> fetches = new ConcurrentHashMap<>();
+        Semaphore permits = new Semaphore(ElpriserAPI.DEFAULT_MAX_CONCURRENCY);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Function<ElpriserAPI.PriceQuery, Future<List<ElpriserAPI.Elpris>>> fetch = q -> executor.submit(() -> {
+                permits.acquire();
+                try {
+                    return api.getPriser(q.datum(), q.prisklass());
+                } finally {
+                    permits.release();
+                }
+            });
+            for (BatchQuery query : queries) {
+                for (ElpriserAPI.PriceQuery needed : query.needed()) {
+                    fetches.computeIfAbsent(needed, fetch);
+                }
+            }
+
+            // Frågorna läser ur hämtningarna ovan; en dag som ingen rad förutsåg hämtas en gång och läggs till
+            ElpriserAPI prefetched = new ElpriserAPI(true, new BatchPriceSource(fetches, fetch));
+            for (BatchQuery query : queries) {
+                System.out.println("### " + query.line());
+                System.out.print(query.parseOutput());
+                if (query.input() != null) {
+                    runQuery(query.input(), () -> prefetched);
+                }
+                System.out.println();
+            }
+        }
+        System.out.println("Besvarade " + queries.size() + " frågor med " + fetches.size() + " unika hämtningar");
+    }
+
+    private static BatchQuery parseBatchQuery(String line) {
+        String[] args = line.split("\\s+");
+        // Felmeddelanden från tolkningen sparas och skrivs ut i tur och ordning med svaren
+        ByteArrayOutputStream messages = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        UserInput input;
+        System.setOut(new PrintStream(messages, true, out.charset()));
+        try {
+            input = parseUserInput(args);
+            if (input != null && (input.getBatch() != null || input.getServePort() >= 0 || input.isWatch())) {
+                System.out.println("--batch, --serve och --watch kan inte användas i en batchfråga");
+                input = null;
+            }
+        } finally {
+            System.setOut(out);
+        }
+        return new BatchQuery(line, input, messages.toString(out.charset()), input == null ? List.of() : neededPrices(input));
+    }
+
+    /**
+     * @return De (datum, zon)-par som frågan läser: dagen och morgondagen, eller alla dagar i
+     * intervallet för --from. Ogiltiga zoner och datum ger inga par; de rapporteras när frågan körs.
+     */
+    static List<ElpriserAPI.PriceQuery> neededPrices(UserInput input) {
+        List<ElpriserAPI.Prisklass> zones;
+        List<LocalDate> days = new ArrayList<>();
+        try {
+            zones = ALL_ZONES.equals(input.getZone())
+                    ? List.of(ElpriserAPI.Prisklass.values())
+                    : List.of(ElpriserAPI.Prisklass.valueOf(input.getZone()));
+            if (input.getFrom() != null) {
+                LocalDate to = LocalDate.parse(input.getTo());
+                for (LocalDate day = LocalDate.parse(input.getFrom()); !day.isAfter(to); day = day.plusDays(1)) {
+                    days.add(day);
+                }
+            } else {
+                LocalDate day = LocalDate.parse(input.getDate());
+                days.add(day);
+                days.add(day.plusDays(1));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return List.of();
+        }
+        List<ElpriserAPI.PriceQuery> needed = new ArrayList<>(zones.size() * days.size());
+        for (LocalDate day : days) {
+            for (ElpriserAPI.Prisklass zone : zones) {
+                needed.add(new ElpriserAPI.PriceQuery(day, zone));
+            }
+        }
+        return needed;
+    }
+
+    /**
+     * @return De kommande perioder som ett fönster med längden {@code reach} kan använda om det
+     * berör {@code day}: dagen plus {@code reach} före och efter. En delvy utan kopiering.
+     */
+    static List<ElpriserAPI.Elpris> affectedPrices(List<ElpriserAPI.Elpris> prices, LocalDate day, Duration reach,
+                                                   ZonedDateTime now) {
+        ZonedDateTime from = day.atStartOfDay(STOCKHOLM).minus(reach);
+        ZonedDateTime to = day.plusDays(1).atStartOfDay(STOCKHOLM).plus(reach);
+        List<ElpriserAPI.Elpris> upcoming = upcomingPrices(prices, now.isAfter(from) ? now : from);
+        int end = 0;
+        while (end < upcoming.size() && upcoming.get(end).timeStart().isBefore(to)) {
+            end++;
+        }
+        return upcoming.subList(0, end);
+    }
+
+    /**
+     * @return Det längsta fönster som laddningen eller någon last kan behöva.
+     */
+    private static Duration chargingReach(ChargingPlan charging) {
+        Duration reach = charging.duration() != null ? charging.duration() : Duration.ZERO;
+        for (LoadScheduler.Load load : charging.loads()) {
+            if (load.duration().compareTo(reach) > 0) {
+                reach = load.duration();
+            }
+        }
+        return reach;
+    }
+
+    /**
+     * @return Perioderna som slutar efter {@code now}; en delvy utan kopiering.
+     */
+    public static List<ElpriserAPI.Elpris> upcomingPrices(List<ElpriserAPI.Elpris> prices, ZonedDateTime now) {
+        int first = 0;
+        while (first < prices.size() && !prices.get(first).timeEnd().isAfter(now)) {
+            first++;
+        }
+        return prices.subList(first, prices.size());
+    }
+
     public static List<ElpriserAPI.Elpris> fetchTodaysPrices(LocalDate parsedDate, ElpriserAPI.Prisklass priceClass, ElpriserAPI api) {
         LocalDate today = LocalDate.now();
         List<ElpriserAPI.Elpris> todaysPrices = api.getPriser(parsedDate.toString(), priceClass);
 
         if (parsedDate.equals(today) && LocalTime.now().getHour() < 13) {
-            System.out.println("Du får vänta tills efter kl 13 för att få morgondagens priser, skriver endast ut dagens priser:");
-            if (todaysPrices.size() == 96) {
-                todaysPrices = convertQuarterlyToHourlyPrices(todaysPrices);
-            }
-            return todaysPrices;
-        }
-
-        if (todaysPrices.size() == 96) {
-            todaysPrices = convertQuarterlyToHourlyPrices(todaysPrices);
+            System.out.println("Du får vänta tills efter kl 13 för att få morgondagens priser (eller använda --watch), skriver endast ut dagens priser:");
         }
         return todaysPrices;
     }
 
     public static List<ElpriserAPI.Elpris> fetchTomorrowsPrices(LocalDate parsedDate, ElpriserAPI.Prisklass priceClass, ElpriserAPI api) {
-        List<ElpriserAPI.Elpris> tomorrowsPrices = api.getPriser(parsedDate.plusDays(1).toString(), priceClass);
+        return fetchTomorrowsPricesAsync(parsedDate, priceClass, api).join();
+    }
 
-        if (tomorrowsPrices.size() == 96) {
-            tomorrowsPrices = convertQuarterlyToHourlyPrices(tomorrowsPrices);
-        }
-        return tomorrowsPrices;
+    public static CompletableFuture<List<ElpriserAPI.Elpris>> fetchTomorrowsPricesAsync(LocalDate parsedDate, ElpriserAPI.Prisklass priceClass, ElpriserAPI api) {
+        return api.getPriserAsync(parsedDate.plusDays(1), priceClass);
     }
 
     public static void printPricesAndStatistics(List<ElpriserAPI.Elpris> prices, String zone, String date, boolean sorted, String label) {
@@ -204,47 +959,144 @@ public class Main {
         System.out.println();
         System.out.println("=== " + label + " priser (" + date + ", zon " + zone + ") ===");
 
-        List<ElpriserAPI.Elpris> toPrint = new ArrayList<>(prices);
-
-        if (sorted) {
-            sortPricesAscending(toPrint);
-        }
-
-        printPriceList(toPrint, zone, date, sorted);
+        printPriceList(sorted ? sortedView(prices) : prices, zone, date, sorted);
         System.out.println();
         printPriceStatistics(prices, label);
     }
 
+    private static void printCharging(List<ElpriserAPI.Elpris> prices, ChargingPlan charging) {
+        if (charging.duration() != null) {
+            if (charging.split() == null) {
+                calculateChargingWindow(prices, charging.duration());
+            } else {
+                calculateSplitCharging(prices, charging.duration(), charging.split());
+            }
+            if (charging.alternatives() > 0) {
+                printAlternativeChargingWindows(prices, charging.duration(), charging.alternatives());
+            }
+        }
+        if (!charging.loads().isEmpty()) {
+            printLoadSchedule(prices, charging.loads(), charging.maxPowerKW());
+        }
+    }
+
     public static void calculateChargingWindow(List<ElpriserAPI.Elpris> prices, int hours) {
-        calculateOptimalChargingWindow(prices, hours);
+        calculateOptimalChargingWindow(prices, Duration.ofHours(hours));
+    }
+
+    public static void calculateChargingWindow(List<ElpriserAPI.Elpris> prices, Duration duration) {
+        calculateOptimalChargingWindow(prices, duration);
+    }
+
+    /**
+     * Priserna sorterade från lägsta till högsta, med lika priser i tidsordning. Kompakta serier
+     * använder sitt cachade rangindex ({@link PriceSeries#rankOrder()}) utan att kopiera perioderna.
+     */
+    public static List<ElpriserAPI.Elpris> sortedView(List<ElpriserAPI.Elpris> prices) {
+        PriceSeries series = PriceSeries.tryOf(prices);
+        if (series != null) {
+            return series.sortedView();
+        }
+        List<ElpriserAPI.Elpris> sorted = new ArrayList<>(prices);
+        sortPricesAscending(sorted);
+        return sorted;
+    }
+
+    /**
+     * @return Om {@code next} börjar precis där {@code prices} slutar, t.ex. morgondagens priser efter dagens.
+     */
+    public static boolean continuesAfter(List<ElpriserAPI.Elpris> prices, List<ElpriserAPI.Elpris> next) {
+        if (prices.isEmpty() || next.isEmpty()) {
+            return false;
+        }
+        return prices.getLast().timeEnd().toInstant().equals(next.getFirst().timeStart().toInstant());
+    }
+
+    /**
+     * Skriver ut de {@code count} billigaste perioderna i prisordning, med datum eftersom listan
+     * kan sträcka sig över två dagar.
+     */
+    public static void printCheapestSlots(List<ElpriserAPI.Elpris> prices, String zone, int count) {
+        if (prices.isEmpty()) {
+            return;
+        }
+        List<ElpriserAPI.Elpris> sorted = sortedView(prices);
+        int shown = Math.min(count, sorted.size());
+        StringBuilder out = new StringBuilder(shown * 32 + 80);
+        out.append(NEWLINE).append("=== De ").append(shown).append(" billigaste perioderna (zon ").append(zone).append(") ===")
+                .append(NEWLINE).append(NEWLINE);
+        for (int i = 0; i < shown; i++) {
+            ElpriserAPI.Elpris elpris = sorted.get(i);
+            out.append(i + 1).append(". ").append(elpris.timeStart().toLocalDate()).append(' ');
+            appendSlot(out, elpris.timeStart(), elpris.timeEnd()).append(' ');
+            appendOre(out, elpris.sekPerKWh()).append(" öre").append(NEWLINE);
+        }
+        System.out.print(out);
     }
 
     public static void sortPricesAscending(List<ElpriserAPI.Elpris> prices) {
         if (prices == null || prices.size() < 2) {
             return;
         }
-        prices.sort(Comparator.comparing(ElpriserAPI.Elpris::sekPerKWh));
+        prices.sort(Comparator.comparingDouble(ElpriserAPI.Elpris::sekPerKWh));
+    }
+
+    /**
+     * Priserna som timmedelvärden. Kompakta serier använder sin cachade timvy
+     * ({@link PriceSeries#hourly()}), som även klarar dygn med sommartidsomställning.
+     * @return Timpriser, eller listan oförändrad om den inte består av kvartspriser.
+     */
+    public static List<ElpriserAPI.Elpris> hourlyView(List<ElpriserAPI.Elpris> prices) {
+        PriceSeries series = PriceSeries.tryOf(prices);
+        if (series != null) {
+            return series.hourly().asList();
+        }
+        if (prices.isEmpty() || prices.size() % 4 != 0) {
+            return prices;
+        }
+        for (ElpriserAPI.Elpris price : prices) {
+            if (!Duration.between(price.timeStart(), price.timeEnd()).equals(Duration.ofMinutes(15))) {
+                return prices;
+            }
+        }
+        return convertQuarterlyToHourlyPrices(prices);
     }
 
+    /**
+     * Slår ihop var fjärde kvart till en timme. Antalet kvartar behöver inte vara 96, så dygn med
+     * 92 eller 100 kvartar (sommartidsomställning) ger 23 respektive 25 timmar.
+     * @throws IllegalArgumentException om listan är tom eller antalet inte är delbart med 4.
+     */
     public static List<ElpriserAPI.Elpris> convertQuarterlyToHourlyPrices(List<ElpriserAPI.Elpris> quarters) {
-        if (quarters.size() != 96) {
-            throw new IllegalArgumentException("Ogiltigt antal kvartar (måste vara 96)");
+        if (quarters.isEmpty() || quarters.size() % 4 != 0) {
+            throw new IllegalArgumentException("Ogiltigt antal kvartar (måste vara delbart med 4)");
+        }
+
+        // Kompakta serier räknas om direkt på sina arrayer
+        PriceSeries series = PriceSeries.tryOf(quarters);
+        if (series != null && series.slotSeconds() == 15 * 60) {
+            return series.hourly().asList();
         }
 
         List<ElpriserAPI.Elpris> hourly = new ArrayList<ElpriserAPI.Elpris>();
-        for (int i = 0; i < 24; i++) {
+        for (int i = 0; i < quarters.size() / 4; i++) {
             int startIndex = i * 4;
             int endIndex = startIndex + 4;
             double sum = 0.0;
+            double eurSum = 0.0;
+            double exrSum = 0.0;
             ZonedDateTime startTime = quarters.get(startIndex).timeStart();
             ZonedDateTime endTime = quarters.get(endIndex - 1).timeEnd();
 
             for (int j = startIndex; j < endIndex; j++) {
-                sum = sum + quarters.get(j).sekPerKWh();
+                ElpriserAPI.Elpris quarter = quarters.get(j);
+                sum = sum + quarter.sekPerKWh();
+                eurSum = eurSum + quarter.eurPerKWh();
+                exrSum = exrSum + quarter.exr();
             }
 
             double avg = sum / 4.0;
-            hourly.add(new ElpriserAPI.Elpris(avg, 0.0, 0.0, startTime, endTime));
+            hourly.add(new ElpriserAPI.Elpris(avg, eurSum / 4.0, exrSum / 4.0, startTime, endTime));
         }
 
         return hourly;
@@ -256,182 +1108,357 @@ public class Main {
             return;
         }
 
+        // Hela listan byggs i en buffert och skrivs ut med ett anrop istället för ett per rad
+        StringBuilder out = new StringBuilder(prices.size() * 24 + 64);
         if (sorted) {
-            System.out.println("(Priserna är sorterade från det lägsta till det högsta)");
-            System.out.println();
+            out.append("(Priserna är sorterade från det lägsta till det högsta)").append(NEWLINE);
         } else {
-            System.out.println("(Priserna visas i tidsordning)");
-            System.out.println();
+            out.append("(Priserna visas i tidsordning)").append(NEWLINE);
         }
+        out.append(NEWLINE);
 
-        Locale sv = new Locale("sv", "SE");
         for (int i = 0; i < prices.size(); i++) {
             ElpriserAPI.Elpris elpris = prices.get(i);
-            int startHour = elpris.timeStart().getHour();
-            int endHour = elpris.timeEnd().getHour();
+            appendSlot(out, elpris.timeStart(), elpris.timeEnd()).append(' ');
+            appendOre(out, elpris.sekPerKWh()).append(" öre").append(NEWLINE);
+        }
+        System.out.print(out);
+    }
 
-            String hourRange = "";
-            if (startHour < 10) {
-                hourRange = "0" + startHour + "-";
-            } else {
-                hourRange = startHour + "-";
-            }
-            if (endHour < 10) {
-                hourRange = hourRange + "0" + endHour;
-            } else {
-                hourRange = hourRange + endHour;
-            }
+    public static void printPriceStatistics(List<ElpriserAPI.Elpris> prices, String label) {
+        if (prices == null || prices.isEmpty()) {
+            return;
+        }
+        printPriceStatistics(PriceStatistics.of(prices), label);
+    }
 
-            double ore = elpris.sekPerKWh() * 100;
-            System.out.printf("%s %s öre%n", hourRange, String.format(sv, "%.2f", ore));
+    /**
+     * Skriver ut statistik som redan räknats fram, t.ex. flera dagars statistik hopslagen med
+     * {@link PriceStatistics#merge(PriceStatistics)}.
+     */
+    public static void printPriceStatistics(PriceStatistics statistics, String label) {
+        if (statistics == null || statistics.isEmpty()) {
+            return;
         }
+        ElpriserAPI.Elpris min = statistics.minPrice();
+        ElpriserAPI.Elpris max = statistics.maxPrice();
+
+        StringBuilder out = new StringBuilder(400);
+        out.append("=== ").append(label).append(" Statistik ===").append(NEWLINE).append(NEWLINE);
+        appendSlot(out.append("Högsta pris: "), max.timeStart(), max.timeEnd()).append(' ');
+        appendOre(out, max.sekPerKWh()).append(" öre").append(NEWLINE);
+        appendSlot(out.append("Lägsta pris: "), min.timeStart(), min.timeEnd()).append(' ');
+        appendOre(out, min.sekPerKWh()).append(" öre").append(NEWLINE);
+        appendOre(out.append("Medelpris: "), statistics.mean()).append(" öre").append(NEWLINE);
+        appendOre(out.append("Median: "), statistics.median()).append(" öre").append(NEWLINE);
+        appendOre(out.append("P10/P90: "), statistics.percentile(10)).append(" / ");
+        appendOre(out, statistics.percentile(90)).append(" öre").append(NEWLINE);
+        appendOre(out.append("Standardavvikelse: "), statistics.standardDeviation()).append(" öre").append(NEWLINE);
+        appendOre(out.append("Billigt under: "), statistics.cheapThreshold()).append(" öre (billigaste fjärdedelen)").append(NEWLINE);
+        System.out.print(out);
     }
 
-    public static void printPriceStatistics(List<ElpriserAPI.Elpris> prices, String label) {
+    /**
+     * @return "HH-HH" för hela timmar, t.ex. "01-02", och annars "HH:mm-HH:mm", t.ex. "01:15-01:30".
+     */
+    public static String formatSlot(ElpriserAPI.Elpris price) {
+        return formatSlot(price.timeStart(), price.timeEnd());
+    }
+
+    /** Som {@link #formatSlot(ElpriserAPI.Elpris)}, för en period given som start- och sluttid. */
+    public static String formatSlot(ZonedDateTime start, ZonedDateTime end) {
+        return appendSlot(new StringBuilder(11), start, end).toString();
+    }
+
+    private static StringBuilder appendSlot(StringBuilder out, ZonedDateTime start, ZonedDateTime end) {
+        if (start.getMinute() == 0 && end.getMinute() == 0 && !Duration.between(start, end).minusHours(1).isNegative()) {
+            return appendTwoDigits(appendTwoDigits(out, start.getHour()).append('-'), end.getHour());
+        }
+        return appendClock(appendClock(out, start).append('-'), end);
+    }
+
+    private static StringBuilder appendClock(StringBuilder out, ZonedDateTime time) {
+        return appendTwoDigits(appendTwoDigits(out, time.getHour()).append(':'), time.getMinute());
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder out, int value) {
+        return out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    /**
+     * @return Priset i öre med två decimaler och decimalkomma, t.ex. "12,35".
+     */
+    public static String formatOre(double sekPerKWh) {
+        return FixedDecimal.format(sekPerKWh * 100, 2);
+    }
+
+    private static StringBuilder appendOre(StringBuilder out, double sekPerKWh) {
+        return FixedDecimal.append(out, sekPerKWh * 100, 2, ',');
+    }
+
+    public static void calculateOptimalChargingWindow(List<ElpriserAPI.Elpris> prices, int hours) {
+        calculateOptimalChargingWindow(prices, Duration.ofHours(hours));
+    }
+
+    public static void calculateOptimalChargingWindow(List<ElpriserAPI.Elpris> prices, Duration duration) {
         if (prices == null || prices.isEmpty()) {
             return;
         }
+        ChargingWindowOptimizer.ChargingWindow window = ChargingWindowOptimizer.findCheapest(prices, duration);
+        if (window == null) {
+            System.out.println("Påbörja laddning kunde inte beräknas – inte tillräckligt med priser.");
+            return;
+        }
 
-        double sum = 0.0;
-        ElpriserAPI.Elpris min = prices.getFirst();
-        ElpriserAPI.Elpris max = prices.getFirst();
+        StringBuilder out = new StringBuilder(window.slotCount() * 40 + 160);
+        out.append(NEWLINE).append("=== Optimalt laddningsfönster ===").append(NEWLINE);
+        out.append("Påbörja laddning för ").append(formatDuration(duration)).append(':').append(NEWLINE).append(NEWLINE);
 
-        for (int i = 0; i < prices.size(); i++) {
+        double totalPrice = 0;
+        for (int i = window.startIndex(); i < window.endIndex(); i++) {
             ElpriserAPI.Elpris p = prices.get(i);
             double ore = p.sekPerKWh() * 100;
-            sum = sum + ore;
+            totalPrice = totalPrice + ore;
 
-            if (p.sekPerKWh() < min.sekPerKWh()) {
-                min = p;
-            } else if (p.sekPerKWh() > max.sekPerKWh()) {
-                max = p;
-            }
+            out.append(p.timeStart().toLocalDate()).append(" kl ");
+            appendClock(out, p.timeStart()).append('-');
+            appendClock(out, p.timeEnd()).append(": ");
+            FixedDecimal.append(out, ore, 2, ',').append(" öre").append(NEWLINE);
         }
 
-        double avg = sum / prices.size();
-
-        int minStart = min.timeStart().getHour();
-        int minEnd = min.timeEnd().getHour();
-        int maxStart = max.timeStart().getHour();
-        int maxEnd = max.timeEnd().getHour();
+        FixedDecimal.append(out.append("Totalt pris för fönstret: "), totalPrice, 2, ',').append(" öre").append(NEWLINE);
+        FixedDecimal.append(out.append("Medelpris för fönster: "), totalPrice / window.slotCount(), 2, ',').append(" öre").append(NEWLINE);
+        System.out.print(out);
+    }
 
-        String minRange = "";
-        if (minStart < 10) {
-            minRange = "0" + minStart + "-";
-        } else {
-            minRange = minStart + "-";
+    /**
+     * Skriver ut de billigaste perioderna för en laddning som får delas upp, se {@link SlotScheduler}.
+     */
+    public static void calculateSplitCharging(List<ElpriserAPI.Elpris> prices, Duration duration,
+                                              SlotScheduler.Constraints constraints) {
+        if (prices == null || prices.isEmpty()) {
+            return;
         }
-        if (minEnd < 10) {
-            minRange = minRange + "0" + minEnd;
-        } else {
-            minRange = minRange + minEnd;
+        SlotScheduler.Schedule schedule = SlotScheduler.schedule(prices, duration, constraints);
+        if (schedule == null) {
+            System.out.println("Laddningsschema kunde inte beräknas – inga perioder uppfyller villkoren.");
+            return;
         }
 
-        String maxRange = "";
-        if (maxStart < 10) {
-            maxRange = "0" + maxStart + "-";
-        } else {
-            maxRange = maxStart + "-";
+        StringBuilder out = new StringBuilder(schedule.runs().size() * 40 + 240);
+        out.append(NEWLINE).append("=== Billigaste laddningsperioder ===").append(NEWLINE);
+        out.append("Ladda ").append(formatDuration(duration)).append(" fördelat på ").append(schedule.runs().size())
+                .append(schedule.runs().size() == 1 ? " period:" : " perioder:").append(NEWLINE).append(NEWLINE);
+        for (ChargingWindowOptimizer.ChargingWindow run : schedule.runs()) {
+            appendRun(out, run).append(": medel ");
+            appendOre(out, run.meanSekPerKWh()).append(" öre").append(NEWLINE);
         }
-        if (maxEnd < 10) {
-            maxRange = maxRange + "0" + maxEnd;
-        } else {
-            maxRange = maxRange + maxEnd;
+        appendOre(out.append("Totalt pris för perioderna: "), schedule.totalSekPerKWh()).append(" öre").append(NEWLINE);
+        appendOre(out.append("Medelpris för perioderna: "), schedule.meanSekPerKWh()).append(" öre").append(NEWLINE);
+        if (!schedule.exact()) {
+            out.append("(För många perioder för en exakt beräkning – visar det billigaste sammanhängande fönstret.)")
+                    .append(NEWLINE);
         }
-
-        Locale sv = new Locale("sv", "SE");
-        System.out.println("=== " + label + " Statistik ===");
-        System.out.println();
-        System.out.println("Högsta pris: " + maxRange + " " + String.format(sv, "%.2f", max.sekPerKWh() * 100) + " öre");
-        System.out.println("Lägsta pris: " + minRange + " " + String.format(sv, "%.2f", min.sekPerKWh() * 100) + " öre");
-        System.out.println("Medelpris: " + String.format(sv, "%.2f", avg) + " öre");
+        System.out.print(out);
     }
 
-    public static void calculateOptimalChargingWindow(List<ElpriserAPI.Elpris> prices, int hours) {
+    /**
+     * Skriver ut de {@code count} billigaste fönstren som inte överlappar varandra, billigast först,
+     * så att ett upptaget fönster kan ersättas utan ny beräkning.
+     */
+    public static void printAlternativeChargingWindows(List<ElpriserAPI.Elpris> prices, Duration duration, int count) {
         if (prices == null || prices.isEmpty()) {
             return;
         }
-        if (prices.size() < hours) {
-            System.out.println("Påbörja laddning kunde inte beräknas – inte tillräckligt med priser.");
+        List<ChargingWindowOptimizer.ChargingWindow> windows = ChargingWindowOptimizer.findCheapest(prices, duration, count);
+        if (windows.isEmpty()) {
             return;
         }
 
-        double minSum = Double.MAX_VALUE;
-        int minIndex = 0;
+        StringBuilder out = new StringBuilder(windows.size() * 64 + 80);
+        out.append(NEWLINE).append("=== Alternativa laddningsfönster (").append(formatDuration(duration)).append(") ===")
+                .append(NEWLINE);
+        for (int i = 0; i < windows.size(); i++) {
+            ChargingWindowOptimizer.ChargingWindow window = windows.get(i);
+            appendRun(out.append(i + 1).append(". "), window).append(": totalt ");
+            appendOre(out, window.totalSekPerKWh()).append(" öre, medel ");
+            appendOre(out, window.meanSekPerKWh()).append(" öre").append(NEWLINE);
+        }
+        System.out.print(out);
+    }
 
-        for (int i = 0; i <= prices.size() - hours; i++) {
-            double sum = 0;
-            for (int j = 0; j < hours; j++) {
-                sum = sum + prices.get(i + j).sekPerKWh();
+    /**
+     * Skriver ut den billigaste placeringen av flera laster under en gemensam effektgräns, se {@link LoadScheduler}.
+     */
+    public static void printLoadSchedule(List<ElpriserAPI.Elpris> prices, List<LoadScheduler.Load> loads, double maxPowerKW) {
+        if (prices == null || prices.isEmpty()) {
+            return;
+        }
+        LoadScheduler.Plan plan = LoadScheduler.schedule(prices, loads, maxPowerKW);
+        switch (plan.status()) {
+            case EXCEEDS_MAX_POWER -> {
+                System.out.println("Lasterna kunde inte schemaläggas – de ryms inte under effektgränsen.");
+                return;
+            }
+            case TOO_FEW_PRICES -> {
+                System.out.println("Lasterna kunde inte schemaläggas – någon last är längre än de sammanhängande priserna.");
+                return;
             }
-            if (sum < minSum) {
-                minSum = sum;
-                minIndex = i;
+            case BUDGET_EXCEEDED -> {
+                System.out.println("Lasterna kunde inte schemaläggas – sökningen avbröts innan något schema hittades.");
+                return;
+            }
+            default -> {
             }
         }
 
-        System.out.println();
-        System.out.println("=== Optimalt laddningsfönster ===");
-        System.out.println("Påbörja laddning för " + hours + " timmar:");
-        System.out.println();
+        StringBuilder out = new StringBuilder(plan.placements().size() * 64 + 160);
+        out.append(NEWLINE).append("=== Schema för laster");
+        if (!Double.isInfinite(maxPowerKW)) {
+            FixedDecimal.append(out.append(" (max "), maxPowerKW, 1, ',').append(" kW)");
+        }
+        out.append(" ===").append(NEWLINE).append(NEWLINE);
+        for (LoadScheduler.Placement placement : plan.placements()) {
+            appendRun(out.append(placement.load().name()).append(": "), placement.window()).append(" (");
+            FixedDecimal.append(out, placement.load().kW(), 1, ',').append(" kW): ");
+            FixedDecimal.append(out, placement.costSek(), 2, ',').append(" kr").append(NEWLINE);
+        }
+        FixedDecimal.append(out.append("Total kostnad: "), plan.totalCostSek(), 2, ',').append(" kr").append(NEWLINE);
+        FixedDecimal.append(out.append("Högsta effekt: "), plan.peakKW(), 1, ',').append(" kW").append(NEWLINE);
+        if (!plan.optimal()) {
+            out.append("(Sökningen avbröts; schemat är det billigaste som hittades)").append(NEWLINE);
+        }
+        System.out.print(out);
+    }
 
-        Locale sv = new Locale("sv", "SE");
-        double totalPrice = 0;
+    /** Skriver t.ex. "2025-09-04 kl 01:00-03:00" för fönstret. */
+    private static StringBuilder appendRun(StringBuilder out, ChargingWindowOptimizer.ChargingWindow window) {
+        out.append(window.start().toLocalDate()).append(" kl ");
+        return appendClock(appendClock(out, window.start()).append('-'), window.end());
+    }
 
-        for (int i = minIndex; i < minIndex + hours; i++) {
-            ElpriserAPI.Elpris p = prices.get(i);
+    private static String formatClock(ZonedDateTime time) {
+        return appendClock(new StringBuilder(5), time).toString();
+    }
 
-            String date = p.timeStart().toLocalDate().toString();
-            int startHour = p.timeStart().getHour();
-            int startMinute = p.timeStart().getMinute();
-            int endHour = p.timeEnd().getHour();
-            int endMinute = p.timeEnd().getMinute();
+    /**
+     * @return T.ex. "2 timmar", "45 minuter" eller "1 timme och 30 minuter".
+     */
+    public static String formatDuration(Duration duration) {
+        long hours = duration.toHours();
+        int minutes = duration.toMinutesPart();
+        String hourText = hours == 1 ? "1 timme" : hours + " timmar";
+        if (minutes == 0) {
+            return hourText;
+        }
+        String minuteText = minutes + (minutes == 1 ? " minut" : " minuter");
+        return hours == 0 ? minuteText : hourText + " och " + minuteText;
+    }
 
-            String start = "";
-            if (startHour < 10) {
-                start = "0" + startHour + ":";
-            } else {
-                start = startHour + ":";
-            }
-            if (startMinute < 10) {
-                start = start + "0" + startMinute;
-            } else {
-                start = start + startMinute;
-            }
+    /**
+     * Villkor för delad laddning från kommandoraden.
+     * @param minRun Minsta tid per period, eller null för ingen gräns.
+     * @param maxSwitches Högsta antal perioder.
+     * @param deadline Tidpunkt då laddningen ska vara klar som HH:mm eller YYYY-MM-DDTHH:mm, eller null.
+     */
+    public record SplitOptions(Duration minRun, int maxSwitches, String deadline) {
+    }
 
-            String end = "";
-            if (endHour < 10) {
-                end = "0" + endHour + ":";
-            } else {
-                end = endHour + ":";
-            }
-            if (endMinute < 10) {
-                end = end + "0" + endMinute;
-            } else {
-                end = end + endMinute;
+    /**
+     * En rad ur --batch.
+     * @param input Den tolkade frågan, eller null om raden var ogiltig.
+     * @param parseOutput Det som skrevs ut när raden tolkades, t.ex. ett felmeddelande.
+     * @param needed De (datum, zon)-par som frågan behöver, se {@link #neededPrices(UserInput)}.
+     */
+    private record BatchQuery(String line, UserInput input, String parseOutput, List<ElpriserAPI.PriceQuery> needed) {
+    }
+
+    /**
+     * Svarar med resultaten från batchens gemensamma hämtningar; en tom lista blir "saknas".
+     */
+    private record BatchPriceSource(Map<ElpriserAPI.PriceQuery, Future<List<ElpriserAPI.Elpris>>> fetches,
+                                    Function<ElpriserAPI.PriceQuery, Future<List<ElpriserAPI.Elpris>>> fetch)
+            implements PriceSource {
+
+        @Override
+        public Result fetch(Request request) throws IOException, InterruptedException {
+            try {
+                List<ElpriserAPI.Elpris> prices = fetches
+                        .computeIfAbsent(new ElpriserAPI.PriceQuery(request.datum(), request.prisklass()), fetch).get();
+                return prices.isEmpty() ? Result.notFound() : Result.of(prices);
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
             }
+        }
 
-            double ore = p.sekPerKWh() * 100;
-            totalPrice = totalPrice + ore;
+        @Override
+        public String toString() {
+            return "batchens hämtningar";
+        }
+    }
 
-            System.out.println(date + " kl " + start + "-" + end + ": " + String.format(sv, "%.2f", ore) + " öre");
+    /**
+     * Vad som ska beräknas för laddningen.
+     * @param duration Laddningstiden, eller null om bara laster ska schemaläggas.
+     * @param split Villkor för delad laddning, eller null för ett sammanhängande fönster.
+     * @param alternatives Antal alternativa fönster att visa, eller 0 för inga.
+     * @param loads Laster som schemaläggs tillsammans, se {@link LoadScheduler}.
+     * @param maxPowerKW Säkringens gräns för lasternas sammanlagda effekt.
+     */
+    public record ChargingPlan(Duration duration, SlotScheduler.Constraints split, int alternatives,
+                               List<LoadScheduler.Load> loads, double maxPowerKW) {
+
+        public ChargingPlan {
+            loads = List.copyOf(loads);
         }
 
-        System.out.println("Totalt pris för fönstret: " + String.format(sv, "%.2f", totalPrice) + " öre");
-        System.out.println("Medelpris för fönster: " + String.format(sv, "%.2f", totalPrice / hours) + " öre");
+        public static ChargingPlan window(Duration duration) {
+            return new ChargingPlan(duration, null, 0, List.of(), Double.POSITIVE_INFINITY);
+        }
     }
 
     public static class UserInput {
         private String zone;
         private String date;
+        private String from;
+        private String to;
         private boolean sorted;
-        private int chargingHours;
+        private boolean hourly;
+        private int cheapest;
+        private PriceWriter.Format format;
+        private boolean watch;
+        private int servePort;
+        private String batch;
+        private Duration chargingDuration;
+        private SplitOptions splitOptions;
+        private int alternatives;
+        private List<LoadScheduler.Load> loads;
+        private double maxPowerKW;
 
         public UserInput(String zone, String date, boolean sorted, int chargingHours) {
+            this(zone, date, null, null, sorted, false, false, -1, null, 0, PriceWriter.Format.TEXT, chargingHours > 0 ? Duration.ofHours(chargingHours) : null, null, 0,
+                    List.of(), Double.POSITIVE_INFINITY);
+        }
+
+        public UserInput(String zone, String date, String from, String to, boolean sorted, boolean hourly, boolean watch,
+                         int servePort, String batch, int cheapest, PriceWriter.Format format, Duration chargingDuration, SplitOptions splitOptions, int alternatives,
+                         List<LoadScheduler.Load> loads, double maxPowerKW) {
             this.zone = zone;
             this.date = date;
+            this.from = from;
+            this.to = to;
             this.sorted = sorted;
-            this.chargingHours = chargingHours;
+            this.hourly = hourly;
+            this.watch = watch;
+            this.servePort = servePort;
+            this.batch = batch;
+            this.cheapest = cheapest;
+            this.format = format;
+            this.chargingDuration = chargingDuration;
+            this.splitOptions = splitOptions;
+            this.alternatives = alternatives;
+            this.loads = List.copyOf(loads);
+            this.maxPowerKW = maxPowerKW;
         }
 
         public String getZone() {
@@ -442,12 +1469,94 @@ public class Main {
             return this.date;
         }
 
+        public String getFrom() {
+            return this.from;
+        }
+
+        public String getTo() {
+            return this.to;
+        }
+
         public boolean isSorted() {
             return this.sorted;
         }
 
+        public boolean isHourly() {
+            return this.hourly;
+        }
+
+        /**
+         * @return Om programmet ska bevaka priserna tills det avbryts, se {@link PriceWatcher}.
+         */
+        public boolean isWatch() {
+            return this.watch;
+        }
+
+        /**
+         * @return Porten för {@code --serve}, 0 för valfri ledig port, eller -1 om ingen server ska startas.
+         */
+        public int getServePort() {
+            return this.servePort;
+        }
+
+        /**
+         * @return Filen som frågorna för {@code --batch} läses från, "-" för stdin, eller null utan --batch.
+         */
+        public String getBatch() {
+            return this.batch;
+        }
+
+        public PriceWriter.Format getFormat() {
+            return this.format;
+        }
+
+        /**
+         * @return Antal billigaste perioder att lista över båda dagarna, eller 0 för ingen lista.
+         */
+        public int getCheapest() {
+            return this.cheapest;
+        }
+
+        /**
+         * @return Laddningstiden avrundad uppåt till hela timmar, eller 0 om ingen laddning begärts.
+         */
         public int getChargingHours() {
-            return this.chargingHours;
+            if (this.chargingDuration == null) {
+                return 0;
+            }
+            return (int) ((this.chargingDuration.toMinutes() + 59) / 60);
+        }
+
+        /**
+         * @return Laddningstiden, eller null om ingen laddning begärts.
+         */
+        public Duration getChargingDuration() {
+            return this.chargingDuration;
+        }
+
+        /**
+         * @return Villkoren för delad laddning, eller null om laddningen ska ske i ett sammanhängande fönster.
+         */
+        public SplitOptions getSplitOptions() {
+            return this.splitOptions;
+        }
+
+        /**
+         * @return Antal alternativa laddningsfönster att visa, eller 0 för inga.
+         */
+        public int getAlternatives() {
+            return this.alternatives;
+        }
+
+        public List<LoadScheduler.Load> getLoads() {
+            return this.loads;
+        }
+
+        /**
+         * @return Säkringens gräns i kW, eller oändligt om ingen gräns angetts.
+         */
+        public double getMaxPowerKW() {
+            return this.maxPowerKW;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,300 @@
+package com.example.api;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hittar det billigaste sammanhängande laddningsfönstret i en prislista.
+ * <p>
+ * Fönstrets summa uppdateras löpande (en period in, en period ut), så sökningen är O(n) oavsett
+ * fönstrets längd istället för O(n·k) med en nästlad loop. Summorna räknas i heltal av
+ * {@link FleetOptimizer#PRICE_SCALE}-delar av en krona, avrundade per period som i
+ * {@link FleetOptimizer}, så lika billiga fönster är exakt lika trots avrundningsfel i flyttal och
+ * det tidigaste vinner. Fönster spänner aldrig över ett glapp i tidsserien, t.ex. en saknad timme
+ * eller en dag som inte ansluter till föregående dag.
+ * <p>
+ * {@link #findCheapest(List, Duration, int)} ger dessutom flera alternativa fönster som inte
+ * överlappar varandra, t.ex. när det billigaste fönstret redan är upptaget av ett annat fordon.
+ */
+public final class ChargingWindowOptimizer {
+
+    // Markerar starter utan giltigt fönster i findCheapest med flera fönster
+    private static final long NO_SUM = Long.MAX_VALUE;
+
+    // Laddningstid som timmar och/eller minuter, t.ex. "2h", "90m" eller "5h15m"
+    private static final Pattern DURATION = Pattern.compile("(?:(\\d+)h)?(?:(\\d+)m(?:in)?)?");
+
+    private ChargingWindowOptimizer() {
+    }
+
+    /**
+     * Tolkar en laddningstid som "2h", "90m", "5h15m" eller "45min".
+     * @return Laddningstiden, eller null om texten inte är en positiv tid.
+     */
+    public static Duration parseDuration(String text) {
+        Matcher matcher = DURATION.matcher(text.trim().toLowerCase());
+        if (text.isBlank() || !matcher.matches()) {
+            return null;
+        }
+        try {
+            long hours = matcher.group(1) == null ? 0 : Long.parseLong(matcher.group(1));
+            long minutes = matcher.group(2) == null ? 0 : Long.parseLong(matcher.group(2));
+            Duration duration = Duration.ofHours(hours).plusMinutes(minutes);
+            return duration.isZero() ? null : duration;
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Det billigaste fönstret.
+     * @param startIndex Index för fönstrets första period i prislistan.
+     * @param slotCount Antal perioder i fönstret.
+     * @param start Fönstrets starttid.
+     * @param end Fönstrets sluttid.
+     * @param totalSekPerKWh Summan av periodernas priser.
+     */
+    public record ChargingWindow(int startIndex, int slotCount, ZonedDateTime start, ZonedDateTime end,
+                                 double totalSekPerKWh) {
+
+        /** @return Index direkt efter fönstrets sista period. */
+        public int endIndex() {
+            return startIndex + slotCount;
+        }
+
+        /** @return Medelpriset per period i fönstret. */
+        public double meanSekPerKWh() {
+            return totalSekPerKWh / slotCount;
+        }
+    }
+
+    /**
+     * Hittar det billigaste fönstret som täcker minst {@code duration}. Längden avrundas uppåt
+     * till hela perioder, t.ex. blir 90 minuter två perioder med timpriser och sex med kvartspriser.
+     *
+     * @param prices Priserna i tidsordning med samma periodlängd.
+     * @param duration Hur länge laddningen ska pågå.
+     * @return Det billigaste fönstret, eller null om inget sammanhängande fönster är tillräckligt långt.
+     * @throws IllegalArgumentException om {@code duration} inte är positiv.
+     */
+    public static ChargingWindow findCheapest(List<ElpriserAPI.Elpris> prices, Duration duration) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Laddningstiden måste vara positiv");
+        }
+        if (prices.isEmpty()) {
+            return null;
+        }
+        PriceSeries series = PriceSeries.tryOf(prices);
+        long slotSeconds = slotSeconds(prices, series);
+        long slots = (duration.getSeconds() + slotSeconds - 1) / slotSeconds;
+        if (slots > prices.size()) {
+            return null;
+        }
+        return findCheapest(prices, series, (int) slots);
+    }
+
+    /**
+     * Hittar det billigaste fönstret med exakt {@code slots} perioder.
+     * @return Det billigaste fönstret, eller null om inget sammanhängande fönster är tillräckligt långt.
+     */
+    public static ChargingWindow findCheapest(List<ElpriserAPI.Elpris> prices, int slots) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("Fönstret måste innehålla minst en period");
+        }
+        return findCheapest(prices, PriceSeries.tryOf(prices), slots);
+    }
+
+    /**
+     * @param series Serien för {@code prices} från {@link PriceSeries#tryOf(List)}, eller null.
+     */
+    private static ChargingWindow findCheapest(List<ElpriserAPI.Elpris> prices, PriceSeries series, int slots) {
+        // En jämn serie är sammanhängande per definition; andra listor delas upp vid glappen
+        boolean contiguous = series != null;
+        double[] sek = contiguous ? series.sekPerKWh() : PriceSeries.sekColumn(prices);
+
+        int bestStart = -1;
+        long bestKey = Long.MAX_VALUE;
+        int segmentStart = 0;
+        while (segmentStart < sek.length) {
+            int segmentEnd = contiguous ? sek.length : segmentEnd(prices, segmentStart);
+            int start = cheapestStart(sek, segmentStart, segmentEnd, slots);
+            if (start >= 0) {
+                long key = fixedSum(sek, start, slots);
+                // Segmenten kommer i tidsordning, så vid lika summor behålls det tidigaste fönstret
+                if (key < bestKey) {
+                    bestKey = key;
+                    bestStart = start;
+                }
+            }
+            segmentStart = segmentEnd;
+        }
+        if (bestStart < 0) {
+            return null;
+        }
+        return new ChargingWindow(bestStart, slots, prices.get(bestStart).timeStart(),
+                prices.get(bestStart + slots - 1).timeEnd(), sum(sek, bestStart, slots));
+    }
+
+    /**
+     * Hittar upp till {@code count} fönster som täcker minst {@code duration} och inte överlappar
+     * varandra, billigast först. Varje fönster är det billigaste som inte överlappar de redan valda.
+     * <p>
+     * Alla fönstersummor räknas fram i en genomgång av listan; därefter plockas fönster ur en
+     * min-heap och fönster som överlappar ett valt fönster hoppas över, totalt O(n log n).
+     *
+     * @return Fönstren, billigast först; färre än {@code count} om listan inte räcker till fler.
+     * @throws IllegalArgumentException om {@code duration} inte är positiv eller {@code count} är mindre än 1.
+     */
+    public static List<ChargingWindow> findCheapest(List<ElpriserAPI.Elpris> prices, Duration duration, int count) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Laddningstiden måste vara positiv");
+        }
+        if (count < 1) {
+            throw new IllegalArgumentException("Antalet fönster måste vara minst 1");
+        }
+        if (prices.isEmpty()) {
+            return List.of();
+        }
+        PriceSeries series = PriceSeries.tryOf(prices);
+        long slotSeconds = slotSeconds(prices, series);
+        long slots = (duration.getSeconds() + slotSeconds - 1) / slotSeconds;
+        if (slots > prices.size()) {
+            return List.of();
+        }
+        return findCheapest(prices, series, (int) slots, count);
+    }
+
+    /**
+     * Som {@link #findCheapest(List, Duration, int)} men med exakt {@code slots} perioder per fönster.
+     */
+    public static List<ChargingWindow> findCheapest(List<ElpriserAPI.Elpris> prices, int slots, int count) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("Fönstret måste innehålla minst en period");
+        }
+        return findCheapest(prices, PriceSeries.tryOf(prices), slots, count);
+    }
+
+    private static List<ChargingWindow> findCheapest(List<ElpriserAPI.Elpris> prices, PriceSeries series, int slots, int count) {
+        boolean contiguous = series != null;
+        double[] sek = contiguous ? series.sekPerKWh() : PriceSeries.sekColumn(prices);
+
+        // Heltalssumman för varje giltigt startindex; NO_SUM för starter där fönstret skulle spänna över ett glapp
+        long[] sums = new long[sek.length];
+        Arrays.fill(sums, NO_SUM);
+        int segmentStart = 0;
+        while (segmentStart < sek.length) {
+            int segmentEnd = contiguous ? sek.length : segmentEnd(prices, segmentStart);
+            windowSums(sek, segmentStart, segmentEnd, slots, sums);
+            segmentStart = segmentEnd;
+        }
+
+        // Lika summor ordnas efter starttid, så att det tidigaste fönstret vinner
+        PriorityQueue<Integer> heap = new PriorityQueue<>((a, b) -> {
+            int bySum = Long.compare(sums[a], sums[b]);
+            return bySum != 0 ? bySum : Integer.compare(a, b);
+        });
+        for (int start = 0; start < sums.length; start++) {
+            if (sums[start] != NO_SUM) {
+                heap.add(start);
+            }
+        }
+
+        // Alla fönster är lika långa, så ett fönster överlappar ett valt fönster
+        // precis när dess första eller sista period redan är upptagen
+        boolean[] taken = new boolean[sek.length];
+        List<ChargingWindow> windows = new ArrayList<>(Math.min(count, 16));
+        while (windows.size() < count && !heap.isEmpty()) {
+            int start = heap.poll();
+            if (taken[start] || taken[start + slots - 1]) {
+                continue;
+            }
+            Arrays.fill(taken, start, start + slots, true);
+            windows.add(new ChargingWindow(start, slots, prices.get(start).timeStart(),
+                    prices.get(start + slots - 1).timeEnd(), sum(sek, start, slots)));
+        }
+        return windows;
+    }
+
+    /**
+     * Skriver heltalssumman för varje fönster med {@code slots} perioder som ryms i {@code [from, to)}
+     * till {@code sums[start]}. Summan uppdateras löpande, en period in och en ut.
+     */
+    private static void windowSums(double[] prices, int from, int to, int slots, long[] sums) {
+        if (to - from < slots) {
+            return;
+        }
+        long sum = fixedSum(prices, from, slots);
+        sums[from] = sum;
+        for (int start = from + 1; start + slots <= to; start++) {
+            sum += fixed(prices[start + slots - 1]) - fixed(prices[start - 1]);
+            sums[start] = sum;
+        }
+    }
+
+    /**
+     * Kärnan i sökningen, på en primitiv array: startindex för det billigaste fönstret med
+     * {@code slots} perioder inom {@code [from, to)}, eller -1 om intervallet är för kort.
+     */
+    public static int cheapestStart(double[] prices, int from, int to, int slots) {
+        if (to - from < slots) {
+            return -1;
+        }
+        long sum = fixedSum(prices, from, slots);
+        long bestSum = sum;
+        int bestStart = from;
+        for (int start = from + 1; start + slots <= to; start++) {
+            sum += fixed(prices[start + slots - 1]) - fixed(prices[start - 1]);
+            if (sum < bestSum) {
+                bestSum = sum;
+                bestStart = start;
+            }
+        }
+        return bestStart;
+    }
+
+    /** @return Priset i {@link FleetOptimizer#PRICE_SCALE}-delar av en krona, som i {@link FleetOptimizer}. */
+    private static long fixed(double sekPerKWh) {
+        return Math.round(sekPerKWh * FleetOptimizer.PRICE_SCALE);
+    }
+
+    private static long fixedSum(double[] prices, int start, int slots) {
+        long sum = 0;
+        for (int i = start; i < start + slots; i++) {
+            sum += fixed(prices[i]);
+        }
+        return sum;
+    }
+
+    private static double sum(double[] prices, int start, int slots) {
+        double sum = 0.0;
+        for (int i = start; i < start + slots; i++) {
+            sum += prices[i];
+        }
+        return sum;
+    }
+
+    /**
+     * @return Index direkt efter den sammanhängande delen av listan som börjar vid {@code from}.
+     */
+    private static int segmentEnd(List<ElpriserAPI.Elpris> prices, int from) {
+        int i = from + 1;
+        while (i < prices.size() && prices.get(i).timeStart().toInstant().equals(prices.get(i - 1).timeEnd().toInstant())) {
+            i++;
+        }
+        return i;
+    }
+
+    private static long slotSeconds(List<ElpriserAPI.Elpris> prices, PriceSeries series) {
+        if (series != null) {
+            return series.slotSeconds();
+        }
+        ElpriserAPI.Elpris first = prices.getFirst();
+        return Math.max(1, Duration.between(first.timeStart(), first.timeEnd()).getSeconds());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.api;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Spelar upp sparade API-svar från en lokal katalog, t.ex. ett arkiv med historiska priser.
+ * <p>
+ * Katalogen har samma struktur som API:ets URL:er: {@code <katalog>/2025/09-04_SE3.json}.
+ * Filer kan också vara gzip-komprimerade ({@code 09-04_SE3.json.gz}). Saknade filer motsvarar
+ * HTTP 404, dvs. att det inte finns några priser för dagen.
+ */
+public final class DirectoryPriceSource implements PriceSource {
+
+    private static final DateTimeFormatter FILE_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM-dd");
+
+    private final Path directory;
+
+    public DirectoryPriceSource(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return Sökvägen där okomprimerade priser för dagen förväntas ligga.
+     */
+    public Path fileFor(Request request) {
+        return directory.resolve(request.datum().format(FILE_DATE_FORMATTER) + "_" + request.prisklass().name() + ".json");
+    }
+
+    @Override
+    public Result fetch(Request request) throws IOException {
+        Path json = fileFor(request);
+        if (Files.isRegularFile(json)) {
+            return read(json, "identity");
+        }
+        Path gzip = json.resolveSibling(json.getFileName() + ".gz");
+        if (Files.isRegularFile(gzip)) {
+            return read(gzip, "gzip");
+        }
+        return Result.notFound();
+    }
+
+    private static Result read(Path file, String encoding) throws IOException {
+        byte[] body = Files.readAllBytes(file);
+        List<ElpriserAPI.Elpris> priser = HttpPriceSource.decode(body, encoding);
+        return priser == null ? Result.malformed(body.length) : Result.of(priser, null, null, body.length);
+    }
+
+    @Override
+    public String toString() {
+        return "katalogen " + directory;
+    }
+}
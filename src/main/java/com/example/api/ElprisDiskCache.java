@@ -0,0 +1,229 @@
+package com.example.api;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * En beständig disk-cache för redan tolkade elpriser.
+ * Varje nyckel (t.ex. "2025-08-30_SE3") sparas som en egen binärfil i kolumnformat:
+ * <pre>
+ * int    magic ("ELPC")
+ * int    version
+ * int    antal värden (n)
+ * int    längd i byte för validerarna (v)
+ * kolumnerna i {@link PriceColumns}:
+ * long[n]   time_start som epoch-sekunder
+ * long[n]   time_end som epoch-sekunder
+ * double[n] SEK_per_kWh
+ * double[n] EUR_per_kWh
+ * double[n] EXR
+ * int[n]    UTC-offset i sekunder för time_start
+ * int[n]    UTC-offset i sekunder för time_end
+ * byte[v]   ETag och Last-Modified i UTF-8, åtskilda av '\n'
+ * </pre>
+ * Filerna läses via minnesmappning utan någon JSON-tolkning. Skrivningar görs till en
+ * temporär fil som sedan flyttas på plats, så att en krasch aldrig lämnar en halvskriven fil.
+ * Validerarna gör att en utgången post kan förnyas med en villkorlig HTTP-förfrågan.
+ */
+public final class ElprisDiskCache {
+
+    /** Systemegenskap som kan användas för att välja en annan katalog för cachen. */
+    public static final String CACHE_DIR_PROPERTY = "elpriser.cache.dir";
+
+    private static final int MAGIC = 0x454C5043; // "ELPC"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int BYTES_PER_SLOT = PriceColumns.BYTES_PER_SLOT;
+    private static final String FILE_SUFFIX = ".bin";
+    // En skrivning tar millisekunder, så äldre temporära filer är kvarlämnade
+    private static final Duration STALE_TEMP_FILE_AGE = Duration.ofMinutes(1);
+
+    private final Path directory;
+
+    public ElprisDiskCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return Katalogen från {@value #CACHE_DIR_PROPERTY} om den är satt, annars ~/.elpriser_cache.
+     */
+    public static Path defaultDirectory() {
+        String configured = System.getProperty(CACHE_DIR_PROPERTY);
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".elpriser_cache");
+    }
+
+    /**
+     * En post i disk-cachen: de tolkade priserna och HTTP-validerarna från svaret de kom ifrån.
+     * @param etag Värdet på ETag-huvudet, eller null.
+     * @param lastModified Värdet på Last-Modified-huvudet, eller null.
+     */
+    public record Entry(List<ElpriserAPI.Elpris> priser, String etag, String lastModified) {}
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Läser priserna för en nyckel.
+     * @return Priserna, eller null om filen saknas eller inte kan läsas.
+     */
+    public List<ElpriserAPI.Elpris> load(String cacheKey) {
+        Entry entry = loadEntry(cacheKey);
+        return entry == null ? null : entry.priser();
+    }
+
+    /**
+     * Läser priserna och validerarna för en nyckel.
+     * @return Posten, eller null om filen saknas eller inte kan läsas.
+     */
+    public Entry loadEntry(String cacheKey) {
+        Path file = fileFor(cacheKey);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                ElprisLog.warn("Ogiltig disk-cache för " + cacheKey + " (för kort fil)");
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int count = validateHeader(buffer, size, cacheKey);
+            if (count < 0) {
+                return null;
+            }
+            List<ElpriserAPI.Elpris> priser = PriceColumns.read(buffer, HEADER_BYTES, count);
+            int validatorBytes = buffer.getInt(12);
+            if (validatorBytes == 0) {
+                return new Entry(priser, null, null);
+            }
+            byte[] validators = new byte[validatorBytes];
+            buffer.get(HEADER_BYTES + count * BYTES_PER_SLOT, validators);
+            String[] parts = new String(validators, StandardCharsets.UTF_8).split("\n", 2);
+            return new Entry(priser, emptyToNull(parts[0]), parts.length > 1 ? emptyToNull(parts[1]) : null);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            ElprisLog.warn("Kunde inte läsa disk-cache för " + cacheKey + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Sparar priserna för en nyckel atomiskt. Fel loggas men kastas inte vidare,
+     * eftersom cachen bara är en optimering.
+     */
+    public void save(String cacheKey, List<ElpriserAPI.Elpris> priser) {
+        save(cacheKey, priser, null, null);
+    }
+
+    /**
+     * Sparar priserna tillsammans med HTTP-validerarna från svaret de tolkades ifrån.
+     * @param etag Värdet på ETag-huvudet, eller null.
+     * @param lastModified Värdet på Last-Modified-huvudet, eller null.
+     */
+    public void save(String cacheKey, List<ElpriserAPI.Elpris> priser, String etag, String lastModified) {
+        ByteBuffer buffer = encode(priser, encodeValidators(etag, lastModified));
+        Path tmp = null;
+        try {
+            Files.createDirectories(directory);
+            deleteStaleTempFiles(cacheKey);
+            tmp = Files.createTempFile(directory, cacheKey, ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Path target = fileFor(cacheKey);
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            tmp = null;
+        } catch (IOException e) {
+            ElprisLog.warn("Kunde inte spara disk-cache för " + cacheKey + ": " + e.getMessage());
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException ignored) {
+                    // Den temporära filen tas bort vid nästa sparning av samma nyckel
+                }
+            }
+        }
+    }
+
+    // --- Privata hjälpmetoder ---
+
+    private Path fileFor(String cacheKey) {
+        return directory.resolve(cacheKey + FILE_SUFFIX);
+    }
+
+    /**
+     * Tar bort temporära filer för nyckeln som blivit kvar efter en krasch eller ett misslyckat försök.
+     * Bara filer äldre än {@link #STALE_TEMP_FILE_AGE} tas bort, så att en pågående skrivning från en
+     * annan process inte störs.
+     */
+    private void deleteStaleTempFiles(String cacheKey) {
+        long cutoff = System.currentTimeMillis() - STALE_TEMP_FILE_AGE.toMillis();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, cacheKey + "*.tmp")) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            // Filerna försöker tas bort igen vid nästa sparning
+        }
+    }
+
+    private static byte[] encodeValidators(String etag, String lastModified) {
+        if (etag == null && lastModified == null) {
+            return new byte[0];
+        }
+        String joined = (etag == null ? "" : etag) + "\n" + (lastModified == null ? "" : lastModified);
+        return joined.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static ByteBuffer encode(List<ElpriserAPI.Elpris> priser, byte[] validators) {
+        int n = priser.size();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + n * BYTES_PER_SLOT + validators.length);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(n).putInt(validators.length);
+        PriceColumns.write(buffer, priser);
+        return buffer.put(validators).flip();
+    }
+
+    private static int validateHeader(ByteBuffer buffer, long size, String cacheKey) {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            ElprisLog.warn("Ogiltig disk-cache för " + cacheKey + " (okänt format)");
+            return -1;
+        }
+        int count = buffer.getInt(8);
+        int validatorBytes = buffer.getInt(12);
+        if (count < 0 || validatorBytes < 0
+                || size != HEADER_BYTES + (long) count * BYTES_PER_SLOT + validatorBytes) {
+            ElprisLog.warn("Ogiltig disk-cache för " + cacheKey + " (fel storlek)");
+            return -1;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.api;
+
+import java.util.Locale;
+
+/**
+ * Minimal loggning för API:et med en global nivå.
+ * <p>
+ * Statusrader per anrop (t.ex. "Hämtar från minnes-cache ...") loggas på nivån {@link Level#DEBUG}
+ * och skrivs bara ut om nivån sänks, antingen med systemegenskapen {@value #LEVEL_PROPERTY}
+ * ({@code -Delpriser.log=debug}) eller med {@link #setLevel(Level)}. Fel loggas på nivån {@link Level#WARN}.
+ * Alla nivåer skrivs till {@code System.err}, så att {@code System.out} bara innehåller själva svaret
+ * (t.ex. CSV, JSON eller binärt format) även när en dag saknas. Siffror för cachträffar, hämtningar
+ * och latens finns istället i {@link ElpriserMetrics}.
+ */
+public final class ElprisLog {
+
+    /** Systemegenskap för loggnivån: debug, info, warn eller off. */
+    public static final String LEVEL_PROPERTY = "elpriser.log";
+
+    public enum Level {
+        DEBUG, INFO, WARN, OFF
+    }
+
+    private static volatile Level level = parseLevel(System.getProperty(LEVEL_PROPERTY));
+
+    private ElprisLog() {
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    /**
+     * Används för att slippa bygga meddelanden som ändå inte skrivs ut.
+     */
+    public static boolean isDebugEnabled() {
+        return level == Level.DEBUG;
+    }
+
+    public static void debug(String message) {
+        if (level == Level.DEBUG) {
+            System.err.println(message);
+        }
+    }
+
+    public static void info(String message) {
+        if (level.compareTo(Level.INFO) <= 0) {
+            System.err.println(message);
+        }
+    }
+
+    public static void warn(String message) {
+        if (level.compareTo(Level.WARN) <= 0) {
+            System.err.println(message);
+        }
+    }
+
+    static Level parseLevel(String value) {
+        if (value == null || value.isBlank()) {
+            return Level.INFO;
+        }
+        try {
+            return Level.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Okänd loggnivå '" + value + "' i " + LEVEL_PROPERTY + ", använder INFO");
+            return Level.INFO;
+        }
+    }
+}
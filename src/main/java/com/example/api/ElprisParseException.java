@@ -0,0 +1,25 @@
+package com.example.api;
+
+/**
+ * Kastas när prisdata inte kan tolkas alls, t.ex. när svaret inte är en JSON-array
+ * eller tar slut mitt i ett objekt. Enskilda trasiga prisobjekt rapporteras istället
+ * till {@link ElprisParser.PriceSink#malformed(long, String)} och hoppas över.
+ */
+public class ElprisParseException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long offset;
+
+    public ElprisParseException(long offset, String message) {
+        super(message + " (position " + offset + ")");
+        this.offset = offset;
+    }
+
+    /**
+     * @return Teckenpositionen (eller bytepositionen för binär indata) där felet upptäcktes.
+     */
+    public long getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,642 @@
+package com.example.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * En strömmande parser för elprisetjustnu.se:s prisformat.
+ * Indatan läses tecken för tecken i ett enda pass, utan regex, delsträngar eller temporära maps.
+ * Varje prisobjekt levereras som primitiva värden till en {@link PriceSink}, som antingen bygger
+ * {@link ElpriserAPI.Elpris}-objekt eller skriver direkt till primitiva arrayer.
+ * <p>
+ * Ett trasigt prisobjekt rapporteras med sin position till {@link PriceSink#malformed(long, String)}
+ * och hoppas över, medan fel i själva arrayen (t.ex. trunkerad data) kastar {@link ElprisParseException}.
+ */
+public final class ElprisParser {
+
+    /**
+     * Tar emot de tolkade värdena för ett prisobjekt i taget.
+     * Tidpunkter levereras som epoch-sekunder plus UTC-offset i sekunder.
+     */
+    public interface PriceSink {
+        void accept(double sekPerKWh, double eurPerKWh, double exr,
+                    long startEpochSecond, int startOffsetSeconds,
+                    long endEpochSecond, int endOffsetSeconds);
+
+        /**
+         * Anropas för varje prisobjekt som inte kunde tolkas. Standardbeteendet loggar felet.
+         * @param offset Positionen i indatan där felet upptäcktes.
+         */
+        default void malformed(long offset, String message) {
+            ElprisLog.warn("Kunde inte tolka ett elpris-objekt vid position " + offset + ": " + message);
+        }
+    }
+
+    private static final int EOF = -1;
+    private static final int MAX_TOKEN = 64;
+
+    private static final int SEK = 0;
+    private static final int EUR = 1;
+    private static final int EXR = 2;
+    private static final int TIME_START = 3;
+    private static final int TIME_END = 4;
+    private static final int ALL_FIELDS = (1 << 5) - 1;
+    private static final char[][] KEYS = {
+            "SEK_per_kWh".toCharArray(),
+            "EUR_per_kWh".toCharArray(),
+            "EXR".toCharArray(),
+            "time_start".toCharArray(),
+            "time_end".toCharArray()
+    };
+
+    // Tiopotenser som går att representera exakt som double (snabbväg för taltolkning)
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Input input;
+    private final PriceSink sink;
+
+    // Återanvänd buffert för nycklar, tal och tidsstämplar
+    private final char[] token = new char[MAX_TOKEN];
+    private int tokenLength;
+
+    private int c;
+    private long position = -1;
+
+    // Värden för prisobjektet som tolkas just nu
+    private int seen;
+    private double sek;
+    private double eur;
+    private double exr;
+    private long startEpochSecond;
+    private int startOffsetSeconds;
+    private long endEpochSecond;
+    private int endOffsetSeconds;
+    private long timestampEpochSecond;
+    private int timestampOffsetSeconds;
+
+    private ElprisParser(Input input, PriceSink sink) {
+        this.input = input;
+        this.sink = sink;
+    }
+
+    // --- Publika ingångar ---
+
+    public static List<ElpriserAPI.Elpris> parse(CharSequence json) {
+        ListSink sink = new ListSink();
+        parse(json, sink);
+        return sink.priser;
+    }
+
+    public static List<ElpriserAPI.Elpris> parse(ByteBuffer json) {
+        ListSink sink = new ListSink();
+        parse(json, sink);
+        return sink.priser;
+    }
+
+    public static List<ElpriserAPI.Elpris> parse(InputStream json) throws IOException {
+        ListSink sink = new ListSink();
+        parse(json, sink);
+        return sink.priser;
+    }
+
+    /**
+     * Tolkar prisdata från en teckensekvens.
+     * @return Antalet prisobjekt som levererades till {@code sink}.
+     */
+    public static int parse(CharSequence json, PriceSink sink) {
+        return runUnchecked(new CharSequenceInput(json), sink);
+    }
+
+    /**
+     * Tolkar UTF-8-kodad prisdata från bufferten, från dess position till dess gräns.
+     * Buffertens position påverkas inte.
+     * @return Antalet prisobjekt som levererades till {@code sink}.
+     */
+    public static int parse(ByteBuffer json, PriceSink sink) {
+        return runUnchecked(new ByteBufferInput(json.duplicate()), sink);
+    }
+
+    /**
+     * Tolkar UTF-8-kodad prisdata direkt från en ström. Strömmen stängs inte.
+     * @return Antalet prisobjekt som levererades till {@code sink}.
+     */
+    public static int parse(InputStream json, PriceSink sink) throws IOException {
+        return new ElprisParser(new StreamInput(json), sink).run();
+    }
+
+    static ZonedDateTime toZonedDateTime(long epochSecond, int offsetSeconds) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneOffset.ofTotalSeconds(offsetSeconds));
+    }
+
+    private static int runUnchecked(Input input, PriceSink sink) {
+        try {
+            return new ElprisParser(input, sink).run();
+        } catch (IOException e) {
+            // Kan inte inträffa för indata i minnet
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // --- Själva tolkningen ---
+
+    private int run() throws IOException {
+        advance();
+        skipWhitespace();
+        if (c != '[') {
+            throw structural("Förväntade '[' i början av prisdata");
+        }
+        advance();
+        skipWhitespace();
+        int count = 0;
+        if (c == ']') {
+            return count;
+        }
+        while (true) {
+            if (c != '{') {
+                throw structural("Förväntade '{'");
+            }
+            if (parseObject()) {
+                count++;
+            }
+            skipWhitespace();
+            if (c == ',') {
+                advance();
+                skipWhitespace();
+            } else if (c == ']') {
+                return count;
+            } else {
+                throw structural("Förväntade ',' eller ']'");
+            }
+        }
+    }
+
+    private boolean parseObject() throws IOException {
+        long objectStart = position;
+        seen = 0;
+        advance();
+        skipWhitespace();
+        try {
+            while (c != '}') {
+                if (c != '"') {
+                    throw malformed("Förväntade ett nyckelnamn");
+                }
+                readString();
+                int key = keyId();
+                skipWhitespace();
+                if (c != ':') {
+                    throw malformed("Förväntade ':' efter nyckelnamn");
+                }
+                advance();
+                skipWhitespace();
+                readValue(key);
+                skipWhitespace();
+                if (c == ',') {
+                    advance();
+                    skipWhitespace();
+                } else if (c != '}') {
+                    throw malformed("Förväntade ',' eller '}'");
+                }
+            }
+            advance();
+        } catch (Malformed e) {
+            sink.malformed(e.offset, e.getMessage());
+            skipNested(1);
+            return false;
+        }
+
+        if (seen != ALL_FIELDS) {
+            sink.malformed(objectStart, "Prisobjektet saknar fält: " + missingFields());
+            return false;
+        }
+        sink.accept(sek, eur, exr, startEpochSecond, startOffsetSeconds, endEpochSecond, endOffsetSeconds);
+        return true;
+    }
+
+    private void readValue(int key) throws IOException, Malformed {
+        switch (key) {
+            case SEK -> sek = readNumber();
+            case EUR -> eur = readNumber();
+            case EXR -> exr = readNumber();
+            case TIME_START -> {
+                readTimestamp();
+                startEpochSecond = timestampEpochSecond;
+                startOffsetSeconds = timestampOffsetSeconds;
+            }
+            case TIME_END -> {
+                readTimestamp();
+                endEpochSecond = timestampEpochSecond;
+                endOffsetSeconds = timestampOffsetSeconds;
+            }
+            default -> skipValue();
+        }
+        if (key >= 0) {
+            seen |= 1 << key;
+        }
+    }
+
+    private double readNumber() throws IOException, Malformed {
+        long valueStart = position;
+        if (c == '"') {
+            // Tal inom citattecken accepteras, precis som i den gamla parsern
+            readString();
+        } else {
+            int length = 0;
+            while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+                if (length == MAX_TOKEN) {
+                    throw new Malformed(valueStart, "För långt tal");
+                }
+                token[length++] = (char) c;
+                advance();
+            }
+            tokenLength = length;
+        }
+        return parseNumberToken(valueStart);
+    }
+
+    private double parseNumberToken(long valueStart) throws Malformed {
+        int length = tokenLength;
+        if (length <= 0) {
+            throw new Malformed(valueStart, "Förväntade ett tal");
+        }
+        int i = 0;
+        boolean negative = token[0] == '-';
+        if (negative) {
+            i++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int scale = 0;
+        boolean anyDigit = false;
+        for (; i < length && isDigit(token[i]); i++) {
+            anyDigit = true;
+            if (mantissa != 0 || token[i] != '0') {
+                if (++significantDigits <= 18) {
+                    mantissa = mantissa * 10 + (token[i] - '0');
+                } else {
+                    scale--;
+                }
+            }
+        }
+        if (i < length && token[i] == '.') {
+            i++;
+            for (; i < length && isDigit(token[i]); i++) {
+                anyDigit = true;
+                if (mantissa != 0 || token[i] != '0') {
+                    if (++significantDigits <= 18) {
+                        mantissa = mantissa * 10 + (token[i] - '0');
+                        scale++;
+                    }
+                } else {
+                    scale++;
+                }
+            }
+        }
+        int exponent = 0;
+        if (anyDigit && i < length && (token[i] == 'e' || token[i] == 'E')) {
+            i++;
+            boolean negativeExponent = i < length && token[i] == '-';
+            if (i < length && (token[i] == '-' || token[i] == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            for (; i < length && isDigit(token[i]); i++) {
+                if (exponent < 10_000) {
+                    exponent = exponent * 10 + (token[i] - '0');
+                }
+            }
+            if (i == exponentStart) {
+                anyDigit = false;
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        if (!anyDigit || i != length) {
+            throw new Malformed(valueStart, "Ogiltigt tal: " + new String(token, 0, length));
+        }
+
+        // Snabbväg: mantissan och tiopotensen är båda exakta, så en enda division
+        // eller multiplikation ger samma korrekt avrundade resultat som Double.parseDouble.
+        int power = exponent - scale;
+        if (significantDigits <= 15 && power >= -22 && power <= 22) {
+            double value = power < 0 ? mantissa / POW10[-power] : mantissa * POW10[power];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(new String(token, 0, length));
+    }
+
+    private void readTimestamp() throws IOException, Malformed {
+        long valueStart = position;
+        if (c != '"') {
+            throw malformed("Förväntade en tidsstämpel");
+        }
+        readString();
+        int length = tokenLength;
+        // Format: yyyy-MM-ddTHH:mm[:ss[.SSS]](Z|+HH:mm|-HH:mm)
+        int year = digits(0, 4);
+        int month = digits(5, 2);
+        int day = digits(8, 2);
+        int hour = digits(11, 2);
+        int minute = digits(14, 2);
+        boolean valid = length >= 16 && token[4] == '-' && token[7] == '-'
+                && (token[10] == 'T' || token[10] == ' ') && token[13] == ':';
+        int i = 16;
+        int second = 0;
+        if (valid && i < length && token[i] == ':') {
+            second = digits(17, 2);
+            i = 19;
+        }
+        if (valid && i < length && token[i] == '.') {
+            i++;
+            while (i < length && isDigit(token[i])) {
+                i++; // bråkdelar av sekunder förekommer inte i API:et och ignoreras
+            }
+        }
+        int offset = 0;
+        if (valid && i < length && token[i] == 'Z') {
+            i++;
+        } else if (valid && i < length && (token[i] == '+' || token[i] == '-')) {
+            int sign = token[i] == '-' ? -1 : 1;
+            int offsetHours = digits(i + 1, 2);
+            i += 3;
+            if (i < length && token[i] == ':') {
+                i++;
+            }
+            int offsetMinutes = digits(i, 2);
+            i += 2;
+            valid = offsetHours >= 0 && offsetHours <= 18 && offsetMinutes >= 0 && offsetMinutes <= 59;
+            offset = sign * (offsetHours * 3600 + offsetMinutes * 60);
+        } else {
+            valid = false;
+        }
+        valid = valid && i == length
+                && year >= 0 && month >= 1 && month <= 12 && day >= 1 && day <= lengthOfMonth(year, month)
+                && hour >= 0 && hour <= 23 && minute >= 0 && minute <= 59 && second >= 0 && second <= 59;
+        if (!valid) {
+            String text = length < 0 ? "(för lång)" : new String(token, 0, length);
+            throw new Malformed(valueStart, "Ogiltig tidsstämpel: " + text);
+        }
+        timestampEpochSecond = epochDay(year, month, day) * 86_400L + hour * 3600L + minute * 60L + second - offset;
+        timestampOffsetSeconds = offset;
+    }
+
+    private void skipValue() throws IOException, Malformed {
+        if (c == '"') {
+            readString();
+        } else if (c == '{' || c == '[') {
+            skipNested(0);
+        } else {
+            long valueStart = position;
+            while (c != ',' && c != '}' && c != ']' && c != EOF && !isWhitespace(c)) {
+                advance();
+            }
+            if (position == valueStart) {
+                throw malformed("Förväntade ett värde");
+            }
+        }
+    }
+
+    /**
+     * Hoppar fram till och förbi den klammer som tar nästlingsdjupet till noll.
+     * Strängar hoppas över i sin helhet så att klamrar inuti dem inte räknas.
+     */
+    private void skipNested(int depth) throws IOException {
+        boolean inString = false;
+        while (true) {
+            if (c == EOF) {
+                throw structural("Oväntat slut på prisdata");
+            }
+            if (inString) {
+                if (c == '\\') {
+                    advance();
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                if (--depth == 0) {
+                    advance();
+                    return;
+                }
+            }
+            advance();
+        }
+    }
+
+    /**
+     * Läser en sträng till {@link #token}. Sätter {@code tokenLength} till -1 om strängen
+     * inte ryms, vilket räcker eftersom nycklar och tidsstämplar alltid är korta.
+     */
+    private void readString() throws IOException {
+        advance();
+        int length = 0;
+        boolean overflow = false;
+        while (c != '"') {
+            if (c == EOF) {
+                throw structural("Oväntat slut på prisdata inuti en sträng");
+            }
+            if (c == '\\') {
+                advance();
+                if (c == EOF) {
+                    throw structural("Oväntat slut på prisdata inuti en sträng");
+                }
+            }
+            if (length < MAX_TOKEN) {
+                token[length++] = (char) c;
+            } else {
+                overflow = true;
+            }
+            advance();
+        }
+        advance();
+        tokenLength = overflow ? -1 : length;
+    }
+
+    private int keyId() {
+        for (int k = 0; k < KEYS.length; k++) {
+            char[] key = KEYS[k];
+            if (key.length == tokenLength && Arrays.equals(token, 0, tokenLength, key, 0, key.length)) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    private String missingFields() {
+        StringBuilder missing = new StringBuilder();
+        for (int k = 0; k < KEYS.length; k++) {
+            if ((seen & (1 << k)) == 0) {
+                if (!missing.isEmpty()) {
+                    missing.append(", ");
+                }
+                missing.append(KEYS[k]);
+            }
+        }
+        return missing.toString();
+    }
+
+    // --- Små hjälpmetoder ---
+
+    private void advance() throws IOException {
+        c = input.read();
+        position++;
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (isWhitespace(c)) {
+            advance();
+        }
+    }
+
+    private Malformed malformed(String message) {
+        if (c == EOF) {
+            throw structural("Oväntat slut på prisdata");
+        }
+        return new Malformed(position, message);
+    }
+
+    private ElprisParseException structural(String message) {
+        return new ElprisParseException(position, message);
+    }
+
+    private int digits(int from, int count) {
+        if (from < 0 || from + count > tokenLength) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            if (!isDigit(token[i])) {
+                return -1;
+            }
+            value = value * 10 + (token[i] - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(int ch) {
+        return ch >= '0' && ch <= '9';
+    }
+
+    private static boolean isWhitespace(int ch) {
+        return ch == ' ' || ch == '\n' || ch == '\r' || ch == '\t';
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Antal dagar sedan 1970-01-01 för ett datum i den proleptiska gregorianska kalendern.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    /**
+     * Ett fel i ett enskilt prisobjekt. Används bara för att avbryta objektet och saknar stackspår.
+     */
+    private static final class Malformed extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final long offset;
+
+        Malformed(long offset, String message) {
+            super(message, null, false, false);
+            this.offset = offset;
+        }
+    }
+
+    private static final class ListSink implements PriceSink {
+        private final List<ElpriserAPI.Elpris> priser = new ArrayList<>();
+
+        @Override
+        public void accept(double sekPerKWh, double eurPerKWh, double exr,
+                           long startEpochSecond, int startOffsetSeconds,
+                           long endEpochSecond, int endOffsetSeconds) {
+            priser.add(new ElpriserAPI.Elpris(sekPerKWh, eurPerKWh, exr,
+                    toZonedDateTime(startEpochSecond, startOffsetSeconds),
+                    toZonedDateTime(endEpochSecond, endOffsetSeconds)));
+        }
+    }
+
+    // --- Indatakällor ---
+
+    private abstract static class Input {
+        abstract int read() throws IOException;
+    }
+
+    private static final class CharSequenceInput extends Input {
+        private final CharSequence chars;
+        private int index;
+
+        CharSequenceInput(CharSequence chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        int read() {
+            return index < chars.length() ? chars.charAt(index++) : EOF;
+        }
+    }
+
+    private static final class ByteBufferInput extends Input {
+        private final ByteBuffer buffer;
+
+        ByteBufferInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : EOF;
+        }
+    }
+
+    private static final class StreamInput extends Input {
+        private final InputStream in;
+        private final byte[] buffer = new byte[8192];
+        private int index;
+        private int limit;
+
+        StreamInput(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        int read() throws IOException {
+            if (index == limit) {
+                int n = in.read(buffer, 0, buffer.length);
+                if (n <= 0) {
+                    index = limit = 0;
+                    return EOF;
+                }
+                index = 0;
+                limit = n;
+            }
+            return buffer[index++] & 0xFF;
+        }
+    }
+}
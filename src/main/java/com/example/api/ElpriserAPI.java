@@ -1,38 +1,80 @@
 package com.example.api;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.function.Supplier;
 
 /**
  * Ett enkelt API för att hämta elpriser från elprisetjustnu.se.
  * Klassen använder endast standardbibliotek från Java 21+ (HttpClient, Records, etc.).
+ * Var priserna kommer ifrån bestäms av en {@link PriceSource} som kan anges i konstruktorn.
  */
 public final class ElpriserAPI {
 
-    // Baskonstanter för API-anrop
-    private static final String API_BASE_URL = "https://www.elprisetjustnu.se/api/v1/prices";
-    private static final DateTimeFormatter URL_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM-dd");
+    /** Standardgräns för minnes-cachen räknat i antal prisvärden (ungefär två månader kvartsdata för alla zoner). */
+    public static final int DEFAULT_MAX_CACHED_PRICES = 96 * 4 * 62;
 
-    // En återanvändbar HttpClient-instans
-    private final HttpClient httpClient;
+    /** Hur länge dagens och morgondagens priser får ligga i minnes-cachen innan de hämtas igen. */
+    public static final Duration FRESH_DATA_TTL = Duration.ofHours(1);
+
+    /**
+     * Hur länge en dag som källan saknar (HTTP 404) minns som tom, t.ex. morgondagen före
+     * publiceringen. Aldrig längre än livslängden för dagens priser.
+     */
+    public static final Duration NOT_FOUND_TTL = Duration.ofMinutes(1);
+
+    /** Standardgräns för antalet samtidiga hämtningar i {@link #getPriserBatch(List)}. */
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
+
+    // Källan som priserna hämtas från, normalt elprisetjustnu.se via HTTP
+    private final PriceSource source;
+
+    // Om de statiska test-krokarna (setMockResponse m.fl.) ska gälla för den här instansen
+    private final boolean useStaticMocks;
     
     // Flagga för att styra cachlagring
     private final boolean cachingEnabled;
+
+    // Livslängd för dagens och kommande dagars priser i minnes-cachen
+    private final Duration freshDataTtl;
     
-    // Ett enkelt minnes-cache. Nyckeln är en kombination av datum och prisklass, t.ex. "2025-08-30_SE3"
-    private final Map<String, List<Elpris>> inMemoryCache;
+    // Ett begränsat minnes-cache. Nyckeln är en kombination av datum och prisklass, t.ex. "2025-08-30_SE3"
+    private final PrisCache<CachedPrices> inMemoryCache;
+
+    // Beständig cache på disk så att redan hämtade dagar överlever omstarter av JVM:en; null för lokala källor
+    private final ElprisDiskCache diskCache;
+
+    // Räknare och latenshistogram för cachträffar och hämtningar
+    private final ElpriserMetrics metrics = new ElpriserMetrics();
+
+    /**
+     * Cachade priser tillsammans med HTTP-validerarna från svaret, så att en utgången post
+     * kan förnyas med If-None-Match/If-Modified-Since istället för att laddas ner på nytt.
+     */
+    private record CachedPrices(List<Elpris> priser, String etag, String lastModified) {
+        static final CachedPrices EMPTY = new CachedPrices(Collections.emptyList(), null, null);
+
+        boolean hasValidators() {
+            return etag != null || lastModified != null;
+        }
+    }
 
     /**
      * En record som representerar ett enskilt elpris för en given tidsperiod.
@@ -53,15 +95,22 @@ public final class ElpriserAPI {
         SE1, SE2, SE3, SE4
     }
 
+    /**
+     * Ett (datum, prisklass)-par för batchhämtning med {@link #getPriserBatch(List, int)}.
+     */
+    public record PriceQuery(LocalDate datum, Prisklass prisklass) {}
+
     // --- Static fields for the test hook ---
+    // Prefer injecting an InMemoryPriceSource or DirectoryPriceSource through the constructor:
+    // these hooks are shared by every instance created without an explicit PriceSource.
     /**
      * This supplier is used ONLY for testing. If it's not null, the class will
      * use the String it provides instead of making a real HTTP call.
      */
-    private static Supplier<String> mockResponseSupplier = null;
+    private static volatile Supplier<String> mockResponseSupplier = null;
     
     // New: map mock responses per date, so tests can provide different JSON per day
-    private static java.util.Map<LocalDate, String> datedMockResponses = new java.util.HashMap<>();
+    private static final Map<LocalDate, String> datedMockResponses = new ConcurrentHashMap<>();
 
     /**
      * FOR TESTS ONLY: Sets a mock JSON response to be returned by the next API call.
@@ -106,13 +155,52 @@ public final class ElpriserAPI {
      * @param enableCaching Sätt till true för att aktivera minnes-cachning, annars false.
      */
     public ElpriserAPI(boolean enableCaching) {
-        this.httpClient = HttpClient.newBuilder()
-                .followRedirects(HttpClient.Redirect.NORMAL)
-                .build();
+        this(enableCaching, new HttpPriceSource(), defaultDiskCache(), FRESH_DATA_TTL, true);
+    }
+
+    /**
+     * Konstruktor för att hämta priser från en annan server med samma URL-struktur,
+     * t.ex. en spegel eller en lokal testserver.
+     * @param enableCaching Sätt till true för att aktivera cachning, annars false.
+     * @param apiBaseUrl Bas-URL utan avslutande snedstreck, t.ex. {@value HttpPriceSource#DEFAULT_BASE_URL}.
+     */
+    public ElpriserAPI(boolean enableCaching, String apiBaseUrl) {
+        this(enableCaching, new HttpPriceSource(apiBaseUrl));
+    }
+
+    /**
+     * Konstruktor för att hämta priser från en valfri {@link PriceSource}, t.ex. en uppspelning
+     * av sparade svar. Instansen påverkas inte av de statiska test-krokarna, så flera instanser
+     * med olika källor kan användas samtidigt i samma JVM.
+     * Disk-cachen används bara för källor där {@link PriceSource#isRemote()} är sann.
+     * @param enableCaching Sätt till true för att aktivera cachning, annars false.
+     * @param source Källan som priserna hämtas från.
+     */
+    public ElpriserAPI(boolean enableCaching, PriceSource source) {
+        this(enableCaching, source, source.isRemote() ? defaultDiskCache() : null, FRESH_DATA_TTL, false);
+    }
+
+    ElpriserAPI(boolean enableCaching, PriceSource source, ElprisDiskCache diskCache, Duration freshDataTtl) {
+        this(enableCaching, source, diskCache, freshDataTtl, false);
+    }
+
+    private ElpriserAPI(boolean enableCaching, PriceSource source, ElprisDiskCache diskCache,
+                        Duration freshDataTtl, boolean useStaticMocks) {
+        this.source = source;
+        this.useStaticMocks = useStaticMocks;
         this.cachingEnabled = enableCaching;
-        // ConcurrentHashMap är trådsäker om klassen skulle användas i flera trådar
-        this.inMemoryCache = new ConcurrentHashMap<>();
-        System.out.println("ElpriserAPI initialiserat. Cachning: " + (enableCaching ? "På" : "Av"));
+        this.freshDataTtl = freshDataTtl;
+        // PrisCache är trådsäker och slår ihop samtidiga hämtningar av samma nyckel
+        this.inMemoryCache = new PrisCache<>(DEFAULT_MAX_CACHED_PRICES, c -> c.priser().size());
+        this.diskCache = diskCache;
+        ElprisLog.debug("ElpriserAPI initialiserat. Cachning: " + (enableCaching ? "På" : "Av"));
+    }
+
+    /**
+     * @return Räknare och latenshistogram för den här instansen; använd {@link ElpriserMetrics#snapshot()}.
+     */
+    public ElpriserMetrics metrics() {
+        return metrics;
     }
 
     /**
@@ -128,7 +216,7 @@ public final class ElpriserAPI {
             LocalDate datum = LocalDate.parse(datumStr, DateTimeFormatter.ISO_LOCAL_DATE);
             return getPriser(datum, prisklass);
         } catch (Exception e) {
-            System.err.println("Ogiltigt datumformat. Använd YYYY-MM-DD. Fel: " + e.getMessage());
+            ElprisLog.warn("Ogiltigt datumformat. Använd YYYY-MM-DD. Fel: " + e.getMessage());
             return Collections.emptyList();
         }
     }
@@ -144,158 +232,399 @@ public final class ElpriserAPI {
         String cacheKey = getCacheKey(datum, prisklass);
 
         // Steg 1: Kolla minnes-cachen
-        if (cachingEnabled && inMemoryCache.containsKey(cacheKey)) {
-            System.out.println("Hämtar från minnes-cache för " + cacheKey);
-            return inMemoryCache.get(cacheKey);
+        List<Elpris> cachadePriser = getFromMemoryCache(cacheKey);
+        if (cachadePriser != null) {
+            return cachadePriser;
+        }
+        // Samtidiga anrop för samma nyckel delar på en enda hämtning
+        return inMemoryCache.getOrLoad(cacheKey, () -> load(datum, prisklass, cacheKey)).priser();
+    }
+
+    /**
+     * Slår upp en dag i minnes-cachen utan att hämta något, t.ex. för att avgöra om ett svar
+     * som räknats fram ur tidigare priser fortfarande gäller.
+     * @return De cachade priserna (tom lista för en dag som nyligen saknades), eller null om dagen
+     *         inte finns i cachen eller har gått ut.
+     */
+    List<Elpris> getCachedPriser(LocalDate datum, Prisklass prisklass) {
+        if (!cachingEnabled) {
+            return null;
         }
+        CachedPrices cached = inMemoryCache.getIfPresent(getCacheKey(datum, prisklass));
+        return cached == null ? null : cached.priser();
+    }
+
+    /**
+     * Hämtar elpriser för alla dagar från och med {@code from} till och med {@code to}.
+     * Dagar som redan finns i cachen återanvänds och övriga hämtas parallellt via {@link #getPriserBatch(List)}.
+     * Dagar utan data (t.ex. framtida dagar) hoppas över.
+     *
+     * @param from Första dagen i intervallet.
+     * @param to Sista dagen i intervallet (inklusive).
+     * @param prisklass Elprisområdet (SE1, SE2, SE3 eller SE4).
+     * @return Alla priser i tidsordning; en sammanhängande {@link PriceSeries}-vy när dagarna ansluter till varandra.
+     * @throws IllegalArgumentException om {@code to} ligger före {@code from}.
+     */
+    public List<Elpris> getPriser(LocalDate from, LocalDate to, Prisklass prisklass) {
+        return getPriser(from, to, List.of(prisklass)).get(prisklass);
+    }
+
+    /**
+     * Hämtar ett datumintervall för flera prisklasser i en och samma batch.
+     * @see #getPriser(LocalDate, LocalDate, Prisklass)
+     * @return En tidsordnad lista per prisklass.
+     */
+    public Map<Prisklass, List<Elpris>> getPriser(LocalDate from, LocalDate to, Collection<Prisklass> prisklasser) {
+        List<LocalDate> dagar = daysBetween(from, to);
+        List<PriceQuery> queries = new ArrayList<>(dagar.size() * prisklasser.size());
+        for (Prisklass prisklass : prisklasser) {
+            for (LocalDate dag : dagar) {
+                queries.add(new PriceQuery(dag, prisklass));
+            }
+        }
+        List<List<Elpris>> perDag = getPriserBatch(queries);
+
+        Map<Prisklass, List<Elpris>> result = new EnumMap<>(Prisklass.class);
+        int index = 0;
+        for (Prisklass prisklass : prisklasser) {
+            result.put(prisklass, PriceSeries.concat(perDag.subList(index, index + dagar.size())));
+            index += dagar.size();
+        }
+        return result;
+    }
 
-        // Steg 2: Försök ladda från disk-cache (framtida implementation)
-        var priserFrånDisk = loadFromDiskCache(cacheKey);
-        if (cachingEnabled && priserFrånDisk != null && !priserFrånDisk.isEmpty()) {
-             System.out.println("Hämtar från disk-cache för " + cacheKey);
-             inMemoryCache.put(cacheKey, priserFrånDisk); // Lägg i minnes-cachen för snabbare åtkomst nästa gång
-             return priserFrånDisk;
+    /**
+     * Hämtar en dag för flera prisklasser samtidigt, t.ex. alla fyra elområden för en jämförelse.
+     * Hämtningarna startas asynkront innan något resultat inväntas, så den totala tiden blir
+     * ungefär den långsammaste hämtningen istället för summan.
+     *
+     * @return Priserna per prisklass, ordnade SE1–SE4; tom lista där data saknas.
+     */
+    public Map<Prisklass, List<Elpris>> getPriser(LocalDate datum, Collection<Prisklass> prisklasser) {
+        Map<Prisklass, CompletableFuture<List<Elpris>>> futures = new EnumMap<>(Prisklass.class);
+        for (Prisklass prisklass : prisklasser) {
+            futures.put(prisklass, getPriserAsync(datum, prisklass));
         }
+        Map<Prisklass, List<Elpris>> result = new EnumMap<>(Prisklass.class);
+        futures.forEach((prisklass, future) -> result.put(prisklass, future.join()));
+        return result;
+    }
 
-        // Check for a mock response before making a network call ---
-        if (mockResponseSupplier != null || !datedMockResponses.isEmpty()) {
-            System.out.println("!!! ANVÄNDER MOCK-DATA FÖR TEST !!!");
-            String mockJson = datedMockResponses.getOrDefault(datum, mockResponseSupplier == null ? null : mockResponseSupplier.get());
+    /**
+     * @return Alla dagar från och med {@code from} till och med {@code to}.
+     * @throws IllegalArgumentException om {@code to} ligger före {@code from}.
+     */
+    public static List<LocalDate> daysBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Slutdatum " + to + " ligger före startdatum " + from);
+        }
+        return from.datesUntil(to.plusDays(1)).toList();
+    }
+
+    private CachedPrices load(LocalDate datum, Prisklass prisklass, String cacheKey) {
+        // Steg 2: Mock-data och disk-cache
+        CachedPrices stale = getStaleFromMemoryCache(cacheKey);
+        CachedPrices lokalaPriser = getPriserFrånMockEllerDisk(datum, cacheKey, stale);
+        if (lokalaPriser != null) {
+            return lokalaPriser;
+        }
+
+        // Steg 3: Hämta från källan om det inte finns i cachen, villkorligt om en utgången post finns
+        ElprisLog.debug("Hämtar från " + source + " för " + cacheKey);
+        PriceFetchEvent event = new PriceFetchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        PriceSource.Result result = null;
+        try {
+            result = source.fetch(buildRequest(datum, prisklass, stale));
+            return handleResult(result, datum, cacheKey, stale);
+        } catch (IOException e) {
+            ElprisLog.warn("Ett fel inträffade vid hämtning av elpriser: " + e.getMessage());
+            return CachedPrices.EMPTY;
+        } catch (InterruptedException e) {
+            ElprisLog.warn("Hämtningen av elpriser avbröts: " + e.getMessage());
+            Thread.currentThread().interrupt(); // Bra praxis vid InterruptedException
+            return CachedPrices.EMPTY;
+        } finally {
+            recordFetch(event, cacheKey, result, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Hämtar elpriser asynkront för ett specifikt datum och prisklass.
+     * Träffar i cachen ger en redan färdig future; annars används {@code HttpClient.sendAsync}.
+     * Futuren avslutas aldrig med ett undantag, utan med en tom lista om data inte kunde hämtas.
+     *
+     * @param datum Dagen att hämta priser för.
+     * @param prisklass Elprisområdet (SE1, SE2, SE3 eller SE4).
+     * @return En future med en lista av {@link Elpris}-objekt.
+     */
+    public CompletableFuture<List<Elpris>> getPriserAsync(LocalDate datum, Prisklass prisklass) {
+        String cacheKey = getCacheKey(datum, prisklass);
+
+        List<Elpris> cachadePriser = getFromMemoryCache(cacheKey);
+        if (cachadePriser != null) {
+            return CompletableFuture.completedFuture(cachadePriser);
+        }
+        return inMemoryCache.getOrLoadAsync(cacheKey, () -> loadAsync(datum, prisklass, cacheKey))
+                .thenApply(CachedPrices::priser);
+    }
+
+    private CompletableFuture<CachedPrices> loadAsync(LocalDate datum, Prisklass prisklass, String cacheKey) {
+        CachedPrices stale = getStaleFromMemoryCache(cacheKey);
+        CachedPrices lokalaPriser = getPriserFrånMockEllerDisk(datum, cacheKey, stale);
+        if (lokalaPriser != null) {
+            return CompletableFuture.completedFuture(lokalaPriser);
+        }
+
+        ElprisLog.debug("Hämtar från " + source + " för " + cacheKey);
+        PriceFetchEvent event = new PriceFetchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        return source.fetchAsync(buildRequest(datum, prisklass, stale))
+                .whenComplete((result, error) -> recordFetch(event, cacheKey, result, System.nanoTime() - start))
+                .thenApply(result -> handleResult(result, datum, cacheKey, stale))
+                .exceptionally(e -> {
+                    ElprisLog.warn("Ett fel inträffade vid hämtning av elpriser: " + e.getMessage());
+                    return CachedPrices.EMPTY;
+                });
+    }
+
+    /**
+     * Hämtar många (datum, prisklass)-par samtidigt med högst {@link #DEFAULT_MAX_CONCURRENCY} pågående hämtningar.
+     * @see #getPriserBatch(List, int)
+     */
+    public List<List<Elpris>> getPriserBatch(List<PriceQuery> queries) {
+        return getPriserBatch(queries, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    /**
+     * Hämtar många (datum, prisklass)-par samtidigt på virtuella trådar.
+     * Dubbletter hämtas bara en gång och antalet samtidiga hämtningar begränsas av {@code maxConcurrency}.
+     * Precis som för {@link #getPriser(LocalDate, Prisklass)} blir saknade dagar (HTTP 404) tomma listor.
+     *
+     * @param queries Paren att hämta.
+     * @param maxConcurrency Högsta antal hämtningar som får pågå samtidigt.
+     * @return En lista med resultat i samma ordning som {@code queries}.
+     */
+    public List<List<Elpris>> getPriserBatch(List<PriceQuery> queries, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency måste vara minst 1");
+        }
+        Semaphore permits = new Semaphore(maxConcurrency);
+        Map<PriceQuery, Future<List<Elpris>>> futures = new HashMap<>();
+        List<List<Elpris>> result = new ArrayList<>(queries.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (PriceQuery query : queries) {
+                futures.computeIfAbsent(query, q -> executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return getPriser(q.datum(), q.prisklass());
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (PriceQuery query : queries) {
+                result.add(await(futures.get(query)));
+            }
+        }
+        return result;
+    }
+
+    // --- Privata hjälpmetoder ---
+
+    private List<Elpris> getFromMemoryCache(String cacheKey) {
+        if (!cachingEnabled) {
+            return null;
+        }
+        CachedPrices cached = inMemoryCache.getIfPresent(cacheKey);
+        if (cached == null) {
+            return null;
+        }
+        metrics.memoryCacheHit();
+        if (ElprisLog.isDebugEnabled()) {
+            ElprisLog.debug("Hämtar från minnes-cache för " + cacheKey);
+        }
+        return cached.priser();
+    }
+
+    /**
+     * @return En utgången post med validerare som kan förnyas villkorligt, annars null.
+     */
+    private CachedPrices getStaleFromMemoryCache(String cacheKey) {
+        if (!cachingEnabled) {
+            return null;
+        }
+        CachedPrices stale = inMemoryCache.getStale(cacheKey);
+        return stale != null && stale.hasValidators() ? stale : null;
+    }
+
+    /**
+     * Historiska priser ändras aldrig och får ligga kvar tills de trängs undan.
+     * Dagens och kommande dagars priser får en begränsad livslängd.
+     */
+    private Duration ttlFor(LocalDate datum) {
+        return datum.isBefore(LocalDate.now()) ? null : freshDataTtl;
+    }
+
+    /**
+     * Slår upp priserna i mock-datan och disk-cachen. Disk-cachen hoppas över när en utgången
+     * post redan finns i minnet, eftersom den då ska förnyas mot servern.
+     * @return Priserna, eller null om de måste hämtas från nätverket.
+     */
+    private CachedPrices getPriserFrånMockEllerDisk(LocalDate datum, String cacheKey, CachedPrices stale) {
+        // Check for a mock response before the disk cache and the network call,
+        // so that files from earlier real runs never leak into tests ---
+        Supplier<String> mockSupplier = mockResponseSupplier;
+        if (useStaticMocks && (mockSupplier != null || !datedMockResponses.isEmpty())) {
+            ElprisLog.debug("!!! ANVÄNDER MOCK-DATA FÖR TEST !!!");
+            String mockJson = datedMockResponses.get(datum);
+            if (mockJson == null && mockSupplier != null) {
+                mockJson = mockSupplier.get();
+            }
             if (mockJson == null || mockJson.isBlank()) {
-                return Collections.emptyList();
+                return CachedPrices.EMPTY;
             }
-            List<Elpris> priser = parseSimpleJson(mockJson);
-            if (cachingEnabled && !priser.isEmpty()) {
-                inMemoryCache.put(cacheKey, priser);
+            CachedPrices priser = new CachedPrices(parseSimpleJson(mockJson), null, null);
+            if (cachingEnabled && !priser.priser().isEmpty()) {
+                inMemoryCache.put(cacheKey, priser, ttlFor(datum));
             }
             return priser;
         }
         // --- End of mock check ---
 
-        // Steg 3: Hämta från nätverket om det inte finns i cachen
-        System.out.println("Hämtar från nätverket för " + cacheKey);
-        String url = buildUrl(datum, prisklass);
-        try {
-            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).GET().build();
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        // Steg 2: Försök ladda från disk-cache
+        if (cachingEnabled && diskCache != null && stale == null) {
+            long start = System.nanoTime();
+            var priserFrånDisk = loadFromDiskCache(cacheKey);
+            metrics.diskCacheRead(System.nanoTime() - start);
+            if (priserFrånDisk != null && !priserFrånDisk.priser().isEmpty()) {
+                metrics.diskCacheHit();
+                ElprisLog.debug("Hämtar från disk-cache för " + cacheKey);
+                inMemoryCache.put(cacheKey, priserFrånDisk, ttlFor(datum)); // Lägg i minnes-cachen för snabbare åtkomst nästa gång
+                return priserFrånDisk;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Bygger en förfrågan till källan. Om en utgången post finns skickas dess validerare med,
+     * så att källan kan svara att priserna är oförändrade istället för att leverera dem igen.
+     */
+    private static PriceSource.Request buildRequest(LocalDate datum, Prisklass prisklass, CachedPrices stale) {
+        if (stale == null) {
+            return new PriceSource.Request(datum, prisklass);
+        }
+        return new PriceSource.Request(datum, prisklass, stale.etag(), stale.lastModified());
+    }
 
-            // Om sidan inte finns (t.ex. priser för morgondagen) returneras 404
-            if (response.statusCode() == 404) {
-                System.out.println("Inga priser hittades för " + cacheKey + " (HTTP 404).");
-                return Collections.emptyList();
+    private CachedPrices handleResult(PriceSource.Result result, LocalDate datum, String cacheKey, CachedPrices stale) {
+        // Oförändrade priser: förnya livslängden på den utgångna posten
+        if (result.status() == PriceSource.Status.NOT_MODIFIED) {
+            if (stale == null) {
+                return CachedPrices.EMPTY;
             }
-            if (response.statusCode() != 200) {
-                 System.err.println("Misslyckades med att hämta priser. Statuskod: " + response.statusCode());
-                 return Collections.emptyList();
+            ElprisLog.debug("Priserna för " + cacheKey + " är oförändrade (HTTP 304).");
+            inMemoryCache.put(cacheKey, stale, ttlFor(datum));
+            return stale;
+        }
+
+        // Saknade dagar minns en kort stund, så att upprepade frågor om t.ex. en ännu inte publicerad
+        // morgondag inte går till källan varje gång
+        if (result.status() == PriceSource.Status.NOT_FOUND && stale == null) {
+            Duration ttl = freshDataTtl.compareTo(NOT_FOUND_TTL) < 0 ? freshDataTtl : NOT_FOUND_TTL;
+            if (cachingEnabled && ttl.isPositive()) {
+                inMemoryCache.put(cacheKey, CachedPrices.EMPTY, ttl);
             }
+            return CachedPrices.EMPTY;
+        }
 
-            List<Elpris> priser = parseSimpleJson(response.body());
+        CachedPrices hämtade = new CachedPrices(result.priser(), result.etag(), result.lastModified());
 
-            // Steg 4: Spara i cache om cachning är på
-            if (cachingEnabled && !priser.isEmpty()) {
-                inMemoryCache.put(cacheKey, priser);
-                saveToDiskCache(cacheKey, response.body()); // Spara rådata till disk (framtida implementation)
+        // Steg 4: Spara i cache om cachning är på
+        if (cachingEnabled && !hämtade.priser().isEmpty()) {
+            inMemoryCache.put(cacheKey, hämtade, ttlFor(datum));
+            if (diskCache != null) {
+                saveToDiskCache(cacheKey, hämtade); // Spara de tolkade priserna till disk
             }
-            return priser;
-
-        } catch (IOException | InterruptedException e) {
-            System.err.println("Ett fel inträffade vid hämtning av elpriser: " + e.getMessage());
-            // I ett produktionssystem skulle man vilja logga detta fel mer utförligt
-            Thread.currentThread().interrupt(); // Bra praxis vid InterruptedException
-            return Collections.emptyList();
         }
+        return hämtade;
     }
 
-    // --- Privata hjälpmetoder ---
+    /**
+     * Registrerar en avslutad hämtning i räknarna och, om en JFR-inspelning är aktiv, som ett event.
+     * @param result Svaret, eller null om hämtningen misslyckades med ett undantag.
+     */
+    private void recordFetch(PriceFetchEvent event, String cacheKey, PriceSource.Result result, long nanos) {
+        metrics.sourceFetch(result, nanos);
+        event.end();
+        if (event.shouldCommit()) {
+            event.cacheKey = cacheKey;
+            event.source = source.toString();
+            event.status = result == null ? "EXCEPTION" : result.status().name();
+            event.bytes = result == null ? 0 : result.bytes();
+            event.prices = result == null ? 0 : result.priser().size();
+            event.commit();
+        }
+    }
 
-    private String buildUrl(LocalDate datum, Prisklass prisklass) {
-        String formattedDate = datum.format(URL_DATE_FORMATTER);
-        return String.format("%s/%s_%s.json", API_BASE_URL, formattedDate, prisklass.name());
+    private static List<Elpris> await(Future<List<Elpris>> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            ElprisLog.warn("Ett fel inträffade vid hämtning av elpriser: " + e.getCause());
+            return Collections.emptyList();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+        }
     }
-    
+
     private String getCacheKey(LocalDate datum, Prisklass prisklass) {
-        return datum.format(DateTimeFormatter.ISO_LOCAL_DATE) + "_" + prisklass.name();
+        return datum + "_" + prisklass.name(); // LocalDate.toString() ger ISO-formatet YYYY-MM-DD
     }
 
     /**
-     * En mycket enkel JSON-parser som är skräddarsydd för just detta API:s svarsformat.
-     * Denna metod är inte en generell JSON-parser och är känslig för ändringar i formatet.
+     * Tolkar API:ets svarsformat med den strömmande {@link ElprisParser} direkt till primitiva
+     * kolumner. Resultatet blir en kompakt {@link PriceSeries}-vy när tidsstegen är jämna.
+     * Trasiga enskilda prisobjekt hoppas över; om hela svaret är oläsligt returneras en tom lista.
      */
     private List<Elpris> parseSimpleJson(String json) {
-        List<Elpris> priser = new ArrayList<>();
-        // Ta bort yttre [ och ], samt eventuella blanksteg
-        String trimmedJson = json.trim();
-        if (!trimmedJson.startsWith("[") || !trimmedJson.endsWith("]")) {
-            return Collections.emptyList();
-        }
-        String content = trimmedJson.substring(1, trimmedJson.length() - 1).trim();
-        if (content.isEmpty()) {
+        try {
+            PriceSeries.Builder builder = new PriceSeries.Builder();
+            ElprisParser.parse(json, builder);
+            return builder.toList();
+        } catch (ElprisParseException e) {
+            metrics.parseFailure();
+            ElprisLog.warn("Kunde inte tolka elprisdata: " + e.getMessage());
             return Collections.emptyList();
         }
-
-        // Dela upp i enskilda JSON-objekt
-        String[] objects = content.split("}\\s*,\\s*\\{");
-
-        for (String objStr : objects) {
-            // Rensa bort resterande { och }
-            String cleanObjStr = objStr.replace("{", "").replace("}", "");
-            
-            try {
-                // Skapa en temporär map för att hålla värdena för ett objekt
-                Map<String, String> valueMap = new java.util.HashMap<>();
-                String[] pairs = cleanObjStr.split(",");
-                for (String pair : pairs) {
-                    String[] keyValue = pair.split(":", 2);
-                    String key = keyValue[0].trim().replace("\"", "");
-                    String value = keyValue[1].trim().replace("\"", "");
-                    valueMap.put(key, value);
-                }
-
-                // Skapa ett Elpris-objekt från värdena i mappen
-                priser.add(new Elpris(
-                    Double.parseDouble(valueMap.get("SEK_per_kWh")),
-                    Double.parseDouble(valueMap.get("EUR_per_kWh")),
-                    Double.parseDouble(valueMap.get("EXR")),
-                    ZonedDateTime.parse(valueMap.get("time_start")),
-                    ZonedDateTime.parse(valueMap.get("time_end"))
-                ));
-            } catch (Exception e) {
-                // Hoppa över objekt som inte kan parsas, logga ett fel
-                System.err.println("Kunde inte tolka ett elpris-objekt: " + cleanObjStr + " - Fel: " + e.getMessage());
-            }
-        }
-        return priser;
     }
     
-    // --- Stub-metoder för disk-cache ---
-    
+    // --- Disk-cache ---
+
     /**
-     * STUB: Spara data till en fil i en dold katalog i användarens hemkatalog.
-     * Oimplementerad tills vidare.
+     * Sparar redan tolkade priser i {@link ElprisDiskCache}, i en dold katalog i användarens hemkatalog.
      */
-    private void saveToDiskCache(String cacheKey, String jsonData) {
-        // Framtida implementation:
-        // Path cacheDir = Paths.get(System.getProperty("user.home"), ".elpriser_cache");
-        // Files.createDirectories(cacheDir);
-        // Path cacheFile = cacheDir.resolve(cacheKey + ".json");
-        // Files.writeString(cacheFile, jsonData);
-        // System.out.println("Simulerar: Sparar " + cacheKey + " till disk.");
+    private void saveToDiskCache(String cacheKey, CachedPrices priser) {
+        diskCache.save(cacheKey, priser.priser(), priser.etag(), priser.lastModified());
+    }
+
+    /** Disk-cachen i {@link ElprisDiskCache#defaultDirectory()}. */
+    private static ElprisDiskCache defaultDiskCache() {
+        return new ElprisDiskCache(ElprisDiskCache.defaultDirectory());
     }
 
     /**
-     * STUB: Läs data från en fil i en dold katalog i användarens hemkatalog.
-     * Oimplementerad tills vidare.
-     * @return En lista av Elpris-objekt om filen finns och kan läsas, annars null.
+     * Läser priser och validerare från {@link ElprisDiskCache} utan att tolka någon JSON.
+     * @return Priserna om filen finns och kan läsas, annars null.
      */
-    private List<Elpris> loadFromDiskCache(String cacheKey) {
-        // Framtida implementation:
-        // Path cacheFile = Paths.get(System.getProperty("user.home"), ".elpriser_cache", cacheKey + ".json");
-        // if (Files.exists(cacheFile)) {
-        //     String jsonData = Files.readString(cacheFile);
-        //     return parseSimpleJson(jsonData);
-        // }
-        // System.out.println("Simulerar: Försöker läsa " + cacheKey + " från disk. Fanns ej.");
-        return null;
+    private CachedPrices loadFromDiskCache(String cacheKey) {
+        ElprisDiskCache.Entry entry = diskCache.loadEntry(cacheKey);
+        return entry == null ? null : new CachedPrices(entry.priser(), entry.etag(), entry.lastModified());
     }
 
 
@@ -331,5 +660,11 @@ public final class ElpriserAPI {
         if (framtidaPriser.isEmpty()) {
             System.out.println("Inga priser hittades (som förväntat).");
         }
+
+        ElpriserMetrics.Snapshot stats = api.metrics().snapshot();
+        System.out.println("\n--- Statistik ---");
+        System.out.printf("Minnes-cache: %d, disk-cache: %d, hämtningar: %d (medel %.1f ms), nedladdat: %d byte%n",
+                stats.memoryCacheHits(), stats.diskCacheHits(), stats.sourceFetches(),
+                stats.fetchLatency().meanNanos() / 1_000_000.0, stats.bytesDownloaded());
     }
 }
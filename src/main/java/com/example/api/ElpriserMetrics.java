@@ -0,0 +1,156 @@
+package com.example.api;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Räknare och latenshistogram för en {@link ElpriserAPI}-instans.
+ * <p>
+ * Alla uppdateringar är låsfria ({@link LongAdder} och atomära histogramhinkar), så att de kan
+ * göras på den heta vägen från många trådar. {@link #snapshot()} ger en konsistent nog bild för
+ * dashboards; värdena läses utan lås och kan därför skilja sig marginellt mellan räknarna.
+ * <p>
+ * Varje hämtning från en {@link PriceSource} sänds dessutom som ett JFR-event
+ * ({@code com.example.api.PriceFetch}) när en JFR-inspelning är aktiv.
+ */
+public final class ElpriserMetrics {
+
+    private final LongAdder memoryCacheHits = new LongAdder();
+    private final LongAdder diskCacheHits = new LongAdder();
+    private final LongAdder sourceFetches = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder parseFailures = new LongAdder();
+    private final LongAdder bytesDownloaded = new LongAdder();
+    private final Histogram fetchLatency = new Histogram();
+    private final Histogram diskCacheLatency = new Histogram();
+
+    /**
+     * En ögonblicksbild av alla räknare.
+     * @param memoryCacheHits Anrop som besvarades direkt från minnes-cachen.
+     * @param diskCacheHits Anrop som besvarades från disk-cachen.
+     * @param sourceFetches Hämtningar från källan, t.ex. HTTP-anrop.
+     * @param notModified Hämtningar där källan svarade att priserna var oförändrade (HTTP 304).
+     * @param notFound Hämtningar där källan saknade data (HTTP 404).
+     * @param errors Hämtningar som misslyckades med ett annat svar än 200 eller ett I/O-fel.
+     * @param parseFailures Svar som inte gick att tolka.
+     * @param bytesDownloaded Antal byte som lästs från källan (komprimerat om svaret var komprimerat).
+     * @param fetchLatency Latens för hämtningar från källan.
+     * @param diskCacheLatency Latens för läsningar från disk-cachen.
+     */
+    public record Snapshot(long memoryCacheHits, long diskCacheHits, long sourceFetches, long notModified,
+                           long notFound, long errors, long parseFailures, long bytesDownloaded,
+                           Histogram.Snapshot fetchLatency, Histogram.Snapshot diskCacheLatency) {}
+
+    public Snapshot snapshot() {
+        return new Snapshot(memoryCacheHits.sum(), diskCacheHits.sum(), sourceFetches.sum(), notModified.sum(),
+                notFound.sum(), errors.sum(), parseFailures.sum(), bytesDownloaded.sum(),
+                fetchLatency.snapshot(), diskCacheLatency.snapshot());
+    }
+
+    void memoryCacheHit() {
+        memoryCacheHits.increment();
+    }
+
+    void diskCacheHit() {
+        diskCacheHits.increment();
+    }
+
+    void diskCacheRead(long nanos) {
+        diskCacheLatency.record(nanos);
+    }
+
+    void parseFailure() {
+        parseFailures.increment();
+    }
+
+    void error() {
+        errors.increment();
+    }
+
+    /**
+     * Registrerar en avslutad hämtning från källan.
+     * @param result Svaret, eller null om hämtningen misslyckades med ett undantag.
+     */
+    void sourceFetch(PriceSource.Result result, long nanos) {
+        sourceFetches.increment();
+        fetchLatency.record(nanos);
+        if (result == null) {
+            errors.increment();
+            return;
+        }
+        bytesDownloaded.add(result.bytes());
+        switch (result.status()) {
+            case NOT_MODIFIED -> notModified.increment();
+            case NOT_FOUND -> notFound.increment();
+            case MALFORMED -> parseFailures.increment();
+            case ERROR -> errors.increment();
+            case OK -> {
+            }
+        }
+    }
+
+    /**
+     * Ett låsfritt latenshistogram med hinkar i tvåpotenser av nanosekunder.
+     * Hink {@code i} räknar värden i intervallet [2<sup>i-1</sup>, 2<sup>i</sup>), så percentiler
+     * blir exakta inom en faktor två, vilket räcker för att se skillnaden mellan cache, disk och nätverk.
+     */
+    public static final class Histogram {
+        private static final int BUCKETS = 64;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        /**
+         * @param count Antal registrerade värden.
+         * @param totalNanos Summan av alla värden.
+         * @param maxNanos Det största värdet.
+         * @param buckets Antal värden per hink; se {@link Histogram}.
+         */
+        public record Snapshot(long count, long totalNanos, long maxNanos, long[] buckets) {
+
+            public double meanNanos() {
+                return count == 0 ? 0.0 : (double) totalNanos / count;
+            }
+
+            /**
+             * @param percentile Ett värde mellan 0 och 100, t.ex. 99.
+             * @return Övre gränsen för hinken där percentilen hamnar, dock högst {@link #maxNanos()}.
+             */
+            public long percentileNanos(double percentile) {
+                if (count == 0) {
+                    return 0;
+                }
+                long rank = (long) Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+                long seen = 0;
+                for (int i = 0; i < buckets.length; i++) {
+                    seen += buckets[i];
+                    if (seen >= Math.max(1, rank)) {
+                        return i == 0 ? 0 : Math.min(maxNanos, i >= 63 ? Long.MAX_VALUE : 1L << i);
+                    }
+                }
+                return maxNanos;
+            }
+        }
+
+        void record(long nanos) {
+            long value = Math.max(0, nanos);
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+            count.increment();
+            totalNanos.add(value);
+            maxNanos.accumulate(value);
+        }
+
+        Snapshot snapshot() {
+            long[] copy = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = buckets.get(i);
+            }
+            return new Snapshot(count.sum(), totalNanos.sum(), maxNanos.get(), copy);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.api;
+
+import java.util.Locale;
+
+/**
+ * Skriver decimaltal med ett fast antal decimaler direkt till en {@link StringBuilder}, utan
+ * {@link java.util.Formatter}, {@link java.util.Locale} eller mellanliggande strängar.
+ * <p>
+ * Avrundningen blir densamma som för {@code String.format("%.2f", value)}: närmaste värde, och
+ * vid exakt hälften bort från noll, räknat på talets kortaste decimalform. Ett pris på 12,345 öre
+ * blir alltså 12,35 även om den närmaste {@code double} ligger strax under.
+ */
+public final class FixedDecimal {
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+
+    /** Större skalade tal än så här skrivs med {@link String#format}, så att mittpunkten alltid är exakt. */
+    private static final double MAX_SCALED = 1e14;
+
+    private FixedDecimal() {
+    }
+
+    /**
+     * @param decimals Antal decimaler, 0–8.
+     * @param separator Decimaltecken, t.ex. ',' för svenska eller '.' för CSV och JSON.
+     */
+    public static StringBuilder append(StringBuilder out, double value, int decimals, char separator) {
+        if (decimals < 0 || decimals > 8) {
+            throw new IllegalArgumentException("Antalet decimaler måste vara 0–8");
+        }
+        long scale = POWERS_OF_TEN[decimals];
+        double magnitudeValue = Math.abs(value);
+        if (!(magnitudeValue * scale < MAX_SCALED)) {
+            // NaN, oändligt och mycket stora tal
+            return out.append(String.format(Locale.ROOT, "%." + decimals + "f", value).replace('.', separator));
+        }
+        // Teckenbiten avgör, så att t.ex. -0,001 blir "-0,00" precis som med String.format
+        if (Double.doubleToRawLongBits(value) < 0) {
+            out.append('-');
+        }
+        long magnitude = roundHalfUp(magnitudeValue, scale);
+        out.append(magnitude / scale);
+        if (decimals > 0) {
+            out.append(separator);
+            long fraction = magnitude % scale;
+            for (int d = decimals - 1; d > 0 && fraction < POWERS_OF_TEN[d]; d--) {
+                out.append('0');
+            }
+            out.append(fraction);
+        }
+        return out;
+    }
+
+    /**
+     * @return Talet med {@code decimals} decimaler och svenskt decimalkomma, t.ex. "12,35".
+     */
+    public static String format(double value, int decimals) {
+        return append(new StringBuilder(16), value, decimals, ',').toString();
+    }
+
+    /**
+     * Avrundar {@code value * scale} till heltal genom att jämföra med den {@code double} som ligger
+     * närmast mittpunkten mellan de två kandidaterna. Jämförelsen är exakt, så ett tal som 12,345
+     * avrundas uppåt medan 12628,154999999999 avrundas nedåt, precis som med String.format.
+     */
+    private static long roundHalfUp(double magnitude, long scale) {
+        long floor = (long) Math.floor(magnitude * scale);
+        double mid = (double) (floor * 10 + 5) / (scale * 10);
+        return magnitude >= mid ? floor + 1 : floor;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.api;
+
+/**
+ * De beräkningsintensiva looparna i {@link FleetOptimizer}. Priser och summor är heltal i
+ * {@link FleetOptimizer#PRICE_SCALE}-delar av en krona, så att lika dyra fönster jämförs exakt.
+ */
+interface FleetKernel {
+
+    /**
+     * Fönstersummor från prefixsummor: {@code out[s] = prefix[s + slots] - prefix[s]} för
+     * {@code s} i {@code [0, count)}.
+     */
+    void windowSums(long[] prefix, int slots, long[] out, int count);
+
+    /**
+     * En nivå i en gles tabell för minimum över intervall: för {@code s} i {@code [0, count)} väljs
+     * det minsta av {@code values[s]} och {@code values[s + half]} med tillhörande index. Vid lika
+     * värden vinner {@code s}, dvs. det tidigare fönstret.
+     */
+    void minLevel(long[] values, long[] indices, int half, long[] outValues, long[] outIndices, int count);
+
+    String name();
+}
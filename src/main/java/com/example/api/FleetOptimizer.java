@@ -0,0 +1,313 @@
+package com.example.api;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hittar det billigaste laddningsfönstret för tusentals fordon på en gång mot samma prislista.
+ * <p>
+ * Varje fordon har en laddningstid och ett intervall då det är tillgängligt. Istället för att
+ * söka igenom priserna en gång per fordon byggs prefixsummor en gång, och fordonen grupperas efter
+ * laddningstid. För varje laddningstid räknas alla fönstersummor fram och läggs i en gles tabell
+ * för minimum över intervall, så att varje fordon sedan besvaras i konstant tid. Totalt blir det
+ * O(n log n) per unik laddningstid plus O(1) per fordon.
+ * <p>
+ * Looparna körs med SIMD via {@code jdk.incubator.vector} när projektet byggts med
+ * {@code -Pvector} och JVM:en startats med {@code --add-modules jdk.incubator.vector}, och
+ * annars med vanliga loopar. Systemegenskapen
+ * {@value #VECTOR_PROPERTY}{@code =false} stänger av SIMD.
+ * <p>
+ * Priserna räknas som heltal i {@link #PRICE_SCALE}-delar av en krona, så lika dyra fönster är
+ * exakt lika och det tidigaste vinner, precis som i {@link ChargingWindowOptimizer}.
+ */
+public final class FleetOptimizer {
+
+    /** Systemegenskap för att stänga av SIMD, t.ex. för jämförelser. */
+    public static final String VECTOR_PROPERTY = "elpriser.vector";
+
+    /** Antal delar av en krona som priserna avrundas till; 10<sup>-7</sup> kr är långt under API:ets fem decimaler. */
+    public static final long PRICE_SCALE = 10_000_000L;
+
+    /** Startindex för fordon som inte får plats med sin laddning inom sitt intervall. */
+    public static final int NO_WINDOW = -1;
+
+    private static final FleetKernel KERNEL = selectKernel();
+
+    private FleetOptimizer() {
+    }
+
+    /**
+     * Ett fordon med tider istället för index.
+     * @param duration Laddningstiden; avrundas uppåt till hela perioder.
+     * @param availableFrom Tidigaste start, eller null för prislistans början.
+     * @param availableUntil Senaste tidpunkt då laddningen ska vara klar, eller null för prislistans slut.
+     */
+    public record Request(Duration duration, ZonedDateTime availableFrom, ZonedDateTime availableUntil) {}
+
+    /**
+     * Resultat i primitiva arrayer, ett element per fordon i samma ordning som förfrågningarna.
+     * Arrayerna delas och får inte ändras.
+     */
+    public static final class Result {
+        private final int[] starts;
+        private final int[] slots;
+        private final double[] totals;
+
+        Result(int[] starts, int[] slots, double[] totals) {
+            this.starts = starts;
+            this.slots = slots;
+            this.totals = totals;
+        }
+
+        public int size() {
+            return starts.length;
+        }
+
+        /** @return Fönstrets första period, eller {@link #NO_WINDOW}. */
+        public int start(int request) {
+            return starts[request];
+        }
+
+        /** @return Summan av fönstrets priser per kWh, eller NaN om inget fönster hittades. */
+        public double totalSekPerKWh(int request) {
+            return totals[request];
+        }
+
+        /** @return Medelpriset per period i fönstret, eller NaN om inget fönster hittades. */
+        public double meanSekPerKWh(int request) {
+            return totals[request] / slots[request];
+        }
+
+        /** @return Startindex för alla fordon. Får inte ändras. */
+        public int[] starts() {
+            return starts;
+        }
+
+        /** @return Fönstersummor för alla fordon. Får inte ändras. */
+        public double[] totals() {
+            return totals;
+        }
+    }
+
+    /**
+     * @return Namnet på de loopar som används, t.ex. "scalar" eller "vector (4 x 64 bit)".
+     */
+    public static String kernelName() {
+        return KERNEL.name();
+    }
+
+    /**
+     * Löser alla förfrågningar mot en sammanhängande prisarray.
+     *
+     * @param sekPerKWh Priserna i tidsordning.
+     * @param slots Antal perioder per fordon.
+     * @param earliest Första period då respektive fordon får börja ladda.
+     * @param latestEnd Index direkt efter den sista period då respektive fordon får ladda.
+     * @throws IllegalArgumentException om arrayerna har olika längd eller någon laddningstid är mindre än en period.
+     */
+    public static Result solve(double[] sekPerKWh, int[] slots, int[] earliest, int[] latestEnd) {
+        return solve(KERNEL, sekPerKWh, null, slots, earliest, latestEnd);
+    }
+
+    /**
+     * Som {@link #solve(double[], int[], int[], int[])}, men fönster spänner aldrig över ett glapp i listan.
+     */
+    public static Result solve(List<ElpriserAPI.Elpris> prices, int[] slots, int[] earliest, int[] latestEnd) {
+        PriceSeries series = PriceSeries.tryOf(prices);
+        double[] sek = series != null ? series.sekPerKWh() : PriceSeries.sekColumn(prices);
+        return solve(KERNEL, sek, series != null ? null : segments(prices), slots, earliest, latestEnd);
+    }
+
+    /**
+     * Som {@link #solve(List, int[], int[], int[])} men med tider istället för index.
+     * Laddningstider avrundas uppåt till hela perioder.
+     */
+    public static Result solve(List<ElpriserAPI.Elpris> prices, List<Request> requests) {
+        int count = requests.size();
+        int[] slots = new int[count];
+        int[] earliest = new int[count];
+        int[] latestEnd = new int[count];
+        long slotSeconds = prices.isEmpty() ? 3600
+                : Math.max(1, Duration.between(prices.getFirst().timeStart(), prices.getFirst().timeEnd()).getSeconds());
+        for (int i = 0; i < count; i++) {
+            Request request = requests.get(i);
+            long needed = (request.duration().getSeconds() + slotSeconds - 1) / slotSeconds;
+            slots[i] = (int) Math.max(1, Math.min(needed, Integer.MAX_VALUE));
+            earliest[i] = request.availableFrom() == null ? 0 : firstStartingAtOrAfter(prices, request.availableFrom());
+            latestEnd[i] = request.availableUntil() == null ? prices.size() : endingAtOrBefore(prices, request.availableUntil());
+        }
+        return solve(prices, slots, earliest, latestEnd);
+    }
+
+    static Result solve(FleetKernel kernel, double[] sek, int[] segment, int[] slots, int[] earliest, int[] latestEnd) {
+        int count = slots.length;
+        if (earliest.length != count || latestEnd.length != count) {
+            throw new IllegalArgumentException("slots, earliest och latestEnd måste ha samma längd");
+        }
+        int n = sek.length;
+        long[] prefix = new long[n + 1];
+        for (int i = 0; i < n; i++) {
+            prefix[i + 1] = prefix[i] + Math.round(sek[i] * PRICE_SCALE);
+        }
+
+        int[] starts = new int[count];
+        double[] totals = new double[count];
+        Arrays.fill(starts, NO_WINDOW);
+        Arrays.fill(totals, Double.NaN);
+
+        // Gruppera fordonen efter laddningstid med räknesortering; laddningstider över n får aldrig plats
+        int[] bucketStart = new int[n + 2];
+        for (int k : slots) {
+            if (k < 1) {
+                throw new IllegalArgumentException("Laddningstiden måste vara minst en period");
+            }
+            bucketStart[Math.min(k, n + 1)]++;
+        }
+        for (int k = 1, sum = 0; k <= n + 1; k++) {
+            int size = bucketStart[k];
+            bucketStart[k] = sum;
+            sum = sum + size;
+        }
+        int[] order = new int[count];
+        int[] fill = bucketStart.clone();
+        for (int i = 0; i < count; i++) {
+            order[fill[Math.min(slots[i], n + 1)]++] = i;
+        }
+
+        RangeMinimum table = new RangeMinimum(kernel, n);
+        for (int k = 1; k <= n; k++) {
+            int from = bucketStart[k];
+            int to = fill[k];
+            if (from == to) {
+                continue;
+            }
+            table.build(prefix, segment, k);
+            for (int o = from; o < to; o++) {
+                int request = order[o];
+                int first = Math.max(0, earliest[request]);
+                int last = Math.min(n, latestEnd[request]) - k;
+                if (last < first) {
+                    continue;
+                }
+                int best = table.argMin(first, last);
+                if (table.value(best) != Long.MAX_VALUE) {
+                    starts[request] = best;
+                    totals[request] = (double) table.value(best) / PRICE_SCALE;
+                }
+            }
+        }
+        return new Result(starts, slots.clone(), totals);
+    }
+
+    /**
+     * Gles tabell för minimum över intervall av fönstersummor. Nivå {@code j} håller minimum och
+     * dess index för varje intervall med längden 2<sup>j</sup>. Arrayerna återanvänds mellan laddningstider.
+     */
+    private static final class RangeMinimum {
+        private final FleetKernel kernel;
+        private final long[][] values;
+        private final long[][] indices;
+        private int windows;
+        private int levels;
+
+        RangeMinimum(FleetKernel kernel, int n) {
+            this.kernel = kernel;
+            int maxLevels = 32 - Integer.numberOfLeadingZeros(Math.max(1, n));
+            values = new long[maxLevels][n];
+            indices = new long[maxLevels][n];
+            for (int s = 0; s < n; s++) {
+                indices[0][s] = s;
+            }
+        }
+
+        void build(long[] prefix, int[] segment, int slots) {
+            windows = prefix.length - slots;
+            kernel.windowSums(prefix, slots, values[0], windows);
+            if (segment != null) {
+                for (int s = 0; s < windows; s++) {
+                    if (segment[s] != segment[s + slots - 1]) {
+                        values[0][s] = Long.MAX_VALUE;
+                    }
+                }
+            }
+            levels = 32 - Integer.numberOfLeadingZeros(windows);
+            for (int j = 1; j < levels; j++) {
+                int half = 1 << (j - 1);
+                kernel.minLevel(values[j - 1], indices[j - 1], half, values[j], indices[j], windows - (1 << j) + 1);
+            }
+        }
+
+        /** @return Index för det minsta värdet i {@code [first, last]}; det tidigaste vid lika värden. */
+        int argMin(int first, int last) {
+            int j = 31 - Integer.numberOfLeadingZeros(last - first + 1);
+            int right = last - (1 << j) + 1;
+            return values[j][right] < values[j][first] ? (int) indices[j][right] : (int) indices[j][first];
+        }
+
+        long value(int start) {
+            return values[0][start];
+        }
+    }
+
+    /**
+     * @return Ett segmentnummer per period som ökar vid varje glapp i listan.
+     */
+    private static int[] segments(List<ElpriserAPI.Elpris> prices) {
+        int[] segment = new int[prices.size()];
+        for (int i = 1; i < segment.length; i++) {
+            boolean continues = prices.get(i).timeStart().toInstant().equals(prices.get(i - 1).timeEnd().toInstant());
+            segment[i] = continues ? segment[i - 1] : segment[i - 1] + 1;
+        }
+        return segment;
+    }
+
+    private static int firstStartingAtOrAfter(List<ElpriserAPI.Elpris> prices, ZonedDateTime time) {
+        int low = 0;
+        int high = prices.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices.get(mid).timeStart().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int endingAtOrBefore(List<ElpriserAPI.Elpris> prices, ZonedDateTime time) {
+        int low = 0;
+        int high = prices.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (prices.get(mid).timeEnd().isAfter(time)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static FleetKernel selectKernel() {
+        FleetKernel vector = Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true")) ? vectorKernel() : null;
+        return vector != null ? vector : new ScalarFleetKernel();
+    }
+
+    /**
+     * @return SIMD-looparna, eller null om modulen saknas eller klassen inte kompilerats (utan {@code -Pvector}).
+     */
+    static FleetKernel vectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return (FleetKernel) Class.forName("com.example.api.VectorFleetKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            ElprisLog.debug("SIMD är inte tillgängligt, använder vanliga loopar: " + e);
+            return null;
+        }
+    }
+}
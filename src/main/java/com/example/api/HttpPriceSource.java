@@ -0,0 +1,168 @@
+package com.example.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Hämtar elpriser från elprisetjustnu.se, eller från en annan server med samma URL-struktur.
+ * <p>
+ * En och samma {@link HttpClient} återanvänds för alla anrop, så att anslutningar (och HTTP/2-strömmar)
+ * delas. Klienten skapas vid första anropet, så en körning som bara läser ur cachen slipper
+ * initiera HTTP- och TLS-stacken. Förfrågningarna accepterar komprimerade svar och skickar validerare när sådana finns,
+ * så att servern kan svara 304 utan kropp.
+ */
+public final class HttpPriceSource implements PriceSource {
+
+    /** Bas-URL för elprisetjustnu.se. */
+    public static final String DEFAULT_BASE_URL = "https://www.elprisetjustnu.se/api/v1/prices";
+
+    private static final DateTimeFormatter URL_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM-dd");
+
+    // Tidsgränser så att ett hängande anrop inte blockerar en hämtning för alltid
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(20);
+
+    private volatile HttpClient httpClient;
+    private final String baseUrl;
+
+    public HttpPriceSource() {
+        this(DEFAULT_BASE_URL);
+    }
+
+    /**
+     * @param baseUrl Bas-URL utan avslutande snedstreck, t.ex. {@value #DEFAULT_BASE_URL}.
+     */
+    public HttpPriceSource(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public Result fetch(Request request) throws IOException, InterruptedException {
+        return handleResponse(httpClient().send(buildRequest(request), HttpResponse.BodyHandlers.ofByteArray()), request);
+    }
+
+    @Override
+    public CompletableFuture<Result> fetchAsync(Request request) {
+        return httpClient().sendAsync(buildRequest(request), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> handleResponse(response, request));
+    }
+
+    @Override
+    public boolean isRemote() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "nätverket";
+    }
+
+    private HttpClient httpClient() {
+        HttpClient client = httpClient;
+        if (client == null) {
+            synchronized (this) {
+                client = httpClient;
+                if (client == null) {
+                    client = HttpClient.newBuilder()
+                            .version(HttpClient.Version.HTTP_2) // Faller tillbaka till HTTP/1.1 om servern inte stöder HTTP/2
+                            .connectTimeout(CONNECT_TIMEOUT)
+                            .followRedirects(HttpClient.Redirect.NORMAL)
+                            .build();
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private HttpRequest buildRequest(Request request) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(buildUrl(request)))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Accept-Encoding", "gzip, deflate")
+                .GET();
+        if (request.etag() != null) {
+            builder.header("If-None-Match", request.etag());
+        }
+        if (request.lastModified() != null) {
+            builder.header("If-Modified-Since", request.lastModified());
+        }
+        return builder.build();
+    }
+
+    private static Result handleResponse(HttpResponse<byte[]> response, Request request) {
+        long bytes = response.body() == null ? 0 : response.body().length;
+        if (response.statusCode() == 304) {
+            return Result.notModified();
+        }
+        // Om sidan inte finns (t.ex. priser för morgondagen) returneras 404
+        if (response.statusCode() == 404) {
+            ElprisLog.info("Inga priser hittades för " + request.datum() + "_" + request.prisklass() + " (HTTP 404).");
+            return Result.notFound();
+        }
+        if (response.statusCode() != 200) {
+            ElprisLog.warn("Misslyckades med att hämta priser. Statuskod: " + response.statusCode());
+            return Result.error(bytes);
+        }
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("identity");
+        List<ElpriserAPI.Elpris> priser = decode(response.body(), encoding);
+        if (priser == null) {
+            return Result.malformed(bytes);
+        }
+        return Result.of(priser,
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null),
+                bytes);
+    }
+
+    private String buildUrl(Request request) {
+        String formattedDate = request.datum().format(URL_DATE_FORMATTER);
+        return String.format("%s/%s_%s.json", baseUrl, formattedDate, request.prisklass().name());
+    }
+
+    /**
+     * Tolkar en svarskropp enligt dess Content-Encoding. Komprimerade kroppar packas upp
+     * strömmande direkt in i tolken, utan att först byggas upp som en sträng.
+     * Resultatet blir en kompakt {@link PriceSeries}-vy när tidsstegen är jämna.
+     * @return Priserna, eller null om kroppen inte kunde tolkas.
+     */
+    static List<ElpriserAPI.Elpris> decode(byte[] body, String contentEncoding) {
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        PriceSeries.Builder builder = new PriceSeries.Builder();
+        try {
+            switch (encoding) {
+                case "gzip", "x-gzip" -> {
+                    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                        ElprisParser.parse(in, builder);
+                    }
+                }
+                case "deflate" -> {
+                    try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(body))) {
+                        ElprisParser.parse(in, builder);
+                    }
+                }
+                default -> ElprisParser.parse(ByteBuffer.wrap(body), builder);
+            }
+            return builder.toList();
+        } catch (ElprisParseException e) {
+            ElprisLog.warn("Kunde inte tolka elprisdata: " + e.getMessage());
+            return null;
+        } catch (IOException e) {
+            ElprisLog.warn("Kunde inte packa upp svaret (" + encoding + "): " + e.getMessage());
+            return null;
+        }
+    }
+}
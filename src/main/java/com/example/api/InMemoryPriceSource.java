@@ -0,0 +1,55 @@
+package com.example.api;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * En källa som levererar priser som lagts in direkt i minnet, t.ex. i tester eller simuleringar.
+ * Varje instans har sitt eget tillstånd, så att flera API-instanser och parallella tester
+ * inte påverkar varandra. Dagar som inte lagts in ger en tom lista, precis som HTTP 404.
+ */
+public final class InMemoryPriceSource implements PriceSource {
+
+    private final Map<ElpriserAPI.PriceQuery, List<ElpriserAPI.Elpris>> priser = new ConcurrentHashMap<>();
+
+    /**
+     * Lägger in (eller ersätter) priserna för en dag. Listan kopieras, som en kompakt
+     * {@link PriceSeries} när tidsstegen är jämna.
+     */
+    public InMemoryPriceSource put(LocalDate datum, ElpriserAPI.Prisklass prisklass, List<ElpriserAPI.Elpris> dagensPriser) {
+        PriceSeries series = PriceSeries.tryOf(dagensPriser);
+        priser.put(new ElpriserAPI.PriceQuery(datum, prisklass), series != null ? series.asList() : List.copyOf(dagensPriser));
+        return this;
+    }
+
+    /**
+     * Tolkar ett svar i API:ets JSON-format och lägger in priserna för en dag.
+     */
+    public InMemoryPriceSource putJson(LocalDate datum, ElpriserAPI.Prisklass prisklass, String json) {
+        PriceSeries.Builder builder = new PriceSeries.Builder();
+        ElprisParser.parse(json, builder);
+        priser.put(new ElpriserAPI.PriceQuery(datum, prisklass), builder.toList());
+        return this;
+    }
+
+    public void remove(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+        priser.remove(new ElpriserAPI.PriceQuery(datum, prisklass));
+    }
+
+    public void clear() {
+        priser.clear();
+    }
+
+    @Override
+    public Result fetch(Request request) {
+        List<ElpriserAPI.Elpris> dagensPriser = priser.get(new ElpriserAPI.PriceQuery(request.datum(), request.prisklass()));
+        return dagensPriser == null ? Result.notFound() : Result.of(dagensPriser);
+    }
+
+    @Override
+    public String toString() {
+        return "minnet";
+    }
+}
@@ -0,0 +1,457 @@
+package com.example.api;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Placerar flera laster, t.ex. elbil, bastu, värmepump och diskmaskin, så att den totala kostnaden
+ * blir så låg som möjligt utan att den sammanlagda effekten överstiger säkringens gräns i någon period.
+ * <p>
+ * Varje last körs i ett sammanhängande fönster. Sökningen är en branch-and-bound där lasterna
+ * placeras i ordning efter energi (störst först) och startlägena prövas billigast först. Den
+ * undre gränsen är kostnaden hittills plus det största av två värden: varje återstående lasts
+ * billigaste läge utan effektgräns, och kostnaden för att fylla den återstående energin i de
+ * billigaste perioderna med ledig effekt utan krav på sammanhängande fönster. Den första gränsen
+ * är skarp när säkringen inte begränsar, den andra när den gör det. Ett girigt schema används som
+ * startvärde, och den första lastens startlägen prövas parallellt.
+ * <p>
+ * Antalet besökta noder begränsas av en budget. Om budgeten tar slut returneras det bästa schemat
+ * som hittats, markerat som inte bevisat optimalt. Varför ett schema saknas framgår av
+ * {@link Plan#status()}, så att en avbruten sökning inte förväxlas med en omöjlig.
+ */
+public final class LoadScheduler {
+
+    /**
+     * Standardbudget för antal noder i sökningen, några hundra millisekunder i värsta fall. När
+     * säkringen inte begränsar räcker en bråkdel av budgeten för att bevisa optimum; med en snäv
+     * säkring och dussintals laster tar budgeten oftare slut, men då har den lokala förbättringen
+     * av startvärdet redan gett ett schema nära optimum.
+     */
+    public static final long DEFAULT_NODE_BUDGET = 500_000;
+
+    private static final double EPSILON = 1e-9;
+    // Hur ofta en tråd rapporterar sina besökta noder till den gemensamma räknaren
+    private static final int NODE_BATCH = 4096;
+    private static final int MAX_IMPROVEMENT_ROUNDS = 20;
+
+    private LoadScheduler() {
+    }
+
+    /**
+     * En last som ska köras en viss tid med en viss effekt.
+     * @param name Namn som visas i schemat, t.ex. "elbil".
+     * @param duration Hur länge lasten ska köras; avrundas uppåt till hela perioder.
+     * @param kW Lastens effekt.
+     */
+    public record Load(String name, Duration duration, double kW) {
+
+        public Load {
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Körtiden för " + name + " måste vara positiv");
+            }
+            if (!(kW > 0) || Double.isInfinite(kW)) {
+                throw new IllegalArgumentException("Effekten för " + name + " måste vara positiv");
+            }
+        }
+    }
+
+    /**
+     * @param load Lasten.
+     * @param window Fönstret där lasten körs.
+     * @param costSek Kostnaden i kronor, dvs. fönstrets pris per kWh gånger effekt och periodlängd.
+     */
+    public record Placement(Load load, ChargingWindowOptimizer.ChargingWindow window, double costSek) {}
+
+    /** Utfallet av en schemaläggning. */
+    public enum Status {
+        /** Schemat är bevisat billigast. */
+        OPTIMAL,
+        /** Nodbudgeten tog slut; schemat är det billigaste som hittades. */
+        BEST_FOUND,
+        /** Nodbudgeten tog slut innan något schema hittades; det kan ändå finnas ett. */
+        BUDGET_EXCEEDED,
+        /** Lasterna går bevisligen inte att placera under effektgränsen. */
+        EXCEEDS_MAX_POWER,
+        /** Någon last är längre än varje sammanhängande del av prislistan. */
+        TOO_FEW_PRICES
+    }
+
+    /**
+     * @param placements En placering per last, i samma ordning som lasterna angavs; tom om inget schema hittades.
+     * @param totalCostSek Den totala kostnaden i kronor.
+     * @param peakKW Den högsta sammanlagda effekten i någon period.
+     * @param status Om schemat är bevisat billigast, det bästa som hittades, eller varför det saknas.
+     */
+    public record Plan(List<Placement> placements, double totalCostSek, double peakKW, Status status) {
+
+        public Plan {
+            placements = List.copyOf(placements);
+        }
+
+        static Plan unscheduled(Status status) {
+            return new Plan(List.of(), 0.0, 0.0, status);
+        }
+
+        /**
+         * @return Om planen innehåller ett schema, dvs. status är {@link Status#OPTIMAL} eller {@link Status#BEST_FOUND}.
+         */
+        public boolean scheduled() {
+            return status == Status.OPTIMAL || status == Status.BEST_FOUND;
+        }
+
+        public boolean optimal() {
+            return status == Status.OPTIMAL;
+        }
+    }
+
+    /**
+     * Som {@link #schedule(List, List, double, long)} med {@link #DEFAULT_NODE_BUDGET}.
+     */
+    public static Plan schedule(List<ElpriserAPI.Elpris> prices, List<Load> loads, double maxKW) {
+        return schedule(prices, loads, maxKW, DEFAULT_NODE_BUDGET);
+    }
+
+    /**
+     * Hittar den billigaste placeringen av alla laster.
+     *
+     * @param prices Priserna i tidsordning, t.ex. från {@link ElpriserAPI#getPriser}.
+     * @param maxKW Den högsta tillåtna sammanlagda effekten i varje period.
+     * @param nodeBudget Högsta antal noder att besöka innan sökningen avbryts.
+     * @return Schemat, eller en plan utan placeringar vars {@link Plan#status()} anger varför inget schema hittades.
+     */
+    public static Plan schedule(List<ElpriserAPI.Elpris> prices, List<Load> loads, double maxKW, long nodeBudget) {
+        if (!(maxKW > 0)) {
+            throw new IllegalArgumentException("Effektgränsen måste vara positiv");
+        }
+        if (loads.isEmpty()) {
+            return Plan.unscheduled(Status.OPTIMAL);
+        }
+        for (Load load : loads) {
+            if (load.kW() > maxKW + EPSILON) {
+                return Plan.unscheduled(Status.EXCEEDS_MAX_POWER);
+            }
+        }
+        if (prices.isEmpty()) {
+            return Plan.unscheduled(Status.TOO_FEW_PRICES);
+        }
+        Problem problem = Problem.of(prices, loads, maxKW);
+        if (problem == null) {
+            return Plan.unscheduled(Status.TOO_FEW_PRICES);
+        }
+
+        Search search = new Search(problem, nodeBudget);
+        search.greedy();
+        search.run();
+        int[] starts = search.bestStarts;
+        if (starts == null) {
+            return Plan.unscheduled(search.budgetExceeded ? Status.BUDGET_EXCEEDED : Status.EXCEEDS_MAX_POWER);
+        }
+        return problem.toPlan(prices, starts, search.budgetExceeded ? Status.BEST_FOUND : Status.OPTIMAL);
+    }
+
+    /**
+     * Lasterna i sökordning med förberäknade kostnader för varje startläge.
+     */
+    private static final class Problem {
+        final int slotCount;
+        final double maxKW;
+        final Load[] loads;
+        // Lastens plats i den ursprungliga listan
+        final int[] inputIndex;
+        final int[] length;
+        final double[] kW;
+        // Kostnad per startläge, NaN om fönstret inte ryms eller spänner över ett glapp
+        final double[][] cost;
+        // Giltiga startlägen sorterade billigast först
+        final int[][] candidates;
+        // Summan av de återstående lasternas billigaste läge, från och med djup d
+        final double[] lowerBound;
+        // Effekt gånger antal perioder för de återstående lasterna, från och med djup d
+        final double[] remainingEnergy;
+        // Perioderna sorterade billigast först, och deras pris per kWh gånger periodlängd
+        final int[] slotsByPrice;
+        final double[] slotCost;
+
+        private Problem(int slotCount, double maxKW, Load[] loads, int[] inputIndex, int[] length, double[] kW,
+                        double[][] cost, int[][] candidates, double[] lowerBound, double[] remainingEnergy,
+                        int[] slotsByPrice, double[] slotCost) {
+            this.slotCount = slotCount;
+            this.maxKW = maxKW;
+            this.loads = loads;
+            this.inputIndex = inputIndex;
+            this.length = length;
+            this.kW = kW;
+            this.cost = cost;
+            this.candidates = candidates;
+            this.lowerBound = lowerBound;
+            this.remainingEnergy = remainingEnergy;
+            this.slotsByPrice = slotsByPrice;
+            this.slotCost = slotCost;
+        }
+
+        /**
+         * @return Problemet, eller null om någon last inte ryms i något sammanhängande fönster.
+         */
+        static Problem of(List<ElpriserAPI.Elpris> prices, List<Load> loads, double maxKW) {
+            PriceSeries series = PriceSeries.tryOf(prices);
+            double[] sek = series != null ? series.sekPerKWh() : PriceSeries.sekColumn(prices);
+            int n = sek.length;
+            long slotSeconds = series != null ? series.slotSeconds()
+                    : Math.max(1, Duration.between(prices.getFirst().timeStart(), prices.getFirst().timeEnd()).getSeconds());
+            double slotHours = slotSeconds / 3600.0;
+
+            // Prefixsummor och ett segmentnummer per period, så att fönster över glapp kan uteslutas i O(1)
+            double[] prefix = new double[n + 1];
+            int[] segment = new int[n];
+            for (int i = 0; i < n; i++) {
+                prefix[i + 1] = prefix[i] + sek[i];
+                boolean continues = i > 0 && (series != null
+                        || prices.get(i).timeStart().toInstant().equals(prices.get(i - 1).timeEnd().toInstant()));
+                segment[i] = i == 0 ? 0 : continues ? segment[i - 1] : segment[i - 1] + 1;
+            }
+
+            Integer[] order = new Integer[loads.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingDouble(
+                    (Integer i) -> -loads.get(i).kW() * loads.get(i).duration().getSeconds()).thenComparingInt(i -> i));
+
+            int m = order.length;
+            Load[] sorted = new Load[m];
+            int[] inputIndex = new int[m];
+            int[] length = new int[m];
+            double[] kW = new double[m];
+            double[][] cost = new double[m][];
+            int[][] candidates = new int[m][];
+            double[] lowerBound = new double[m + 1];
+            for (int d = 0; d < m; d++) {
+                Load load = loads.get(order[d]);
+                sorted[d] = load;
+                inputIndex[d] = order[d];
+                kW[d] = load.kW();
+                long slots = (load.duration().getSeconds() + slotSeconds - 1) / slotSeconds;
+                if (slots > n) {
+                    return null;
+                }
+                length[d] = (int) slots;
+                cost[d] = new double[n];
+                Arrays.fill(cost[d], Double.NaN);
+                List<Integer> valid = new ArrayList<>();
+                for (int start = 0; start + length[d] <= n; start++) {
+                    if (segment[start] == segment[start + length[d] - 1]) {
+                        cost[d][start] = (prefix[start + length[d]] - prefix[start]) * load.kW() * slotHours;
+                        valid.add(start);
+                    }
+                }
+                if (valid.isEmpty()) {
+                    return null;
+                }
+                double[] c = cost[d];
+                valid.sort(Comparator.comparingDouble((Integer s) -> c[s]).thenComparingInt(s -> s));
+                candidates[d] = valid.stream().mapToInt(Integer::intValue).toArray();
+            }
+            double[] remainingEnergy = new double[m + 1];
+            for (int d = m - 1; d >= 0; d--) {
+                lowerBound[d] = lowerBound[d + 1] + cost[d][candidates[d][0]];
+                remainingEnergy[d] = remainingEnergy[d + 1] + kW[d] * length[d];
+            }
+            double[] slotCost = new double[n];
+            for (int i = 0; i < n; i++) {
+                slotCost[i] = sek[i] * slotHours;
+            }
+            int[] slotsByPrice = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.comparingDouble((Integer i) -> sek[i]))
+                    .mapToInt(Integer::intValue).toArray();
+            return new Problem(n, maxKW, sorted, inputIndex, length, kW, cost, candidates, lowerBound,
+                    remainingEnergy, slotsByPrice, slotCost);
+        }
+
+        /**
+         * Undre gräns för de återstående lasterna från djup {@code d}: deras energi fördelad på de
+         * billigaste perioderna med ledig effekt, som om lasterna kunde delas godtyckligt.
+         * @return Gränsen, eller oändligt om energin inte ryms alls.
+         */
+        double capacityBound(double[] usage, int d) {
+            double needed = remainingEnergy[d];
+            double bound = 0.0;
+            for (int i : slotsByPrice) {
+                if (needed <= EPSILON) {
+                    return bound;
+                }
+                double free = maxKW - usage[i];
+                if (free > EPSILON) {
+                    double used = Math.min(free, needed);
+                    bound = bound + used * slotCost[i];
+                    needed = needed - used;
+                }
+            }
+            return needed <= EPSILON ? bound : Double.POSITIVE_INFINITY;
+        }
+
+        Plan toPlan(List<ElpriserAPI.Elpris> prices, int[] starts, Status status) {
+            Placement[] placements = new Placement[loads.length];
+            double[] usage = new double[slotCount];
+            double total = 0.0;
+            for (int d = 0; d < loads.length; d++) {
+                int start = starts[d];
+                int end = start + length[d];
+                double sum = 0.0;
+                for (int i = start; i < end; i++) {
+                    sum = sum + prices.get(i).sekPerKWh();
+                    usage[i] = usage[i] + kW[d];
+                }
+                ChargingWindowOptimizer.ChargingWindow window = new ChargingWindowOptimizer.ChargingWindow(
+                        start, length[d], prices.get(start).timeStart(), prices.get(end - 1).timeEnd(), sum);
+                placements[inputIndex[d]] = new Placement(loads[d], window, cost[d][start]);
+                total = total + cost[d][start];
+            }
+            double peak = 0.0;
+            for (double u : usage) {
+                peak = Math.max(peak, u);
+            }
+            return new Plan(Arrays.asList(placements), total, peak, status);
+        }
+
+        boolean fits(double[] usage, int d, int start) {
+            for (int i = start; i < start + length[d]; i++) {
+                if (usage[i] + kW[d] > maxKW + EPSILON) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void add(double[] usage, int d, int start, double sign) {
+            for (int i = start; i < start + length[d]; i++) {
+                usage[i] = usage[i] + sign * kW[d];
+            }
+        }
+    }
+
+    /**
+     * Sökningens delade tillstånd: det bästa schemat hittills och antalet besökta noder.
+     */
+    private static final class Search {
+        final Problem problem;
+        final long nodeBudget;
+        final AtomicLong nodes = new AtomicLong();
+        volatile double bestCost = Double.POSITIVE_INFINITY;
+        volatile int[] bestStarts;
+        volatile boolean budgetExceeded;
+
+        Search(Problem problem, long nodeBudget) {
+            this.problem = problem;
+            this.nodeBudget = nodeBudget;
+        }
+
+        /**
+         * Startvärde för sökningen: varje last placeras i tur och ordning i sitt billigaste läge som
+         * ryms, och därefter flyttas en last i taget till sitt billigaste lediga läge så länge det
+         * sänker kostnaden.
+         */
+        void greedy() {
+            double[] usage = new double[problem.slotCount];
+            int[] starts = new int[problem.loads.length];
+            for (int d = 0; d < starts.length; d++) {
+                int chosen = cheapestFit(usage, d);
+                if (chosen < 0) {
+                    return;
+                }
+                problem.add(usage, d, chosen, 1);
+                starts[d] = chosen;
+            }
+            boolean improved = true;
+            for (int round = 0; improved && round < MAX_IMPROVEMENT_ROUNDS; round++) {
+                improved = false;
+                for (int d = 0; d < starts.length; d++) {
+                    problem.add(usage, d, starts[d], -1);
+                    int chosen = cheapestFit(usage, d);
+                    if (problem.cost[d][chosen] < problem.cost[d][starts[d]] - EPSILON) {
+                        starts[d] = chosen;
+                        improved = true;
+                    }
+                    problem.add(usage, d, starts[d], 1);
+                }
+            }
+            double total = 0.0;
+            for (int d = 0; d < starts.length; d++) {
+                total = total + problem.cost[d][starts[d]];
+            }
+            offer(total, starts);
+        }
+
+        private int cheapestFit(double[] usage, int d) {
+            for (int start : problem.candidates[d]) {
+                if (problem.fits(usage, d, start)) {
+                    return start;
+                }
+            }
+            return -1;
+        }
+
+        void run() {
+            int[] first = problem.candidates[0];
+            // Varje startläge för den första lasten är en egen deluppgift med eget effektschema
+            IntStream.range(0, first.length).parallel().forEach(k -> {
+                int start = first[k];
+                double cost = problem.cost[0][start];
+                if (budgetExceeded || cost + problem.lowerBound[1] >= bestCost - EPSILON) {
+                    return;
+                }
+                double[] usage = new double[problem.slotCount];
+                int[] starts = new int[problem.loads.length];
+                problem.add(usage, 0, start, 1);
+                starts[0] = start;
+                long[] localNodes = {1};
+                dfs(1, cost, usage, starts, localNodes);
+                nodes.addAndGet(localNodes[0] % NODE_BATCH);
+            });
+        }
+
+        private void dfs(int depth, double cost, double[] usage, int[] starts, long[] localNodes) {
+            if (++localNodes[0] % NODE_BATCH == 0 && nodes.addAndGet(NODE_BATCH) > nodeBudget) {
+                budgetExceeded = true;
+            }
+            if (budgetExceeded) {
+                return;
+            }
+            if (depth == starts.length) {
+                offer(cost, starts);
+                return;
+            }
+            if (cost + problem.capacityBound(usage, depth) >= bestCost - EPSILON) {
+                return;
+            }
+            for (int start : problem.candidates[depth]) {
+                double next = cost + problem.cost[depth][start];
+                // Kandidaterna är sorterade, så inga senare lägen kan heller slå det bästa schemat
+                if (next + problem.lowerBound[depth + 1] >= bestCost - EPSILON) {
+                    return;
+                }
+                if (!problem.fits(usage, depth, start)) {
+                    continue;
+                }
+                problem.add(usage, depth, start, 1);
+                starts[depth] = start;
+                dfs(depth + 1, next, usage, starts, localNodes);
+                problem.add(usage, depth, start, -1);
+                if (budgetExceeded) {
+                    return;
+                }
+            }
+        }
+
+        private synchronized void offer(double cost, int[] starts) {
+            if (cost < bestCost - EPSILON) {
+                bestCost = cost;
+                bestStarts = starts.clone();
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.api;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Kolumnformatet som delas av {@link ElprisDiskCache} och {@link PriceWriter.Format#BIN}:
+ * <pre>
+ * long[n]   time_start som epoch-sekunder
+ * long[n]   time_end som epoch-sekunder
+ * double[n] SEK_per_kWh
+ * double[n] EUR_per_kWh
+ * double[n] EXR
+ * int[n]    UTC-offset i sekunder för time_start
+ * int[n]    UTC-offset i sekunder för time_end
+ * </pre>
+ * Talen skrivs i buffertens byteordning, som standard big-endian.
+ */
+final class PriceColumns {
+
+    static final int BYTES_PER_SLOT = 5 * Long.BYTES + 2 * Integer.BYTES;
+
+    private PriceColumns() {
+    }
+
+    /**
+     * Skriver alla kolumner från buffertens position. Bufferten måste ha plats för
+     * {@code prices.size() * BYTES_PER_SLOT} byte.
+     */
+    static void write(ByteBuffer buffer, List<ElpriserAPI.Elpris> prices) {
+        Rows rows = new Rows(prices);
+        int n = rows.size();
+        for (int i = 0; i < n; i++) {
+            buffer.putLong(rows.start(i));
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putLong(rows.end(i));
+        }
+        if (rows.series != null) {
+            // Snabbväg: prisernas kolumner skrivs direkt från serien
+            buffer.asDoubleBuffer().put(rows.series.sekPerKWh()).put(rows.series.eurPerKWh()).put(rows.series.exr());
+            buffer.position(buffer.position() + 3 * n * Double.BYTES);
+        } else {
+            for (int i = 0; i < n; i++) {
+                buffer.putDouble(rows.sek(i));
+            }
+            for (int i = 0; i < n; i++) {
+                buffer.putDouble(rows.eur(i));
+            }
+            for (int i = 0; i < n; i++) {
+                buffer.putDouble(rows.exr(i));
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(rows.startOffset(i));
+        }
+        for (int i = 0; i < n; i++) {
+            buffer.putInt(rows.endOffset(i));
+        }
+    }
+
+    /**
+     * Läser {@code n} perioder från {@code offset} till en {@link PriceSeries.Builder}, så att en
+     * jämn serie hamnar i minnet som kompakta arrayer istället för som enskilda objekt.
+     */
+    static List<ElpriserAPI.Elpris> read(ByteBuffer buffer, int offset, int n) {
+        int startEpochs = offset;
+        int endEpochs = startEpochs + n * Long.BYTES;
+        int sek = endEpochs + n * Long.BYTES;
+        int eur = sek + n * Double.BYTES;
+        int exr = eur + n * Double.BYTES;
+        int startOffsets = exr + n * Double.BYTES;
+        int endOffsets = startOffsets + n * Integer.BYTES;
+
+        PriceSeries.Builder builder = new PriceSeries.Builder(n);
+        for (int i = 0; i < n; i++) {
+            builder.accept(
+                    buffer.getDouble(sek + i * Double.BYTES),
+                    buffer.getDouble(eur + i * Double.BYTES),
+                    buffer.getDouble(exr + i * Double.BYTES),
+                    buffer.getLong(startEpochs + i * Long.BYTES),
+                    buffer.getInt(startOffsets + i * Integer.BYTES),
+                    buffer.getLong(endEpochs + i * Long.BYTES),
+                    buffer.getInt(endOffsets + i * Integer.BYTES));
+        }
+        return builder.toList();
+    }
+
+    /**
+     * Läser en rad i taget utan att skapa {@link ElpriserAPI.Elpris}-objekt när listan är en vy av en
+     * {@link PriceSeries}; annars läses värdena från objekten.
+     */
+    static final class Rows {
+        private final List<ElpriserAPI.Elpris> prices;
+        private final PriceSeries series;
+
+        Rows(List<ElpriserAPI.Elpris> prices) {
+            this.prices = prices;
+            this.series = PriceSeries.viewOf(prices);
+        }
+
+        int size() {
+            return prices.size();
+        }
+
+        long start(int i) {
+            return series != null ? series.slotStartEpochSecond(i) : prices.get(i).timeStart().toEpochSecond();
+        }
+
+        long end(int i) {
+            return series != null ? series.slotStartEpochSecond(i + 1) : prices.get(i).timeEnd().toEpochSecond();
+        }
+
+        int startOffset(int i) {
+            return series != null ? series.offsetSeconds(start(i)) : prices.get(i).timeStart().getOffset().getTotalSeconds();
+        }
+
+        int endOffset(int i) {
+            return series != null ? series.offsetSeconds(end(i)) : prices.get(i).timeEnd().getOffset().getTotalSeconds();
+        }
+
+        double sek(int i) {
+            return series != null ? series.sekPerKWh(i) : prices.get(i).sekPerKWh();
+        }
+
+        double eur(int i) {
+            return series != null ? series.eurPerKWh(i) : prices.get(i).eurPerKWh();
+        }
+
+        double exr(int i) {
+            return series != null ? series.exr(i) : prices.get(i).exr();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.api;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-event för en hämtning från en {@link PriceSource}. Kostar i princip ingenting när ingen
+ * inspelning är aktiv; starta t.ex. med {@code -XX:StartFlightRecording} för att se hämtningarna.
+ */
+@Name("com.example.api.PriceFetch")
+@Label("Price Fetch")
+@Category("Elpriser")
+@Description("Hämtning av en dags elpriser från en PriceSource")
+final class PriceFetchEvent extends Event {
+
+    @Label("Cache Key")
+    String cacheKey;
+
+    @Label("Source")
+    String source;
+
+    @Label("Status")
+    String status;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Prices")
+    int prices;
+}
@@ -0,0 +1,606 @@
+package com.example.api;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneRules;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * En kompakt, kolumnbaserad prisserie med fast tidssteg.
+ * Istället för ett {@link ElpriserAPI.Elpris}-objekt med två {@link ZonedDateTime} per tidsperiod
+ * lagras en starttid i epoch-sekunder, en fast periodlängd och tre {@code double[]}-kolumner.
+ * <p>
+ * {@link #asList()} ger en vy som skapar {@code Elpris}-objekt vid behov, så att befintlig kod
+ * som arbetar med listor fungerar oförändrad. Kod som vill räkna direkt på arrayerna kan använda
+ * {@link #sekPerKWh()} eller {@link #sekColumn(List)}.
+ * <p>
+ * Serien är oföränderlig; arrayerna som returneras är delade och får inte ändras.
+ */
+public final class PriceSeries {
+
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+    private static final int HOUR_SECONDS = 3600;
+
+    private final long startEpochSecond;
+    private final int slotSeconds;
+    private final double[] sek;
+    private final double[] eur;
+    private final double[] exr;
+    // Tidszon för att återskapa exakt samma UTC-offset som i källdatan
+    private final ZoneId zone;
+    private final List<ElpriserAPI.Elpris> view = new View();
+    // Timvyn räknas fram första gången den efterfrågas; serien är oföränderlig så den kan delas
+    private volatile PriceSeries hourly;
+    // Periodernas index sorterade efter pris och varje periods plats i den ordningen; räknas fram vid behov
+    private volatile int[] order;
+    private volatile int[] ranks;
+
+    private PriceSeries(long startEpochSecond, int slotSeconds, double[] sek, double[] eur, double[] exr, ZoneId zone) {
+        this.startEpochSecond = startEpochSecond;
+        this.slotSeconds = slotSeconds;
+        this.sek = sek;
+        this.eur = eur;
+        this.exr = exr;
+        this.zone = zone;
+    }
+
+    /**
+     * Skapar en serie från en lista. Går i konstant tid om listan redan är en vy av en serie.
+     * @throws IllegalArgumentException om listan är tom, har luckor eller varierande periodlängd.
+     */
+    public static PriceSeries of(List<ElpriserAPI.Elpris> priser) {
+        PriceSeries series = tryOf(priser);
+        if (series == null) {
+            throw new IllegalArgumentException("Priserna saknar ett jämnt tidssteg och kan inte lagras som en PriceSeries");
+        }
+        return series;
+    }
+
+    /**
+     * Som {@link #of(List)}, men returnerar null istället för att kasta om listan inte är en jämn serie.
+     */
+    public static PriceSeries tryOf(List<ElpriserAPI.Elpris> priser) {
+        if (priser instanceof PriceSeries.View v) {
+            return v.series();
+        }
+        Builder builder = new Builder(priser.size());
+        for (ElpriserAPI.Elpris p : priser) {
+            builder.add(p);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return Serien om listan är en vy av en serie, annars null. Kopierar aldrig, till skillnad från {@link #tryOf(List)}.
+     */
+    static PriceSeries viewOf(List<ElpriserAPI.Elpris> priser) {
+        return priser instanceof PriceSeries.View v ? v.series() : null;
+    }
+
+    /**
+     * Returnerar SEK-kolumnen för en lista. För en vy av en serie returneras den delade arrayen
+     * utan kopiering, annars kopieras värdena till en ny array.
+     */
+    public static double[] sekColumn(List<ElpriserAPI.Elpris> priser) {
+        if (priser instanceof PriceSeries.View v) {
+            return v.series().sek;
+        }
+        double[] column = new double[priser.size()];
+        for (int i = 0; i < column.length; i++) {
+            column[i] = priser.get(i).sekPerKWh();
+        }
+        return column;
+    }
+
+    /**
+     * Slår ihop två listor i tidsordning. Om båda är vyer av serier som ligger direkt efter
+     * varandra blir resultatet en ny kompakt serie, annars en vanlig lista.
+     */
+    public static List<ElpriserAPI.Elpris> concat(List<ElpriserAPI.Elpris> first, List<ElpriserAPI.Elpris> second) {
+        if (second.isEmpty()) {
+            return first;
+        }
+        if (first.isEmpty()) {
+            return second;
+        }
+        if (first instanceof PriceSeries.View a && second instanceof PriceSeries.View b) {
+            PriceSeries joined = concat(a.series(), b.series());
+            if (joined != null) {
+                return joined.asList();
+            }
+        }
+        List<ElpriserAPI.Elpris> combined = new ArrayList<>(first.size() + second.size());
+        combined.addAll(first);
+        combined.addAll(second);
+        return combined;
+    }
+
+    /**
+     * Slår ihop flera listor i tidsordning, t.ex. en lista per dag. Tomma listor hoppas över.
+     * Om alla delar är angränsande serier kopieras kolumnerna en gång till en enda serie,
+     * istället för att slås ihop parvis; annars blir resultatet en vanlig lista.
+     */
+    public static List<ElpriserAPI.Elpris> concat(List<List<ElpriserAPI.Elpris>> parts) {
+        List<PriceSeries> series = new ArrayList<>(parts.size());
+        int total = 0;
+        boolean contiguous = true;
+        for (List<ElpriserAPI.Elpris> part : parts) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            total += part.size();
+            if (!(part instanceof PriceSeries.View view)) {
+                contiguous = false;
+                continue;
+            }
+            PriceSeries next = view.series();
+            if (!series.isEmpty()) {
+                PriceSeries previous = series.getLast();
+                contiguous &= previous.slotSeconds == next.slotSeconds
+                        && previous.endEpochSecond() == next.startEpochSecond
+                        && previous.zone.equals(next.zone);
+            }
+            series.add(next);
+        }
+        if (total == 0) {
+            return List.of();
+        }
+        if (contiguous) {
+            if (series.size() == 1) {
+                return series.getFirst().asList();
+            }
+            double[] sek = new double[total];
+            double[] eur = new double[total];
+            double[] exr = new double[total];
+            int offset = 0;
+            for (PriceSeries part : series) {
+                System.arraycopy(part.sek, 0, sek, offset, part.size());
+                System.arraycopy(part.eur, 0, eur, offset, part.size());
+                System.arraycopy(part.exr, 0, exr, offset, part.size());
+                offset += part.size();
+            }
+            PriceSeries first = series.getFirst();
+            return new PriceSeries(first.startEpochSecond, first.slotSeconds, sek, eur, exr, first.zone).asList();
+        }
+        List<ElpriserAPI.Elpris> combined = new ArrayList<>(total);
+        for (List<ElpriserAPI.Elpris> part : parts) {
+            combined.addAll(part);
+        }
+        return combined;
+    }
+
+    /**
+     * @return En serie med båda seriernas värden, eller null om {@code second} inte börjar där
+     *         {@code first} slutar med samma periodlängd.
+     */
+    public static PriceSeries concat(PriceSeries first, PriceSeries second) {
+        if (first.slotSeconds != second.slotSeconds || first.endEpochSecond() != second.startEpochSecond
+                || !first.zone.equals(second.zone)) {
+            return null;
+        }
+        return new PriceSeries(first.startEpochSecond, first.slotSeconds,
+                join(first.sek, second.sek), join(first.eur, second.eur), join(first.exr, second.exr), first.zone);
+    }
+
+    /**
+     * Slår ihop varje grupp om {@code slotsPerGroup} perioder till en period med medelvärden,
+     * t.ex. 4 kvartar till en timme.
+     * @throws IllegalArgumentException om antalet perioder inte är delbart med {@code slotsPerGroup}.
+     */
+    public PriceSeries rollup(int slotsPerGroup) {
+        if (slotsPerGroup < 1) {
+            throw new IllegalArgumentException("slotsPerGroup måste vara minst 1");
+        }
+        if (slotsPerGroup == 1) {
+            return this;
+        }
+        if (size() % slotsPerGroup != 0) {
+            throw new IllegalArgumentException("Antalet perioder (" + size() + ") är inte delbart med " + slotsPerGroup);
+        }
+        int groups = size() / slotsPerGroup;
+        return new PriceSeries(startEpochSecond, slotSeconds * slotsPerGroup,
+                average(sek, slotsPerGroup, groups), average(eur, slotsPerGroup, groups),
+                average(exr, slotsPerGroup, groups), zone);
+    }
+
+    /**
+     * Timvy av serien där perioder kortare än en timme slås ihop till timmedelvärden.
+     * <p>
+     * Grupperingen följer klockans hela timmar istället för ett fast antal perioder, så dygn med
+     * sommartidsomställning (92 eller 100 kvartar) blir 23 respektive 25 timmar. En timme som bara
+     * delvis täcks av serien får medelvärdet av de perioder som finns. Vyn räknas fram vid första
+     * anropet och återanvänds sedan.
+     *
+     * @return Timserien, eller serien själv om perioderna redan är en timme eller längre
+     *         eller inte går jämnt upp i en timme.
+     */
+    public PriceSeries hourly() {
+        PriceSeries result = hourly;
+        if (result == null) {
+            result = computeHourly();
+            hourly = result;
+        }
+        return result;
+    }
+
+    private PriceSeries computeHourly() {
+        if (slotSeconds >= HOUR_SECONDS || HOUR_SECONDS % slotSeconds != 0) {
+            return this;
+        }
+        // Svenska UTC-offsets är hela timmar, så timmar räknade från epoch sammanfaller med klockans timmar
+        long firstHour = Math.floorDiv(startEpochSecond, HOUR_SECONDS);
+        long lastHour = Math.floorDiv(endEpochSecond() - 1, HOUR_SECONDS);
+        int hours = (int) (lastHour - firstHour + 1);
+        double[] hourSek = new double[hours];
+        double[] hourEur = new double[hours];
+        double[] hourExr = new double[hours];
+        int[] counts = new int[hours];
+        for (int i = 0; i < size(); i++) {
+            int h = (int) (Math.floorDiv(slotStartEpochSecond(i), HOUR_SECONDS) - firstHour);
+            hourSek[h] = hourSek[h] + sek[i];
+            hourEur[h] = hourEur[h] + eur[i];
+            hourExr[h] = hourExr[h] + exr[i];
+            counts[h]++;
+        }
+        for (int h = 0; h < hours; h++) {
+            hourSek[h] = hourSek[h] / counts[h];
+            hourEur[h] = hourEur[h] / counts[h];
+            hourExr[h] = hourExr[h] / counts[h];
+        }
+        return new PriceSeries(firstHour * HOUR_SECONDS, HOUR_SECONDS, hourSek, hourEur, hourExr, zone);
+    }
+
+    /**
+     * Periodernas index sorterade efter SEK-pris, billigast först. Lika priser behåller tidsordningen,
+     * så sorteringen blir densamma som en stabil sortering av listan. Indexet räknas fram en gång
+     * per serie och delas sedan; arrayen får inte ändras.
+     */
+    public int[] rankOrder() {
+        int[] result = order;
+        if (result == null) {
+            result = stableOrder(sek);
+            order = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return Periodens plats i prisordningen, där 0 är den billigaste.
+     */
+    public int rankOf(int index) {
+        int[] result = ranks;
+        if (result == null) {
+            int[] sorted = rankOrder();
+            result = new int[sorted.length];
+            for (int rank = 0; rank < sorted.length; rank++) {
+                result[sorted[rank]] = rank;
+            }
+            ranks = result;
+        }
+        return result[index];
+    }
+
+    /**
+     * @return Index för de {@code count} billigaste perioderna, billigast först. Färre om serien är kortare.
+     */
+    public int[] cheapest(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Antalet perioder får inte vara negativt");
+        }
+        int[] sorted = rankOrder();
+        return Arrays.copyOf(sorted, Math.min(count, sorted.length));
+    }
+
+    /**
+     * @return En listvy över serien i prisordning, billigast först, utan att perioderna kopieras.
+     */
+    public List<ElpriserAPI.Elpris> sortedView() {
+        int[] sorted = rankOrder();
+        return new SortedView(sorted);
+    }
+
+    public int size() {
+        return sek.length;
+    }
+
+    public long startEpochSecond() {
+        return startEpochSecond;
+    }
+
+    public long endEpochSecond() {
+        return startEpochSecond + (long) slotSeconds * size();
+    }
+
+    public int slotSeconds() {
+        return slotSeconds;
+    }
+
+    public long slotStartEpochSecond(int index) {
+        return startEpochSecond + (long) slotSeconds * index;
+    }
+
+    public double sekPerKWh(int index) {
+        return sek[index];
+    }
+
+    public double eurPerKWh(int index) {
+        return eur[index];
+    }
+
+    public double exr(int index) {
+        return exr[index];
+    }
+
+    /** @return Den delade SEK-kolumnen. Får inte ändras. */
+    public double[] sekPerKWh() {
+        return sek;
+    }
+
+    /** @return Den delade EUR-kolumnen. Får inte ändras. */
+    public double[] eurPerKWh() {
+        return eur;
+    }
+
+    /** @return Den delade växelkurskolumnen. Får inte ändras. */
+    public double[] exr() {
+        return exr;
+    }
+
+    public ZonedDateTime timeStart(int index) {
+        return toZonedDateTime(slotStartEpochSecond(index));
+    }
+
+    public ZonedDateTime timeEnd(int index) {
+        return toZonedDateTime(slotStartEpochSecond(index + 1));
+    }
+
+    public ElpriserAPI.Elpris get(int index) {
+        return new ElpriserAPI.Elpris(sek[index], eur[index], exr[index], timeStart(index), timeEnd(index));
+    }
+
+    /**
+     * @return En oföränderlig listvy över serien som skapar {@code Elpris}-objekt vid åtkomst.
+     */
+    public List<ElpriserAPI.Elpris> asList() {
+        return view;
+    }
+
+    /** @return UTC-offset i sekunder vid tidpunkten, enligt seriens tidszon. */
+    int offsetSeconds(long epochSecond) {
+        return zone.getRules().getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+    }
+
+    private ZonedDateTime toZonedDateTime(long epochSecond) {
+        Instant instant = Instant.ofEpochSecond(epochSecond);
+        return ZonedDateTime.ofInstant(instant, zone.getRules().getOffset(instant));
+    }
+
+    private static double[] join(double[] a, double[] b) {
+        double[] joined = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, joined, a.length, b.length);
+        return joined;
+    }
+
+    /**
+     * Stabil mergesort av index efter pris. Sorterar primitiva index istället för boxade värden,
+     * och {@link Double#compare} ger en fullständig ordning även för NaN.
+     */
+    private static int[] stableOrder(double[] values) {
+        int n = values.length;
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = i;
+        }
+        int[] b = new int[n];
+        for (int width = 1; width < n; width = width * 2) {
+            for (int low = 0; low < n; low = low + 2 * width) {
+                int mid = Math.min(low + width, n);
+                int high = Math.min(low + 2 * width, n);
+                int i = low;
+                int j = mid;
+                for (int k = low; k < high; k++) {
+                    // Vid lika pris tas elementet från vänster halva först, vilket håller sorteringen stabil
+                    if (i < mid && (j >= high || Double.compare(values[a[i]], values[a[j]]) <= 0)) {
+                        b[k] = a[i++];
+                    } else {
+                        b[k] = a[j++];
+                    }
+                }
+            }
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        return a;
+    }
+
+    private static double[] average(double[] values, int groupSize, int groups) {
+        double[] result = new double[groups];
+        for (int g = 0; g < groups; g++) {
+            double sum = 0.0;
+            for (int i = g * groupSize; i < (g + 1) * groupSize; i++) {
+                sum = sum + values[i];
+            }
+            result[g] = sum / groupSize;
+        }
+        return result;
+    }
+
+    private final class View extends AbstractList<ElpriserAPI.Elpris> implements RandomAccess {
+        @Override
+        public ElpriserAPI.Elpris get(int index) {
+            return PriceSeries.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return PriceSeries.this.size();
+        }
+
+        PriceSeries series() {
+            return PriceSeries.this;
+        }
+    }
+
+    private final class SortedView extends AbstractList<ElpriserAPI.Elpris> implements RandomAccess {
+        private final int[] sorted;
+
+        SortedView(int[] sorted) {
+            this.sorted = sorted;
+        }
+
+        @Override
+        public ElpriserAPI.Elpris get(int index) {
+            return PriceSeries.this.get(sorted[index]);
+        }
+
+        @Override
+        public int size() {
+            return sorted.length;
+        }
+    }
+
+    /**
+     * Samlar prisvärden i primitiva arrayer, t.ex. direkt från {@link ElprisParser} eller disk-cachen.
+     * {@link #toList()} ger en kompakt serievy när värdena har ett jämnt tidssteg och annars en vanlig lista.
+     */
+    public static final class Builder implements ElprisParser.PriceSink {
+        private double[] sek;
+        private double[] eur;
+        private double[] exr;
+        private long[] startEpochs;
+        private long[] endEpochs;
+        private int[] startOffsets;
+        private int[] endOffsets;
+        private int size;
+
+        public Builder() {
+            this(100);
+        }
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 4);
+            sek = new double[capacity];
+            eur = new double[capacity];
+            exr = new double[capacity];
+            startEpochs = new long[capacity];
+            endEpochs = new long[capacity];
+            startOffsets = new int[capacity];
+            endOffsets = new int[capacity];
+        }
+
+        @Override
+        public void accept(double sekPerKWh, double eurPerKWh, double exrValue,
+                           long startEpochSecond, int startOffsetSeconds,
+                           long endEpochSecond, int endOffsetSeconds) {
+            if (size == sek.length) {
+                grow();
+            }
+            sek[size] = sekPerKWh;
+            eur[size] = eurPerKWh;
+            exr[size] = exrValue;
+            startEpochs[size] = startEpochSecond;
+            startOffsets[size] = startOffsetSeconds;
+            endEpochs[size] = endEpochSecond;
+            endOffsets[size] = endOffsetSeconds;
+            size++;
+        }
+
+        public void add(ElpriserAPI.Elpris p) {
+            accept(p.sekPerKWh(), p.eurPerKWh(), p.exr(),
+                    p.timeStart().toEpochSecond(), p.timeStart().getOffset().getTotalSeconds(),
+                    p.timeEnd().toEpochSecond(), p.timeEnd().getOffset().getTotalSeconds());
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return En serie, eller null om värdena saknas, har luckor eller varierande periodlängd.
+         */
+        public PriceSeries build() {
+            if (size == 0) {
+                return null;
+            }
+            long start = startEpochs[0];
+            long slot = endEpochs[0] - start;
+            if (slot <= 0 || slot > Integer.MAX_VALUE) {
+                return null;
+            }
+            for (int i = 0; i < size; i++) {
+                long expectedStart = start + slot * i;
+                if (startEpochs[i] != expectedStart || endEpochs[i] != expectedStart + slot) {
+                    return null;
+                }
+            }
+            ZoneId zone = detectZone();
+            if (zone == null) {
+                return null;
+            }
+            return new PriceSeries(start, (int) slot,
+                    Arrays.copyOf(sek, size), Arrays.copyOf(eur, size), Arrays.copyOf(exr, size), zone);
+        }
+
+        /**
+         * @return En serievy om värdena bildar en jämn serie, annars en lista med {@code Elpris}-objekt.
+         */
+        public List<ElpriserAPI.Elpris> toList() {
+            PriceSeries series = build();
+            if (series != null) {
+                return series.asList();
+            }
+            List<ElpriserAPI.Elpris> priser = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                priser.add(new ElpriserAPI.Elpris(sek[i], eur[i], exr[i],
+                        ElprisParser.toZonedDateTime(startEpochs[i], startOffsets[i]),
+                        ElprisParser.toZonedDateTime(endEpochs[i], endOffsets[i])));
+            }
+            return priser;
+        }
+
+        /**
+         * Väljer Europe/Stockholm om alla offsets följer dess regler (även över sommartidsskiften),
+         * annars en fast offset om alla är lika. Annars går offseten inte att återskapa och null returneras.
+         */
+        private ZoneId detectZone() {
+            ZoneRules rules = STOCKHOLM.getRules();
+            boolean stockholm = true;
+            boolean fixed = true;
+            for (int i = 0; i < size && (stockholm || fixed); i++) {
+                if (stockholm) {
+                    stockholm = offsetAt(rules, startEpochs[i]) == startOffsets[i]
+                            && offsetAt(rules, endEpochs[i]) == endOffsets[i];
+                }
+                if (fixed) {
+                    fixed = startOffsets[i] == startOffsets[0] && endOffsets[i] == startOffsets[0];
+                }
+            }
+            if (stockholm) {
+                return STOCKHOLM;
+            }
+            return fixed ? ZoneOffset.ofTotalSeconds(startOffsets[0]) : null;
+        }
+
+        private static int offsetAt(ZoneRules rules, long epochSecond) {
+            return rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        }
+
+        private void grow() {
+            int capacity = sek.length * 2;
+            sek = Arrays.copyOf(sek, capacity);
+            eur = Arrays.copyOf(eur, capacity);
+            exr = Arrays.copyOf(exr, capacity);
+            startEpochs = Arrays.copyOf(startEpochs, capacity);
+            endEpochs = Arrays.copyOf(endEpochs, capacity);
+            startOffsets = Arrays.copyOf(startOffsets, capacity);
+            endOffsets = Arrays.copyOf(endOffsets, capacity);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * En inbyggd HTTP-server som svarar på frågor om priser, statistik och laddningsfönster med en
+ * och samma varma {@link ElpriserAPI}, så att t.ex. hemautomation kan fråga ofta utan att starta
+ * en ny JVM med tom cache för varje fråga.
+ * <p>
+ * Servern använder JDK:ns {@code com.sun.net.httpserver} och en virtuell tråd per förfrågan.
+ * Alla svar är JSON (eller CSV för {@code /prices?format=csv}) och belopp anges i SEK per kWh:
+ * <pre>
+ * GET /prices?zone=SE3[&amp;date=2025-09-04][&amp;hourly=true][&amp;format=json|csv]
+ * GET /stats?zone=SE3[&amp;date=...][&amp;hourly=true]
+ * GET /charging?zone=SE3&amp;duration=2h[&amp;date=...][&amp;alternatives=3]
+ * GET /health
+ * </pre>
+ * Utan {@code date} används dagens datum. Laddningsfönster söks över dagen och morgondagen när
+ * den finns. Färdiga svar sparas per URL och återanvänds så länge API:et levererar samma
+ * prislistor, så en upprepad fråga besvaras utan att något räknas om.
+ */
+public final class PriceServer implements AutoCloseable {
+
+    /** Standardport för {@code --serve}. */
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+    // Totalt antal byte i sparade svar
+    private static final long MAX_CACHED_BYTES = 16L << 20;
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final String CSV = "text/csv; charset=utf-8";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /** Ett färdigt svar och de prislistor det räknades fram ur. */
+    private record Response(int status, String contentType, byte[] body, List<List<ElpriserAPI.Elpris>> sources) {}
+
+    /** Ett fel i förfrågan som ska besvaras med en statuskod och ett meddelande. */
+    private static final class RequestException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private final ElpriserAPI api;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final PrisCache<Response> responses = new PrisCache<>(MAX_CACHED_BYTES, r -> r.body().length + 64);
+
+    private PriceServer(ElpriserAPI api, HttpServer server, ExecutorService executor) {
+        this.api = api;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Startar servern.
+     * @param address Adress och port; port 0 väljer en ledig port, se {@link #port()}.
+     * @throws IOException om porten inte kan öppnas.
+     */
+    public static PriceServer start(ElpriserAPI api, InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        PriceServer priceServer = new PriceServer(api, server, executor);
+        server.createContext("/prices", exchange -> priceServer.handle(exchange, priceServer::prices));
+        server.createContext("/stats", exchange -> priceServer.handle(exchange, priceServer::stats));
+        server.createContext("/charging", exchange -> priceServer.handle(exchange, priceServer::charging));
+        server.createContext("/health", exchange -> priceServer.handle(exchange,
+                query -> new Response(200, JSON, "{\"status\":\"ok\"}".getBytes(StandardCharsets.UTF_8), List.of())));
+        server.setExecutor(executor);
+        server.start();
+        return priceServer;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stoppar servern och väntar högst en sekund på pågående förfrågningar.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.close();
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Response respond(Map<String, String> query) throws RequestException;
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try (exchange) {
+            Response response;
+            // HttpServer väljer kontext efter prefix, så /pricesfoo och /stats/x hamnar också här
+            if (!exchange.getHttpContext().getPath().equals(exchange.getRequestURI().getPath())) {
+                response = error(404, "Okänd sökväg");
+            } else if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                response = error(405, "Endast GET stöds");
+            } else {
+                String key = exchange.getRequestURI().toString();
+                response = responses.getIfPresent(key);
+                if (response == null || !isCurrent(response, parseQuery(exchange.getRequestURI().getRawQuery()))) {
+                    response = respond(handler, exchange.getRequestURI().getRawQuery());
+                    if (response.status() == 200 && !response.sources().isEmpty()) {
+                        responses.put(key, response, null);
+                    }
+                }
+            }
+            exchange.getResponseHeaders().set("Content-Type", response.contentType());
+            exchange.sendResponseHeaders(response.status(), response.body().length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response.body());
+            }
+        }
+    }
+
+    private static Response respond(Handler handler, String rawQuery) {
+        try {
+            return handler.respond(parseQuery(rawQuery));
+        } catch (RequestException e) {
+            return error(e.status, e.getMessage());
+        } catch (RuntimeException e) {
+            ElprisLog.warn("Fel i förfrågan: " + e);
+            return error(500, "Internt fel");
+        }
+    }
+
+    /**
+     * Ett sparat svar gäller så länge API:ets minnes-cache innehåller exakt samma listor som svaret
+     * räknades fram ur. Kontrollen hämtar aldrig något själv: har en dag (även en som saknades) gått
+     * ut ur cachen räknas svaret om, och då görs högst en hämtning per dag.
+     */
+    private boolean isCurrent(Response response, Map<String, String> query) {
+        try {
+            List<List<ElpriserAPI.Elpris>> sources = response.sources();
+            ElpriserAPI.Prisklass zone = zone(query);
+            LocalDate date = date(query);
+            for (int i = 0; i < sources.size(); i++) {
+                if (api.getCachedPriser(date.plusDays(i), zone) != sources.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (RequestException e) {
+            return false;
+        }
+    }
+
+    private Response prices(Map<String, String> query) throws RequestException {
+        List<ElpriserAPI.Elpris> today = fetch(query);
+        String format = query.getOrDefault("format", "json");
+        PriceWriter.Format writerFormat = PriceWriter.Format.parse(format);
+        if (writerFormat != PriceWriter.Format.JSON && writerFormat != PriceWriter.Format.CSV) {
+            throw new RequestException(400, "Okänt format: " + format + " (json eller csv)");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(today.size() * 160 + 16);
+        try (PriceWriter writer = PriceWriter.create(writerFormat, out)) {
+            writer.write(zone(query), hourly(query, today));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new Response(200, writerFormat == PriceWriter.Format.CSV ? CSV : JSON, out.toByteArray(), List.of(today));
+    }
+
+    private Response stats(Map<String, String> query) throws RequestException {
+        List<ElpriserAPI.Elpris> today = fetch(query);
+        PriceStatistics statistics = PriceStatistics.of(hourly(query, today));
+        StringBuilder json = new StringBuilder(384);
+        json.append("{\"zone\":\"").append(zone(query)).append("\",\"date\":\"").append(date(query))
+                .append("\",\"count\":").append(statistics.count());
+        appendNumber(json, "mean", statistics.mean());
+        appendNumber(json, "median", statistics.median());
+        appendNumber(json, "p10", statistics.percentile(10));
+        appendNumber(json, "p90", statistics.percentile(90));
+        appendNumber(json, "standardDeviation", statistics.standardDeviation());
+        appendNumber(json, "cheapThreshold", statistics.cheapThreshold());
+        appendSlot(json, "min", statistics.minPrice().timeStart(), statistics.minPrice().timeEnd(), statistics.min());
+        appendSlot(json, "max", statistics.maxPrice().timeStart(), statistics.maxPrice().timeEnd(), statistics.max());
+        return ok(json.append('}'), List.of(today));
+    }
+
+    private Response charging(Map<String, String> query) throws RequestException {
+        String text = query.get("duration");
+        Duration duration = text == null ? null : ChargingWindowOptimizer.parseDuration(text);
+        if (duration == null) {
+            throw new RequestException(400, "Ange en laddningstid, t.ex. duration=2h, 90m eller 5h15m");
+        }
+        int alternatives = intParameter(query, "alternatives", 1);
+        if (alternatives < 1) {
+            throw new RequestException(400, "alternatives måste vara minst 1");
+        }
+        List<ElpriserAPI.Elpris> today = fetch(query);
+        List<ElpriserAPI.Elpris> tomorrow = api.getPriser(date(query).plusDays(1), zone(query));
+        // Morgondagen räknas bara med när den tar vid där dagen slutar
+        boolean continues = !tomorrow.isEmpty() && today.getLast().timeEnd().isEqual(tomorrow.getFirst().timeStart());
+        List<ElpriserAPI.Elpris> prices = hourly(query, continues ? PriceSeries.concat(today, tomorrow) : today);
+
+        List<ChargingWindowOptimizer.ChargingWindow> windows = ChargingWindowOptimizer.findCheapest(prices, duration, alternatives);
+        StringBuilder json = new StringBuilder(128 + windows.size() * 160);
+        json.append("{\"zone\":\"").append(zone(query)).append("\",\"date\":\"").append(date(query))
+                .append("\",\"durationMinutes\":").append(duration.toMinutes()).append(",\"windows\":[");
+        for (int i = 0; i < windows.size(); i++) {
+            ChargingWindowOptimizer.ChargingWindow window = windows.get(i);
+            json.append(i == 0 ? "" : ",").append("{\"start\":\"").append(window.start().toOffsetDateTime())
+                    .append("\",\"end\":\"").append(window.end().toOffsetDateTime()).append('"');
+            appendNumber(json, "totalSekPerKWh", window.totalSekPerKWh());
+            appendNumber(json, "meanSekPerKWh", window.meanSekPerKWh());
+            json.append('}');
+        }
+        return ok(json.append("]}"), List.of(today, tomorrow));
+    }
+
+    private List<ElpriserAPI.Elpris> fetch(Map<String, String> query) throws RequestException {
+        ElpriserAPI.Prisklass zone = zone(query);
+        LocalDate date = date(query);
+        List<ElpriserAPI.Elpris> prices = api.getPriser(date, zone);
+        if (prices.isEmpty()) {
+            throw new RequestException(404, "Inga priser för " + date + " i zon " + zone);
+        }
+        return prices;
+    }
+
+    private static ElpriserAPI.Prisklass zone(Map<String, String> query) throws RequestException {
+        String zone = query.get("zone");
+        if (zone == null) {
+            throw new RequestException(400, "Ange zone=SE1, SE2, SE3 eller SE4");
+        }
+        try {
+            return ElpriserAPI.Prisklass.valueOf(zone.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RequestException(400, "Ogiltig zon: " + zone + " (välj SE1-SE4)");
+        }
+    }
+
+    private static LocalDate date(Map<String, String> query) throws RequestException {
+        String date = query.get("date");
+        if (date == null) {
+            return LocalDate.now(STOCKHOLM);
+        }
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new RequestException(400, "Ogiltigt datum: " + date + " (YYYY-MM-DD)");
+        }
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) throws RequestException {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, name + " måste vara ett heltal");
+        }
+    }
+
+    private static List<ElpriserAPI.Elpris> hourly(Map<String, String> query, List<ElpriserAPI.Elpris> prices) {
+        if (!Boolean.parseBoolean(query.get("hourly"))) {
+            return prices;
+        }
+        PriceSeries series = PriceSeries.tryOf(prices);
+        return series != null ? series.hourly().asList() : prices;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static void appendNumber(StringBuilder json, String name, double value) {
+        json.append(",\"").append(name).append("\":");
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            json.append("null");
+        } else {
+            FixedDecimal.append(json, value, 5, '.');
+        }
+    }
+
+    private static void appendSlot(StringBuilder json, String name, ZonedDateTime start, ZonedDateTime end, double sekPerKWh) {
+        json.append(",\"").append(name).append("\":{\"start\":\"").append(start.toOffsetDateTime())
+                .append("\",\"end\":\"").append(end.toOffsetDateTime()).append("\",\"sekPerKWh\":");
+        FixedDecimal.append(json, sekPerKWh, 5, '.').append('}');
+    }
+
+    private static Response ok(StringBuilder json, List<List<ElpriserAPI.Elpris>> sources) {
+        return new Response(200, JSON, json.toString().getBytes(StandardCharsets.UTF_8), sources);
+    }
+
+    private static Response error(int status, String message) {
+        StringBuilder json = new StringBuilder(message.length() + 16).append("{\"error\":\"");
+        appendEscaped(json, message).append("\"}");
+        return new Response(status, JSON, json.toString().getBytes(StandardCharsets.UTF_8), List.of());
+    }
+
+    /**
+     * Skriver texten som innehållet i en JSON-sträng. Felmeddelandena innehåller parametrar från
+     * förfrågan, så även kontrolltecken måste skrivas som escape-sekvenser.
+     */
+    private static StringBuilder appendEscaped(StringBuilder json, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xF]);
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json;
+    }
+}
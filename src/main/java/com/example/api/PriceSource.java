@@ -0,0 +1,107 @@
+package com.example.api;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * En källa till elpriser för en dag och en prisklass.
+ * <p>
+ * {@link ElpriserAPI} sköter cachning, sammanslagning av samtidiga hämtningar och batchning;
+ * en källa behöver bara kunna leverera priserna för en enskild dag. Standardkällan är
+ * {@link HttpPriceSource}, men priser kan också spelas upp från en katalog med sparade svar
+ * ({@link DirectoryPriceSource}) eller läggas in direkt i minnet ({@link InMemoryPriceSource}).
+ * <p>
+ * Implementationer måste vara trådsäkra, eftersom API:et hämtar flera dagar parallellt.
+ */
+public interface PriceSource {
+
+    /**
+     * En förfrågan om en dags priser.
+     * @param etag ETag från en tidigare hämtning som kan förnyas villkorligt, eller null.
+     * @param lastModified Last-Modified från en tidigare hämtning, eller null.
+     */
+    record Request(LocalDate datum, ElpriserAPI.Prisklass prisklass, String etag, String lastModified) {
+        public Request(LocalDate datum, ElpriserAPI.Prisklass prisklass) {
+            this(datum, prisklass, null, null);
+        }
+    }
+
+    /** Utfallet av en hämtning. */
+    enum Status {
+        /** Priserna levererades (listan kan ändå vara tom). */
+        OK,
+        /** Tidigare hämtade priser gäller fortfarande (HTTP 304). */
+        NOT_MODIFIED,
+        /** Källan saknar data för dagen (HTTP 404). */
+        NOT_FOUND,
+        /** Svaret kunde inte tolkas. */
+        MALFORMED,
+        /** Källan svarade med ett fel, t.ex. en annan HTTP-status än 200. */
+        ERROR
+    }
+
+    /**
+     * Svaret från en källa.
+     * @param priser De tolkade priserna; tom om källan saknar data för dagen.
+     * @param status Utfallet av hämtningen.
+     * @param etag Ny ETag att spara tillsammans med priserna, eller null.
+     * @param lastModified Nytt Last-Modified att spara tillsammans med priserna, eller null.
+     * @param bytes Antal byte som lästs från källan, för statistik.
+     */
+    record Result(List<ElpriserAPI.Elpris> priser, Status status, String etag, String lastModified, long bytes) {
+
+        public static Result of(List<ElpriserAPI.Elpris> priser) {
+            return new Result(priser, Status.OK, null, null, 0);
+        }
+
+        public static Result of(List<ElpriserAPI.Elpris> priser, String etag, String lastModified, long bytes) {
+            return new Result(priser, Status.OK, etag, lastModified, bytes);
+        }
+
+        public static Result notFound() {
+            return new Result(List.of(), Status.NOT_FOUND, null, null, 0);
+        }
+
+        public static Result notModified() {
+            return new Result(List.of(), Status.NOT_MODIFIED, null, null, 0);
+        }
+
+        public static Result malformed(long bytes) {
+            return new Result(List.of(), Status.MALFORMED, null, null, bytes);
+        }
+
+        public static Result error(long bytes) {
+            return new Result(List.of(), Status.ERROR, null, null, bytes);
+        }
+    }
+
+    /**
+     * Hämtar priserna för en dag.
+     * @throws IOException om källan inte kunde läsas; API:et loggar felet och returnerar en tom lista.
+     */
+    Result fetch(Request request) throws IOException, InterruptedException;
+
+    /**
+     * Asynkron variant av {@link #fetch(Request)}. Standardimplementationen hämtar direkt i den
+     * anropande tråden, vilket passar lokala källor; nätverkskällor bör överskugga den.
+     */
+    default CompletableFuture<Result> fetchAsync(Request request) {
+        try {
+            return CompletableFuture.completedFuture(fetch(request));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @return True om källan är långsam eller fjärran nog för att hämtade priser ska sparas i disk-cachen.
+     */
+    default boolean isRemote() {
+        return false;
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.api;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Statistik över priser som räknas fram i en genomgång och kan slås ihop, t.ex. dag för dag
+ * till en hel period eller en lång historik, utan att priserna gås igenom igen.
+ * <p>
+ * Medelvärde och varians räknas med Welfords metod och slås ihop med Chans formel, så att de
+ * förblir numeriskt stabila även över många år. Percentiler räknas ur ett histogram med
+ * upplösningen 10<sup>-5</sup> kr, samma som API:ets fem decimaler; antalet hinkar växer därför
+ * med antalet olika priser och inte med antalet perioder. Priser från API:et ger alltså exakta
+ * percentiler, medan andra värden, t.ex. timmedelvärden av kvartspriser, avrundas till
+ * närmaste 10<sup>-5</sup> kr innan percentilen räknas. Hinkarna ligger i en egen hashtabell
+ * med öppen adressering över {@code long}-arrayer, så att inga värden boxas när priser läggs till.
+ * <p>
+ * Klassen är inte trådsäker. Räkna per tråd och slå ihop med {@link #merge(PriceStatistics)}.
+ */
+public final class PriceStatistics {
+
+    /** Andel av perioderna som räknas som billiga i {@link #cheapThreshold()}. */
+    public static final double CHEAP_PERCENTILE = 25.0;
+
+    private static final double RESOLUTION = 100_000.0;
+    private static final int INITIAL_BUCKETS = 64;
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private ElpriserAPI.Elpris minPrice;
+    private ElpriserAPI.Elpris maxPrice;
+    // Histogrammet: priset i 10^-5 kr och antal perioder; en plats med antalet 0 är ledig
+    private long[] bucketKeys = new long[INITIAL_BUCKETS];
+    private long[] bucketCounts = new long[INITIAL_BUCKETS];
+    private int buckets;
+    // Histogrammets hinkar i stigande ordning; räknas om vid första percentilfrågan efter en ändring
+    private long[] sortedKeys;
+    private long[] cumulativeCounts;
+
+    /**
+     * @return Statistik över alla priser i listan.
+     */
+    public static PriceStatistics of(List<ElpriserAPI.Elpris> prices) {
+        PriceStatistics statistics = new PriceStatistics();
+        statistics.addAll(prices);
+        return statistics;
+    }
+
+    /**
+     * Lägger till alla priser i listan. Det tidigaste av flera lika låga (eller höga) priser blir
+     * {@link #minPrice()} (eller {@link #maxPrice()}).
+     */
+    public PriceStatistics addAll(List<ElpriserAPI.Elpris> prices) {
+        double[] sek = PriceSeries.sekColumn(prices);
+        int minIndex = -1;
+        int maxIndex = -1;
+        for (int i = 0; i < sek.length; i++) {
+            add(sek[i]);
+            // Två separata jämförelser, så att en och samma period kan vara både lägsta och högsta
+            if (minIndex < 0 || sek[i] < sek[minIndex]) {
+                minIndex = i;
+            }
+            if (maxIndex < 0 || sek[i] > sek[maxIndex]) {
+                maxIndex = i;
+            }
+        }
+        if (minIndex >= 0 && (minPrice == null || sek[minIndex] < minPrice.sekPerKWh())) {
+            minPrice = prices.get(minIndex);
+        }
+        if (maxIndex >= 0 && (maxPrice == null || sek[maxIndex] > maxPrice.sekPerKWh())) {
+            maxPrice = prices.get(maxIndex);
+        }
+        return this;
+    }
+
+    /**
+     * Lägger till en period. Priser läggs till i tidsordning, så vid lika lägsta eller högsta
+     * pris behålls den tidigaste perioden.
+     */
+    public PriceStatistics add(ElpriserAPI.Elpris price) {
+        add(price.sekPerKWh());
+        if (minPrice == null || price.sekPerKWh() < minPrice.sekPerKWh()) {
+            minPrice = price;
+        }
+        if (maxPrice == null || price.sekPerKWh() > maxPrice.sekPerKWh()) {
+            maxPrice = price;
+        }
+        return this;
+    }
+
+    /**
+     * Lägger till ett pris utan tidpunkt; påverkar inte {@link #minPrice()} och {@link #maxPrice()}.
+     */
+    public PriceStatistics add(double sekPerKWh) {
+        count++;
+        double delta = sekPerKWh - mean;
+        mean = mean + delta / count;
+        m2 = m2 + delta * (sekPerKWh - mean);
+        min = Math.min(min, sekPerKWh);
+        max = Math.max(max, sekPerKWh);
+        addToHistogram(Math.round(sekPerKWh * RESOLUTION), 1);
+        sortedKeys = null;
+        return this;
+    }
+
+    /**
+     * Lägger till all statistik från {@code other}, som om dess priser hade lagts till här.
+     * Vid lika lägsta eller högsta pris behålls det som redan fanns här, så slå ihop i tidsordning.
+     */
+    public PriceStatistics merge(PriceStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean = mean + delta * other.count / total;
+        m2 = m2 + other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        if (other.minPrice != null && (minPrice == null || other.minPrice.sekPerKWh() < minPrice.sekPerKWh())) {
+            minPrice = other.minPrice;
+        }
+        if (other.maxPrice != null && (maxPrice == null || other.maxPrice.sekPerKWh() > maxPrice.sekPerKWh())) {
+            maxPrice = other.maxPrice;
+        }
+        for (int i = 0; i < other.bucketCounts.length; i++) {
+            if (other.bucketCounts[i] != 0) {
+                addToHistogram(other.bucketKeys[i], other.bucketCounts[i]);
+            }
+        }
+        sortedKeys = null;
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /** @return Medelpriset, eller NaN om inga priser lagts till. */
+    public double mean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /** @return Lägsta priset, eller NaN om inga priser lagts till. */
+    public double min() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /** @return Högsta priset, eller NaN om inga priser lagts till. */
+    public double max() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /** @return Perioden med lägst pris, eller null om priserna lagts till utan tidpunkt. */
+    public ElpriserAPI.Elpris minPrice() {
+        return minPrice;
+    }
+
+    /** @return Perioden med högst pris, eller null om priserna lagts till utan tidpunkt. */
+    public ElpriserAPI.Elpris maxPrice() {
+        return maxPrice;
+    }
+
+    /** @return Populationsvariansen, eller NaN om inga priser lagts till. */
+    public double variance() {
+        return count == 0 ? Double.NaN : m2 / count;
+    }
+
+    /** @return Standardavvikelsen, eller NaN om inga priser lagts till. */
+    public double standardDeviation() {
+        return Math.sqrt(variance());
+    }
+
+    public double median() {
+        return percentile(50.0);
+    }
+
+    /**
+     * Percentil med linjär interpolation mellan närliggande värden, så att t.ex. medianen av ett
+     * jämnt antal priser blir medelvärdet av de två mittersta. Värdena är avrundade till
+     * 10<sup>-5</sup> kr, se klassbeskrivningen.
+     *
+     * @param percentile Ett värde mellan 0 och 100.
+     * @return Percentilen, eller NaN om inga priser lagts till.
+     */
+    public double percentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentilen måste ligga mellan 0 och 100");
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        double rank = percentile / 100.0 * (count - 1);
+        long lower = (long) Math.floor(rank);
+        double low = valueAt(lower);
+        if (rank == lower) {
+            return low;
+        }
+        return low + (valueAt(lower + 1) - low) * (rank - lower);
+    }
+
+    /**
+     * @return Priset under vilket en period räknas som billig: den {@value #CHEAP_PERCENTILE}:e percentilen.
+     */
+    public double cheapThreshold() {
+        return percentile(CHEAP_PERCENTILE);
+    }
+
+    /**
+     * @return Värdet på plats {@code rank} (från 0) om alla priser sorterades.
+     */
+    private double valueAt(long rank) {
+        if (sortedKeys == null) {
+            long[] keys = new long[buckets];
+            int used = 0;
+            for (int i = 0; i < bucketCounts.length; i++) {
+                if (bucketCounts[i] != 0) {
+                    keys[used++] = bucketKeys[i];
+                }
+            }
+            Arrays.sort(keys);
+            cumulativeCounts = new long[keys.length];
+            long sum = 0;
+            for (int i = 0; i < keys.length; i++) {
+                sum = sum + bucketCounts[slotOf(keys[i], bucketKeys, bucketCounts)];
+                cumulativeCounts[i] = sum;
+            }
+            sortedKeys = keys;
+        }
+        int index = Arrays.binarySearch(cumulativeCounts, rank + 1);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return sortedKeys[index] / RESOLUTION;
+    }
+
+    private void addToHistogram(long key, long n) {
+        int slot = slotOf(key, bucketKeys, bucketCounts);
+        if (bucketCounts[slot] == 0) {
+            bucketKeys[slot] = key;
+            buckets++;
+        }
+        bucketCounts[slot] += n;
+        // Fyllnadsgrad högst 1/2, så att sökningarna förblir korta
+        if (buckets * 2 > bucketKeys.length) {
+            long[] oldKeys = bucketKeys;
+            long[] oldCounts = bucketCounts;
+            bucketKeys = new long[oldKeys.length * 2];
+            bucketCounts = new long[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldCounts[i] != 0) {
+                    int moved = slotOf(oldKeys[i], bucketKeys, bucketCounts);
+                    bucketKeys[moved] = oldKeys[i];
+                    bucketCounts[moved] = oldCounts[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Platsen för {@code key} i tabellen, eller den lediga plats där den ska läggas in.
+     */
+    private static int slotOf(long key, long[] keys, long[] counts) {
+        int mask = keys.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (counts[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.api;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bevakar priserna för en prisklass i en långlivad process, så att automatiseringar slipper
+ * starta om JVM:en för att fråga efter morgondagens priser.
+ * <p>
+ * Dagens priser hämtas direkt. Morgondagens priser publiceras omkring {@link #PUBLISH_TIME};
+ * före dess görs inga anrop alls, och därefter frågas källan med exponentiellt växande väntetid
+ * ({@code initialBackoff}, dubblad upp till {@code maxBackoff}) tills priserna finns. Samma
+ * {@link ElpriserAPI} används hela tiden, så cachar och anslutningar behålls mellan hämtningarna.
+ * <p>
+ * Dagar som redan levererats kontrolleras igen med intervallet {@code revalidateInterval}, så att
+ * publicerade rättelser upptäcks. Så länge API:ets cache gäller kostar det ingenting, och därefter
+ * förnyas posten villkorligt, vilket normalt ger ett 304-svar utan kropp.
+ * <p>
+ * Lyssnaren anropas bara när en dags priser är nya eller har ändrats, så att mottagaren kan
+ * räkna om just det som berörs.
+ */
+public final class PriceWatcher implements Runnable {
+
+    /** Ungefär när morgondagens priser publiceras, svensk tid. */
+    public static final LocalTime PUBLISH_TIME = LocalTime.of(13, 0);
+
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMinutes(5);
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofHours(1);
+    /** Hur ofta redan levererade dagar kontrolleras igen; inte oftare än API:ets {@link ElpriserAPI#FRESH_DATA_TTL}. */
+    public static final Duration DEFAULT_REVALIDATE_INTERVAL = Duration.ofHours(3);
+
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+
+    /**
+     * Tar emot priser för en dag som är nya eller har ändrats sedan förra anropet.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void onPrices(LocalDate day, List<ElpriserAPI.Elpris> prices);
+    }
+
+    private final ElpriserAPI api;
+    private final ElpriserAPI.Prisklass prisklass;
+    private final Listener listener;
+    private final Clock clock;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration revalidateInterval;
+    // Senast levererade priser per dag; äldre dagar än idag tas bort
+    private final Map<LocalDate, List<ElpriserAPI.Elpris>> known = new TreeMap<>();
+    private Duration backoff;
+    // När de kända dagarna ska kontrolleras nästa gång; null tills en dag har levererats
+    private ZonedDateTime nextRevalidation;
+
+    public PriceWatcher(ElpriserAPI api, ElpriserAPI.Prisklass prisklass, Listener listener) {
+        this(api, prisklass, listener, Clock.system(STOCKHOLM), DEFAULT_INITIAL_BACKOFF, DEFAULT_MAX_BACKOFF,
+                DEFAULT_REVALIDATE_INTERVAL);
+    }
+
+    /**
+     * @throws IllegalArgumentException om väntetiderna inte är positiva eller {@code maxBackoff} är kortare än {@code initialBackoff}.
+     */
+    public PriceWatcher(ElpriserAPI api, ElpriserAPI.Prisklass prisklass, Listener listener,
+                        Clock clock, Duration initialBackoff, Duration maxBackoff, Duration revalidateInterval) {
+        if (initialBackoff.isNegative() || initialBackoff.isZero() || maxBackoff.compareTo(initialBackoff) < 0
+                || revalidateInterval.isNegative() || revalidateInterval.isZero()) {
+            throw new IllegalArgumentException("Väntetiderna måste vara positiva och maxBackoff minst initialBackoff");
+        }
+        this.api = api;
+        this.prisklass = prisklass;
+        this.listener = listener;
+        this.clock = clock;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.revalidateInterval = revalidateInterval;
+        this.backoff = initialBackoff;
+    }
+
+    /**
+     * Bevakar priserna tills tråden avbryts.
+     */
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Duration delay = poll(ZonedDateTime.now(clock));
+                ElprisLog.debug("Nästa kontroll av priser för " + prisklass + " om " + delay);
+                Thread.sleep(delay);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gör en kontroll: hämtar de dagar som saknas, kontrollerar de kända dagarna igen när det är
+     * dags och meddelar lyssnaren om något är nytt eller har ändrats.
+     *
+     * @param now Aktuell tid.
+     * @return Hur länge det är till nästa kontroll.
+     */
+    Duration poll(ZonedDateTime now) {
+        ZonedDateTime local = now.withZoneSameInstant(STOCKHOLM);
+        Duration delay = nextFetch(local);
+        if (knownPrices().isEmpty()) {
+            return delay;
+        }
+        if (nextRevalidation == null) {
+            nextRevalidation = local.plus(revalidateInterval);
+        } else if (!local.isBefore(nextRevalidation)) {
+            for (LocalDate day : knownPrices().keySet()) {
+                update(day);
+            }
+            nextRevalidation = local.plus(revalidateInterval);
+        }
+        Duration untilRevalidation = Duration.between(local, nextRevalidation);
+        return untilRevalidation.compareTo(delay) < 0 ? untilRevalidation : delay;
+    }
+
+    /**
+     * Hämtar dagens och, efter publiceringstiden, morgondagens priser om de saknas.
+     * @return Hur länge det är till nästa hämtning av en saknad dag.
+     */
+    private Duration nextFetch(ZonedDateTime local) {
+        LocalDate today = local.toLocalDate();
+        LocalDate tomorrow = today.plusDays(1);
+        synchronized (this) {
+            known.keySet().removeIf(day -> day.isBefore(today));
+        }
+
+        if (!isKnown(today)) {
+            // Dagens priser bör alltid finnas; saknas de görs ett nytt försök med samma väntetid som för morgondagen
+            if (!update(today)) {
+                return nextBackoff();
+            }
+        }
+
+        ZonedDateTime published = today.atTime(PUBLISH_TIME).atZone(STOCKHOLM);
+        if (isKnown(tomorrow)) {
+            backoff = initialBackoff;
+            return Duration.between(local, published.plusDays(1));
+        }
+        if (local.isBefore(published)) {
+            return Duration.between(local, published);
+        }
+        if (update(tomorrow)) {
+            backoff = initialBackoff;
+            return Duration.between(local, published.plusDays(1));
+        }
+        return nextBackoff();
+    }
+
+    /**
+     * @return Dagar vars priser har levererats och fortfarande bevakas, i datumordning.
+     */
+    public synchronized Map<LocalDate, List<ElpriserAPI.Elpris>> knownPrices() {
+        return Collections.unmodifiableMap(new TreeMap<>(known));
+    }
+
+    private synchronized boolean isKnown(LocalDate day) {
+        return known.containsKey(day);
+    }
+
+    /**
+     * @return Om dagen har priser, oavsett om de var nya eller inte.
+     */
+    private boolean update(LocalDate day) {
+        List<ElpriserAPI.Elpris> prices = api.getPriser(day, prisklass);
+        if (prices.isEmpty()) {
+            return false;
+        }
+        List<ElpriserAPI.Elpris> previous;
+        synchronized (this) {
+            previous = known.put(day, prices);
+        }
+        // En förnyad cachepost (304) ger samma lista; en rättelse ger nya priser
+        if (prices != previous && !prices.equals(previous)) {
+            listener.onPrices(day, prices);
+        }
+        return true;
+    }
+
+    private Duration nextBackoff() {
+        Duration delay = backoff;
+        backoff = backoff.multipliedBy(2).compareTo(maxBackoff) > 0 ? maxBackoff : backoff.multipliedBy(2);
+        return delay;
+    }
+}
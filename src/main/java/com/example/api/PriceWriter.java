@@ -0,0 +1,272 @@
+package com.example.api;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Skriver priser i maskinläsbara format, så att andra program kan läsa utskriften utan att tolka
+ * den svenska texten. All utdata går genom en buffert och tal skrivs med {@link FixedDecimal},
+ * så att stora mängder priser, t.ex. månader av kvartspriser, kan skrivas utan att utskriften
+ * blir flaskhalsen.
+ * <ul>
+ *   <li>{@link Format#CSV}: en rubrikrad och en rad per period.</li>
+ *   <li>{@link Format#JSON}: en array med samma fältnamn som API:et plus {@code zone}, så att
+ *       utdatan kan läsas med {@link ElprisParser}.</li>
+ *   <li>{@link Format#BIN}: block i kolumnformat, samma kolumner ({@link PriceColumns}) som i {@link ElprisDiskCache}:
+ * <pre>
+ * int    magic ("ELPS")
+ * int    version
+ * för varje block:
+ *   byte      prisklass (SE1 = 0 … SE4 = 3)
+ *   int       antal värden (n)
+ *   long[n]   time_start som epoch-sekunder
+ *   long[n]   time_end som epoch-sekunder
+ *   double[n] SEK_per_kWh
+ *   double[n] EUR_per_kWh
+ *   double[n] EXR
+ *   int[n]    UTC-offset i sekunder för time_start
+ *   int[n]    UTC-offset i sekunder för time_end
+ * byte   -1 som slutmarkering
+ * </pre>
+ *       Talen är big-endian, som i {@link DataOutputStream}; se {@link #readBinary(InputStream)}.</li>
+ * </ul>
+ * {@link #close()} skriver eventuell avslutning och tömmer bufferten men stänger inte den
+ * underliggande strömmen, så att {@code System.out} kan användas.
+ */
+public abstract sealed class PriceWriter implements AutoCloseable {
+
+    /** Format för utskrift av priser. */
+    public enum Format {
+        TEXT, CSV, JSON, BIN;
+
+        /**
+         * @return Formatet med namnet, oavsett skiftläge, eller null om det inte finns.
+         */
+        public static Format parse(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Ett block ur binärformatet: en prisklass och dess priser. */
+    public record Block(ElpriserAPI.Prisklass zone, List<ElpriserAPI.Elpris> prices) {}
+
+    private static final int MAGIC = 0x454C5053; // "ELPS"
+    private static final int VERSION = 1;
+    private static final int END_OF_BLOCKS = -1;
+    private static final int BUFFER_BYTES = 1 << 16;
+
+    /**
+     * @throws IllegalArgumentException för {@link Format#TEXT}, som skrivs av programmets egna utskrifter.
+     */
+    public static PriceWriter create(Format format, OutputStream out) {
+        return switch (format) {
+            case CSV -> new Csv(out);
+            case JSON -> new Json(out);
+            case BIN -> new Binary(out);
+            case TEXT -> throw new IllegalArgumentException("Textformatet skrivs inte med PriceWriter");
+        };
+    }
+
+    /**
+     * Skriver priserna för en prisklass. Kan anropas flera gånger, t.ex. en gång per zon eller dag.
+     */
+    public abstract void write(ElpriserAPI.Prisklass zone, List<ElpriserAPI.Elpris> prices) throws IOException;
+
+    @Override
+    public abstract void close() throws IOException;
+
+    /**
+     * Läser allt som skrivits i {@link Format#BIN}.
+     * @throws IOException om strömmen inte börjar med rätt magic och version eller tar slut för tidigt.
+     */
+    public static List<Block> readBinary(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Okänt binärformat");
+        }
+        List<Block> blocks = new ArrayList<>();
+        while (true) {
+            int zone = data.readByte();
+            if (zone == END_OF_BLOCKS) {
+                return blocks;
+            }
+            int n = data.readInt();
+            if (zone < 0 || zone >= ElpriserAPI.Prisklass.values().length || n < 0
+                    || n > Integer.MAX_VALUE / PriceColumns.BYTES_PER_SLOT) {
+                throw new IOException("Trasigt block i binärformatet");
+            }
+            byte[] bytes = new byte[n * PriceColumns.BYTES_PER_SLOT];
+            data.readFully(bytes);
+            blocks.add(new Block(ElpriserAPI.Prisklass.values()[zone], PriceColumns.read(ByteBuffer.wrap(bytes), 0, n)));
+        }
+    }
+
+    /**
+     * Gemensam bas för textformaten: en återanvänd {@link StringBuilder} per rad och en buffrad
+     * UTF-8-skrivare.
+     */
+    private abstract static sealed class Text extends PriceWriter {
+        final Writer out;
+        final StringBuilder line = new StringBuilder(160);
+
+        Text(OutputStream out) {
+            this.out = new OutputStreamWriter(new BufferedOutputStream(out, BUFFER_BYTES), StandardCharsets.UTF_8);
+        }
+
+        void flushLine() throws IOException {
+            out.append(line);
+            line.setLength(0);
+        }
+
+        /** Skriver tiden i ISO 8601 med offset, t.ex. 2025-09-04T00:00:00+02:00, som i API:et. */
+        void appendTime(long epochSecond, int offsetSeconds) {
+            LocalDateTime time = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.ofTotalSeconds(offsetSeconds));
+            line.append(time.getYear()).append('-');
+            appendTwoDigits(time.getMonthValue()).append('-');
+            appendTwoDigits(time.getDayOfMonth()).append('T');
+            appendTwoDigits(time.getHour()).append(':');
+            appendTwoDigits(time.getMinute()).append(':');
+            appendTwoDigits(time.getSecond());
+            if (offsetSeconds == 0) {
+                line.append('Z');
+                return;
+            }
+            int absolute = Math.abs(offsetSeconds);
+            line.append(offsetSeconds < 0 ? '-' : '+');
+            appendTwoDigits(absolute / 3600).append(':');
+            appendTwoDigits(absolute / 60 % 60);
+        }
+
+        private StringBuilder appendTwoDigits(int value) {
+            return line.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    private static final class Csv extends Text {
+        Csv(OutputStream out) {
+            super(out);
+            line.append("zone,time_start,time_end,sek_per_kwh,eur_per_kwh,exr\n");
+        }
+
+        @Override
+        public void write(ElpriserAPI.Prisklass zone, List<ElpriserAPI.Elpris> prices) throws IOException {
+            PriceColumns.Rows rows = new PriceColumns.Rows(prices);
+            for (int i = 0; i < rows.size(); i++) {
+                line.append(zone.name()).append(',');
+                appendTime(rows.start(i), rows.startOffset(i));
+                line.append(',');
+                appendTime(rows.end(i), rows.endOffset(i));
+                line.append(',');
+                FixedDecimal.append(line, rows.sek(i), 5, '.').append(',');
+                FixedDecimal.append(line, rows.eur(i), 5, '.').append(',');
+                FixedDecimal.append(line, rows.exr(i), 5, '.').append('\n');
+                flushLine();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Rubrikraden skrivs även om inga priser fanns
+            flushLine();
+            super.close();
+        }
+    }
+
+    private static final class Json extends Text {
+        private boolean first = true;
+
+        Json(OutputStream out) {
+            super(out);
+            line.append('[');
+        }
+
+        @Override
+        public void write(ElpriserAPI.Prisklass zone, List<ElpriserAPI.Elpris> prices) throws IOException {
+            PriceColumns.Rows rows = new PriceColumns.Rows(prices);
+            for (int i = 0; i < rows.size(); i++) {
+                line.append(first ? "\n" : ",\n");
+                first = false;
+                line.append("{\"zone\":\"").append(zone.name()).append("\",\"SEK_per_kWh\":");
+                appendNumber(rows.sek(i)).append(",\"EUR_per_kWh\":");
+                appendNumber(rows.eur(i)).append(",\"EXR\":");
+                appendNumber(rows.exr(i)).append(",\"time_start\":\"");
+                appendTime(rows.start(i), rows.startOffset(i));
+                line.append("\",\"time_end\":\"");
+                appendTime(rows.end(i), rows.endOffset(i));
+                line.append("\"}");
+                flushLine();
+            }
+        }
+
+        /** JSON saknar NaN och oändligheter, så sådana värden skrivs som null. */
+        private StringBuilder appendNumber(double value) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                return line.append("null");
+            }
+            return FixedDecimal.append(line, value, 5, '.');
+        }
+
+        @Override
+        public void close() throws IOException {
+            line.append(first ? "]\n" : "\n]\n");
+            flushLine();
+            super.close();
+        }
+    }
+
+    private static final class Binary extends PriceWriter {
+        private final DataOutputStream out;
+        private boolean started;
+
+        Binary(OutputStream out) {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, BUFFER_BYTES));
+        }
+
+        @Override
+        public void write(ElpriserAPI.Prisklass zone, List<ElpriserAPI.Elpris> prices) throws IOException {
+            start();
+            ByteBuffer columns = ByteBuffer.allocate(prices.size() * PriceColumns.BYTES_PER_SLOT);
+            PriceColumns.write(columns, prices);
+            out.writeByte(zone.ordinal());
+            out.writeInt(prices.size());
+            out.write(columns.array());
+        }
+
+        @Override
+        public void close() throws IOException {
+            start();
+            out.writeByte(END_OF_BLOCKS);
+            out.flush();
+        }
+
+        private void start() throws IOException {
+            if (!started) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                started = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.api;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Ett begränsat minnes-cache med LRU-utkastning, valfri livslängd (TTL) per post
+ * och sammanslagning av samtidiga laddningar för samma nyckel ("single-flight").
+ * <p>
+ * Cachen begränsas av en total vikt, t.ex. antalet prisvärden, så att en långlivad process
+ * som serverar historik inte växer obegränsat. Samtidiga missar för samma nyckel delar på
+ * en och samma laddning istället för att var och en skicka ett eget HTTP-anrop.
+ *
+ * @param <V> Typen på de cachade värdena.
+ */
+final class PrisCache<V> {
+
+    private record Entry<V>(V value, int weight, long expiresAtNanos) {}
+
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final long maxWeight;
+    private final ToIntFunction<V> weigher;
+    private final LongSupplier nanoClock;
+
+    // Åtkomstordnad LinkedHashMap ger LRU-ordning; skyddas av låset på 'this'
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalWeight;
+
+    // Pågående laddningar per nyckel
+    private final Map<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    PrisCache(long maxWeight, ToIntFunction<V> weigher) {
+        this(maxWeight, weigher, System::nanoTime);
+    }
+
+    PrisCache(long maxWeight, ToIntFunction<V> weigher, LongSupplier nanoClock) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight måste vara minst 1");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return Värdet för nyckeln, eller null om det saknas eller har gått ut.
+     */
+    synchronized V getIfPresent(String key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || isExpired(entry)) {
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Returnerar värdet även om dess livslängd har gått ut. Utgångna värden ligger kvar tills de
+     * trängs undan, så att de kan förnyas med en villkorlig förfrågan (If-None-Match) istället
+     * för att hämtas om i sin helhet.
+     * @return Värdet för nyckeln, eller null om det saknas.
+     */
+    synchronized V getStale(String key) {
+        Entry<V> entry = entries.get(key);
+        return entry == null ? null : entry.value();
+    }
+
+    /**
+     * Lägger in ett värde och kastar ut de minst nyligen använda posterna om vikten överskrids.
+     * @param ttl Hur länge värdet gäller, eller null om det aldrig går ut.
+     */
+    synchronized void put(String key, V value, Duration ttl) {
+        int weight = Math.max(1, weigher.applyAsInt(value));
+        long expiresAt = ttl == null ? NEVER : nanoClock.getAsLong() + ttl.toNanos();
+        remove(key);
+        entries.put(key, new Entry<>(value, weight, expiresAt));
+        totalWeight += weight;
+
+        Iterator<Map.Entry<String, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && eldest.hasNext()) {
+            Map.Entry<String, Entry<V>> victim = eldest.next();
+            if (victim.getKey().equals(key) && entries.size() == 1) {
+                break; // Ett ensamt värde som är större än gränsen får ligga kvar
+            }
+            totalWeight -= victim.getValue().weight();
+            eldest.remove();
+        }
+    }
+
+    synchronized void invalidateAll() {
+        entries.clear();
+        totalWeight = 0;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long weight() {
+        return totalWeight;
+    }
+
+    /**
+     * Returnerar det cachade värdet, eller kör {@code loader} om det saknas.
+     * Om en annan tråd redan laddar samma nyckel väntar anropet på den laddningen istället.
+     * Laddaren ansvarar själv för att lägga in resultatet med {@link #put(String, Object, Duration)}.
+     */
+    V getOrLoad(String key, Supplier<V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return joinUnwrapped(existing);
+        }
+        try {
+            // En annan laddning kan ha hunnit bli klar mellan uppslaget och registreringen
+            V value = getIfPresent(key);
+            if (value == null) {
+                value = loader.get();
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Asynkron variant av {@link #getOrLoad(String, Supplier)} som delar pågående laddningar
+     * med både synkrona och asynkrona anropare.
+     */
+    CompletableFuture<V> getOrLoadAsync(String key, Supplier<CompletableFuture<V>> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return existing;
+        }
+        V value = getIfPresent(key);
+        if (value != null) {
+            inFlight.remove(key, mine);
+            mine.complete(value);
+            return mine;
+        }
+        CompletableFuture<V> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((result, error) -> {
+            inFlight.remove(key, mine);
+            if (error != null) {
+                mine.completeExceptionally(error);
+            } else {
+                mine.complete(result);
+            }
+        });
+        return mine;
+    }
+
+    private boolean isExpired(Entry<V> entry) {
+        return entry.expiresAtNanos() != NEVER && nanoClock.getAsLong() - entry.expiresAtNanos() >= 0;
+    }
+
+    private void remove(String key) {
+        Entry<V> old = entries.remove(key);
+        if (old != null) {
+            totalWeight -= old.weight();
+        }
+    }
+
+    private static <V> V joinUnwrapped(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.api;
+
+/**
+ * Vanliga loopar, som JIT-kompilatorn ofta kan vektorisera själv. Används när
+ * {@code jdk.incubator.vector} inte finns tillgänglig.
+ */
+final class ScalarFleetKernel implements FleetKernel {
+
+    @Override
+    public void windowSums(long[] prefix, int slots, long[] out, int count) {
+        for (int s = 0; s < count; s++) {
+            out[s] = prefix[s + slots] - prefix[s];
+        }
+    }
+
+    @Override
+    public void minLevel(long[] values, long[] indices, int half, long[] outValues, long[] outIndices, int count) {
+        for (int s = 0; s < count; s++) {
+            boolean right = values[s + half] < values[s];
+            outValues[s] = right ? values[s + half] : values[s];
+            outIndices[s] = right ? indices[s + half] : indices[s];
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,427 @@
+package com.example.api;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Väljer de billigaste perioderna för en last som får delas upp, t.ex. en varmvattenberedare
+ * eller ett batteri som fylls på.
+ * <p>
+ * Utan begränsningar är svaret helt enkelt de {@code k} billigaste perioderna före deadline,
+ * som väljs med en max-heap av storlek {@code k} i O(n log k). Om det urvalet även uppfyller
+ * kraven på minsta körtid och antal påslag är det optimalt och returneras direkt. Annars löses
+ * problemet exakt med dynamisk programmering över (valda perioder, påslag, körningens längd),
+ * vilket bara behövs när begränsningarna faktiskt påverkar svaret.
+ * <p>
+ * Den dynamiska programmeringen sparar ett beslut (en byte) per period och tillstånd. Om tabellen
+ * skulle bli större än {@value #MAX_EXACT_DECISIONS} byte, t.ex. för en månad kvartspriser med
+ * lång laddningstid, väljs istället det billigaste sammanhängande fönstret. Det uppfyller alltid
+ * begränsningarna men är inte nödvändigtvis billigast, vilket anges med {@link Schedule#exact()}.
+ * <p>
+ * En körning spänner aldrig över ett glapp i tidsserien; en körning som avbryts av ett glapp
+ * räknas som två.
+ */
+public final class SlotScheduler {
+
+    private static final double TIE_EPSILON = 1e-9;
+
+    /** Största tabellen av beslut (period · tillstånd) som den exakta lösningen får använda; 64 MiB. */
+    static final long MAX_EXACT_DECISIONS = 1L << 26;
+
+    // Beslut som sparas per period och tillstånd för att kunna återskapa schemat; 0 betyder oåtkomligt
+    private static final byte SKIP_FROM_OFF = 1;
+    private static final byte SKIP_FROM_RUN = 2;
+    private static final byte START_FROM_OFF = 3;
+    private static final byte START_FROM_RUN = 4;
+    private static final byte CONTINUE = 5;
+    private static final byte CONTINUE_FULL = 6;
+
+    private SlotScheduler() {
+    }
+
+    /**
+     * Begränsningar för ett schema. Använd {@link #none()} och {@code with}-metoderna.
+     * @param minRun Minsta tid lasten måste vara på efter varje påslag, eller null för ingen gräns.
+     * @param maxSwitches Högsta antal påslag, dvs. sammanhängande körningar.
+     * @param deadline Tidpunkt då lasten måste vara klar, eller null för ingen gräns.
+     */
+    public record Constraints(Duration minRun, int maxSwitches, ZonedDateTime deadline) {
+
+        public Constraints {
+            if (minRun != null && (minRun.isNegative() || minRun.isZero())) {
+                throw new IllegalArgumentException("Minsta körtid måste vara positiv");
+            }
+            if (maxSwitches < 1) {
+                throw new IllegalArgumentException("Antalet påslag måste vara minst 1");
+            }
+        }
+
+        public static Constraints none() {
+            return new Constraints(null, Integer.MAX_VALUE, null);
+        }
+
+        public Constraints withMinRun(Duration minRun) {
+            return new Constraints(minRun, maxSwitches, deadline);
+        }
+
+        public Constraints withMaxSwitches(int maxSwitches) {
+            return new Constraints(minRun, maxSwitches, deadline);
+        }
+
+        public Constraints withDeadline(ZonedDateTime deadline) {
+            return new Constraints(minRun, maxSwitches, deadline);
+        }
+    }
+
+    /**
+     * Ett schema bestående av en eller flera körningar i tidsordning.
+     * @param runs Körningarna; varje körning är ett sammanhängande fönster i prislistan.
+     * @param totalSekPerKWh Summan av alla valda periodernas priser.
+     * @param exact Om schemat är det billigaste möjliga; false när problemet var för stort för den
+     *              exakta lösningen och schemat är det billigaste sammanhängande fönstret.
+     */
+    public record Schedule(List<ChargingWindowOptimizer.ChargingWindow> runs, double totalSekPerKWh, boolean exact) {
+
+        public Schedule {
+            runs = List.copyOf(runs);
+        }
+
+        /** @return Antal valda perioder. */
+        public int slotCount() {
+            int count = 0;
+            for (ChargingWindowOptimizer.ChargingWindow run : runs) {
+                count = count + run.slotCount();
+            }
+            return count;
+        }
+
+        /** @return Medelpriset per vald period. */
+        public double meanSekPerKWh() {
+            return totalSekPerKWh / slotCount();
+        }
+    }
+
+    /**
+     * Hittar det billigaste schemat som täcker minst {@code duration}. Laddningstiden och minsta
+     * körtid avrundas uppåt till hela perioder.
+     *
+     * @return Det billigaste schemat (se {@link Schedule#exact()}), eller null om inget schema uppfyller begränsningarna.
+     * @throws IllegalArgumentException om {@code duration} inte är positiv.
+     */
+    public static Schedule schedule(List<ElpriserAPI.Elpris> prices, Duration duration, Constraints constraints) {
+        if (duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("Laddningstiden måste vara positiv");
+        }
+        if (prices.isEmpty()) {
+            return null;
+        }
+        long slotSeconds = slotSeconds(prices);
+        long slots = ceilDiv(duration.getSeconds(), slotSeconds);
+        long minRun = constraints.minRun() == null ? 1 : ceilDiv(constraints.minRun().getSeconds(), slotSeconds);
+        int deadlineIndex = deadlineIndex(prices, constraints.deadline());
+        if (slots > deadlineIndex) {
+            return null;
+        }
+        return schedule(prices, (int) slots, (int) Math.min(minRun, slots), constraints.maxSwitches(), deadlineIndex);
+    }
+
+    /**
+     * Hittar det billigaste schemat med exakt {@code slots} perioder bland de {@code deadlineIndex}
+     * första perioderna.
+     *
+     * @param minRunSlots Minsta antal perioder i varje körning.
+     * @param maxSwitches Högsta antal körningar.
+     * @return Det billigaste schemat (se {@link Schedule#exact()}), eller null om inget schema uppfyller begränsningarna.
+     */
+    public static Schedule schedule(List<ElpriserAPI.Elpris> prices, int slots, int minRunSlots, int maxSwitches,
+                                    int deadlineIndex) {
+        if (slots < 1 || minRunSlots < 1 || maxSwitches < 1) {
+            throw new IllegalArgumentException("Antal perioder, minsta körtid och antal påslag måste vara minst 1");
+        }
+        int n = Math.min(deadlineIndex, prices.size());
+        if (slots > n || minRunSlots > slots) {
+            return null;
+        }
+        PriceSeries series = PriceSeries.tryOf(prices);
+        double[] sek = series != null ? series.sekPerKWh() : PriceSeries.sekColumn(prices);
+        boolean[] continues = continues(prices, series != null, n);
+
+        boolean[] chosen = cheapestSlots(sek, n, slots);
+        if (satisfies(chosen, continues, n, minRunSlots, maxSwitches)) {
+            return toSchedule(prices, sek, chosen, continues, n, true);
+        }
+        if (exactDecisions(n, slots, minRunSlots, maxSwitches) > MAX_EXACT_DECISIONS) {
+            chosen = cheapestRun(sek, continues, n, slots);
+            return chosen == null ? null : toSchedule(prices, sek, chosen, continues, n, false);
+        }
+        chosen = exact(sek, continues, n, slots, minRunSlots, maxSwitches);
+        return chosen == null ? null : toSchedule(prices, sek, chosen, continues, n, true);
+    }
+
+    /**
+     * @return Antal beslut som {@link #exact} sparar: en byte per period och tillstånd.
+     */
+    static long exactDecisions(int n, int k, int minRun, int maxSwitches) {
+        long maxRuns = Math.min(maxSwitches, k / minRun);
+        return (long) n * (k + 1) * (maxRuns + 1) * (minRun + 1);
+    }
+
+    /**
+     * Det billigaste sammanhängande fönstret med {@code k} perioder, som en enda körning uppfyller
+     * både minsta körtid och antal påslag. Vid lika pris vinner det tidigaste fönstret.
+     * @return De valda perioderna, eller null om ingen sammanhängande del är tillräckligt lång.
+     */
+    private static boolean[] cheapestRun(double[] sek, boolean[] continues, int n, int k) {
+        int bestStart = -1;
+        double bestSum = Double.POSITIVE_INFINITY;
+        int segmentStart = 0;
+        while (segmentStart < n) {
+            int segmentEnd = segmentStart + 1;
+            while (segmentEnd < n && continues[segmentEnd]) {
+                segmentEnd++;
+            }
+            int start = ChargingWindowOptimizer.cheapestStart(sek, segmentStart, segmentEnd, k);
+            if (start >= 0) {
+                double sum = 0.0;
+                for (int i = start; i < start + k; i++) {
+                    sum = sum + sek[i];
+                }
+                if (sum < bestSum - TIE_EPSILON) {
+                    bestSum = sum;
+                    bestStart = start;
+                }
+            }
+            segmentStart = segmentEnd;
+        }
+        if (bestStart < 0) {
+            return null;
+        }
+        boolean[] chosen = new boolean[n];
+        Arrays.fill(chosen, bestStart, bestStart + k, true);
+        return chosen;
+    }
+
+    /**
+     * De {@code k} billigaste perioderna bland de {@code n} första, med en max-heap som håller de
+     * hittills billigaste. Vid lika pris vinner den tidigare perioden.
+     */
+    static boolean[] cheapestSlots(double[] sek, int n, int k) {
+        PriorityQueue<Integer> heap = new PriorityQueue<>(k + 1, (a, b) -> {
+            int byPrice = Double.compare(sek[b], sek[a]);
+            return byPrice != 0 ? byPrice : Integer.compare(b, a);
+        });
+        for (int i = 0; i < n; i++) {
+            if (heap.size() < k) {
+                heap.add(i);
+            } else if (sek[i] < sek[heap.peek()]) {
+                heap.poll();
+                heap.add(i);
+            }
+        }
+        boolean[] chosen = new boolean[n];
+        for (int i : heap) {
+            chosen[i] = true;
+        }
+        return chosen;
+    }
+
+    private static boolean satisfies(boolean[] chosen, boolean[] continues, int n, int minRun, int maxSwitches) {
+        int runs = 0;
+        int length = 0;
+        for (int i = 0; i <= n; i++) {
+            boolean inRun = i < n && chosen[i] && (length == 0 || continues[i]);
+            if (inRun) {
+                length++;
+                continue;
+            }
+            if (length > 0) {
+                runs++;
+                if (length < minRun || runs > maxSwitches) {
+                    return false;
+                }
+            }
+            // En vald period efter ett glapp startar en ny körning
+            length = i < n && chosen[i] ? 1 : 0;
+        }
+        return true;
+    }
+
+    /**
+     * Exakt lösning med dynamisk programmering. Tillståndet är (valda perioder, påslag, längd på
+     * pågående körning), där längden 0 betyder avstängd och längder från {@code minRun} slås ihop,
+     * så kostnaden blir O(n · k · påslag · minRun) i tid och {@link #exactDecisions} byte minne.
+     */
+    private static boolean[] exact(double[] sek, boolean[] continues, int n, int k, int minRun, int maxSwitches) {
+        int maxRuns = Math.min(maxSwitches, k / minRun);
+        int runStates = maxRuns + 1;
+        int lengthStates = minRun + 1;
+        int states = (k + 1) * runStates * lengthStates;
+
+        double[] cost = new double[states];
+        double[] next = new double[states];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        cost[0] = 0.0;
+        byte[][] decisions = new byte[n][];
+
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(next, Double.POSITIVE_INFINITY);
+            byte[] decision = new byte[states];
+            for (int j = 0; j <= k; j++) {
+                for (int r = 0; r <= maxRuns; r++) {
+                    for (int s = 0; s < lengthStates; s++) {
+                        double c = cost[index(j, r, s, runStates, lengthStates)];
+                        if (c == Double.POSITIVE_INFINITY) {
+                            continue;
+                        }
+                        boolean canStop = s == 0 || s == minRun;
+                        if (canStop) {
+                            relax(next, decision, index(j, r, 0, runStates, lengthStates), c,
+                                    s == 0 ? SKIP_FROM_OFF : SKIP_FROM_RUN);
+                        }
+                        if (j == k) {
+                            continue;
+                        }
+                        double taken = c + sek[i];
+                        if (s > 0 && continues[i]) {
+                            int length = Math.min(s + 1, minRun);
+                            relax(next, decision, index(j + 1, r, length, runStates, lengthStates), taken,
+                                    s == minRun ? CONTINUE_FULL : CONTINUE);
+                        }
+                        if (canStop && r < maxRuns) {
+                            relax(next, decision, index(j + 1, r + 1, 1, runStates, lengthStates),
+                                    taken, s == 0 ? START_FROM_OFF : START_FROM_RUN);
+                        }
+                    }
+                }
+            }
+            decisions[i] = decision;
+            double[] swap = cost;
+            cost = next;
+            next = swap;
+        }
+
+        int best = -1;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int r = 1; r <= maxRuns; r++) {
+            for (int s : new int[]{0, minRun}) {
+                int state = index(k, r, s, runStates, lengthStates);
+                if (cost[state] < bestCost - TIE_EPSILON) {
+                    bestCost = cost[state];
+                    best = state;
+                }
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+
+        boolean[] chosen = new boolean[n];
+        int state = best;
+        for (int i = n - 1; i >= 0; i--) {
+            int j = state / (runStates * lengthStates);
+            int r = state / lengthStates % runStates;
+            int s = state % lengthStates;
+            switch (decisions[i][state]) {
+                case SKIP_FROM_OFF -> state = index(j, r, 0, runStates, lengthStates);
+                case SKIP_FROM_RUN -> state = index(j, r, minRun, runStates, lengthStates);
+                case START_FROM_OFF -> {
+                    chosen[i] = true;
+                    state = index(j - 1, r - 1, 0, runStates, lengthStates);
+                }
+                case START_FROM_RUN -> {
+                    chosen[i] = true;
+                    state = index(j - 1, r - 1, minRun, runStates, lengthStates);
+                }
+                case CONTINUE -> {
+                    chosen[i] = true;
+                    state = index(j - 1, r, s - 1, runStates, lengthStates);
+                }
+                case CONTINUE_FULL -> {
+                    chosen[i] = true;
+                    state = index(j - 1, r, minRun, runStates, lengthStates);
+                }
+                default -> throw new IllegalStateException("Ofullständigt schema vid period " + i);
+            }
+        }
+        return chosen;
+    }
+
+    private static void relax(double[] next, byte[] decision, int state, double cost, byte how) {
+        // Lika dyra alternativ behåller det först funna, så att resultatet blir deterministiskt
+        if (cost < next[state] - TIE_EPSILON) {
+            next[state] = cost;
+            decision[state] = how;
+        }
+    }
+
+    private static int index(int j, int r, int s, int runStates, int lengthStates) {
+        return (j * runStates + r) * lengthStates + s;
+    }
+
+    private static Schedule toSchedule(List<ElpriserAPI.Elpris> prices, double[] sek, boolean[] chosen,
+                                       boolean[] continues, int n, boolean exact) {
+        List<ChargingWindowOptimizer.ChargingWindow> runs = new ArrayList<>();
+        double total = 0.0;
+        int i = 0;
+        while (i < n) {
+            if (!chosen[i]) {
+                i++;
+                continue;
+            }
+            int start = i;
+            double runTotal = sek[i];
+            i++;
+            while (i < n && chosen[i] && continues[i]) {
+                runTotal = runTotal + sek[i];
+                i++;
+            }
+            runs.add(new ChargingWindowOptimizer.ChargingWindow(start, i - start, prices.get(start).timeStart(),
+                    prices.get(i - 1).timeEnd(), runTotal));
+            total = total + runTotal;
+        }
+        return new Schedule(runs, total, exact);
+    }
+
+    /**
+     * @return För varje period om den börjar precis där föregående period slutar.
+     */
+    private static boolean[] continues(List<ElpriserAPI.Elpris> prices, boolean contiguous, int n) {
+        boolean[] continues = new boolean[n];
+        for (int i = 1; i < n; i++) {
+            continues[i] = contiguous
+                    || prices.get(i).timeStart().toInstant().equals(prices.get(i - 1).timeEnd().toInstant());
+        }
+        return continues;
+    }
+
+    /**
+     * @return Antal perioder i början av listan som slutar senast vid {@code deadline}.
+     */
+    private static int deadlineIndex(List<ElpriserAPI.Elpris> prices, ZonedDateTime deadline) {
+        if (deadline == null) {
+            return prices.size();
+        }
+        int i = 0;
+        while (i < prices.size() && !prices.get(i).timeEnd().isAfter(deadline)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static long slotSeconds(List<ElpriserAPI.Elpris> prices) {
+        PriceSeries series = PriceSeries.tryOf(prices);
+        if (series != null) {
+            return series.slotSeconds();
+        }
+        ElpriserAPI.Elpris first = prices.getFirst();
+        return Math.max(1, Duration.between(first.timeStart(), first.timeEnd()).getSeconds());
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return (a + b - 1) / b;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.api;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD-version av {@link FleetKernel} med {@code jdk.incubator.vector}. Värden och index är båda
+ * 64-bitars heltal, så samma mask kan användas för att välja både minimum och dess index.
+ * <p>
+ * Klassen kompileras bara med profilen {@code -Pvector} och laddas bara om modulen finns, dvs. om
+ * JVM:en startats med {@code --add-modules jdk.incubator.vector}; se {@link FleetOptimizer}.
+ */
+final class VectorFleetKernel implements FleetKernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public void windowSums(long[] prefix, int slots, long[] out, int count) {
+        int s = 0;
+        for (int bound = SPECIES.loopBound(count); s < bound; s += SPECIES.length()) {
+            LongVector end = LongVector.fromArray(SPECIES, prefix, s + slots);
+            LongVector start = LongVector.fromArray(SPECIES, prefix, s);
+            end.sub(start).intoArray(out, s);
+        }
+        for (; s < count; s++) {
+            out[s] = prefix[s + slots] - prefix[s];
+        }
+    }
+
+    @Override
+    public void minLevel(long[] values, long[] indices, int half, long[] outValues, long[] outIndices, int count) {
+        int s = 0;
+        for (int bound = SPECIES.loopBound(count); s < bound; s += SPECIES.length()) {
+            LongVector left = LongVector.fromArray(SPECIES, values, s);
+            LongVector right = LongVector.fromArray(SPECIES, values, s + half);
+            VectorMask<Long> takeRight = right.lt(left);
+            left.blend(right, takeRight).intoArray(outValues, s);
+            LongVector.fromArray(SPECIES, indices, s)
+                    .blend(LongVector.fromArray(SPECIES, indices, s + half), takeRight)
+                    .intoArray(outIndices, s);
+        }
+        for (; s < count; s++) {
+            boolean right = values[s + half] < values[s];
+            outValues[s] = right ? values[s + half] : values[s];
+            outIndices[s] = right ? indices[s + half] : indices[s];
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + SPECIES.length() + " x 64 bit)";
+    }
+}
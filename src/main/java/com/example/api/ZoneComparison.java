@@ -0,0 +1,180 @@
+package com.example.api;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jämför flera elområden period för period, t.ex. för att välja var en flyttbar last ska köras.
+ * <p>
+ * Zonernas listor gås igenom samtidigt i tidsordning, så att perioder med samma starttid hamnar
+ * på samma rad även om någon zon saknar en period. I samma genomgång räknas statistik per zon och
+ * skillnaden mellan den billigaste och dyraste zonen i varje period.
+ */
+public final class ZoneComparison {
+
+    private final List<ElpriserAPI.Prisklass> zones;
+    private final Map<ElpriserAPI.Prisklass, PriceStatistics> statistics;
+    private final List<ZonedDateTime> starts;
+    private final List<ZonedDateTime> ends;
+    // Pris per zon och period, NaN där zonen saknar perioden
+    private final double[][] sek;
+    private final int[] cheapest;
+    private final int[] dearest;
+    private final double[] spread;
+    private final PriceStatistics spreadStatistics;
+
+    private ZoneComparison(List<ElpriserAPI.Prisklass> zones, Map<ElpriserAPI.Prisklass, PriceStatistics> statistics,
+                           List<ZonedDateTime> starts, List<ZonedDateTime> ends, double[][] sek,
+                           int[] cheapest, int[] dearest, double[] spread, PriceStatistics spreadStatistics) {
+        this.zones = zones;
+        this.statistics = statistics;
+        this.starts = starts;
+        this.ends = ends;
+        this.sek = sek;
+        this.cheapest = cheapest;
+        this.dearest = dearest;
+        this.spread = spread;
+        this.spreadStatistics = spreadStatistics;
+    }
+
+    /**
+     * @param pricesByZone Tidsordnade priser per zon, t.ex. från {@link ElpriserAPI#getPriser(java.time.LocalDate, java.util.Collection)}.
+     *                     Zoner utan priser tas med i statistiken som tomma men påverkar inte skillnaderna.
+     */
+    public static ZoneComparison of(Map<ElpriserAPI.Prisklass, List<ElpriserAPI.Elpris>> pricesByZone) {
+        List<ElpriserAPI.Prisklass> zones = List.copyOf(pricesByZone.keySet());
+        int zoneCount = zones.size();
+        List<List<ElpriserAPI.Elpris>> lists = new ArrayList<>(zoneCount);
+        int maxSlots = 0;
+        for (ElpriserAPI.Prisklass zone : zones) {
+            List<ElpriserAPI.Elpris> prices = pricesByZone.get(zone);
+            lists.add(prices);
+            maxSlots = maxSlots + prices.size();
+        }
+
+        Map<ElpriserAPI.Prisklass, PriceStatistics> statistics = new EnumMap<>(ElpriserAPI.Prisklass.class);
+        PriceStatistics[] perZone = new PriceStatistics[zoneCount];
+        for (int z = 0; z < zoneCount; z++) {
+            perZone[z] = new PriceStatistics();
+            statistics.put(zones.get(z), perZone[z]);
+        }
+
+        List<ZonedDateTime> starts = new ArrayList<>();
+        List<ZonedDateTime> ends = new ArrayList<>();
+        double[][] sek = new double[zoneCount][maxSlots];
+        int[] cheapest = new int[maxSlots];
+        int[] dearest = new int[maxSlots];
+        double[] spread = new double[maxSlots];
+        PriceStatistics spreadStatistics = new PriceStatistics();
+
+        int[] cursor = new int[zoneCount];
+        ElpriserAPI.Elpris[] current = new ElpriserAPI.Elpris[zoneCount];
+        int slot = 0;
+        while (true) {
+            // Nästa rad börjar vid den tidigaste starttiden bland zonernas nästa period
+            ElpriserAPI.Elpris first = null;
+            for (int z = 0; z < zoneCount; z++) {
+                current[z] = cursor[z] < lists.get(z).size() ? lists.get(z).get(cursor[z]) : null;
+                if (current[z] != null && (first == null || current[z].timeStart().isBefore(first.timeStart()))) {
+                    first = current[z];
+                }
+            }
+            if (first == null) {
+                break;
+            }
+            int low = -1;
+            int high = -1;
+            for (int z = 0; z < zoneCount; z++) {
+                ElpriserAPI.Elpris price = current[z];
+                if (price == null || !price.timeStart().isEqual(first.timeStart())) {
+                    sek[z][slot] = Double.NaN;
+                    continue;
+                }
+                sek[z][slot] = price.sekPerKWh();
+                perZone[z].add(price);
+                cursor[z]++;
+                // Vid lika pris räknas den första zonen i ordningen som billigast och dyrast
+                if (low < 0 || price.sekPerKWh() < sek[low][slot]) {
+                    low = z;
+                }
+                if (high < 0 || price.sekPerKWh() > sek[high][slot]) {
+                    high = z;
+                }
+            }
+            starts.add(first.timeStart());
+            ends.add(first.timeEnd());
+            cheapest[slot] = low;
+            dearest[slot] = high;
+            spread[slot] = sek[high][slot] - sek[low][slot];
+            spreadStatistics.add(spread[slot]);
+            slot++;
+        }
+
+        for (int z = 0; z < zoneCount; z++) {
+            sek[z] = Arrays.copyOf(sek[z], slot);
+        }
+        return new ZoneComparison(zones, statistics, List.copyOf(starts), List.copyOf(ends), sek,
+                Arrays.copyOf(cheapest, slot), Arrays.copyOf(dearest, slot), Arrays.copyOf(spread, slot),
+                spreadStatistics);
+    }
+
+    /** @return Zonerna i jämförelsen, i samma ordning som kolumnerna. */
+    public List<ElpriserAPI.Prisklass> zones() {
+        return zones;
+    }
+
+    /** @return Statistik för zonens priser; tom om zonen saknar data. */
+    public PriceStatistics statistics(ElpriserAPI.Prisklass zone) {
+        return statistics.get(zone);
+    }
+
+    /** @return Statistik över skillnaden mellan billigaste och dyraste zonen, en gång per period. */
+    public PriceStatistics spreadStatistics() {
+        return spreadStatistics;
+    }
+
+    public int slotCount() {
+        return starts.size();
+    }
+
+    public ZonedDateTime timeStart(int slot) {
+        return starts.get(slot);
+    }
+
+    public ZonedDateTime timeEnd(int slot) {
+        return ends.get(slot);
+    }
+
+    /** @return Zonens pris i perioden, eller NaN om zonen saknar perioden. */
+    public double sekPerKWh(ElpriserAPI.Prisklass zone, int slot) {
+        return sek[zones.indexOf(zone)][slot];
+    }
+
+    public ElpriserAPI.Prisklass cheapestZone(int slot) {
+        return zones.get(cheapest[slot]);
+    }
+
+    public ElpriserAPI.Prisklass dearestZone(int slot) {
+        return zones.get(dearest[slot]);
+    }
+
+    /** @return Skillnaden mellan dyraste och billigaste zonen i perioden; 0 om bara en zon har data. */
+    public double spread(int slot) {
+        return spread[slot];
+    }
+
+    /** @return Perioden med störst skillnad mellan zonerna, den tidigaste vid lika; -1 om jämförelsen är tom. */
+    public int maxSpreadSlot() {
+        int best = -1;
+        for (int i = 0; i < spread.length; i++) {
+            if (best < 0 || spread[i] > spread[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+}
@@ -1,15 +1,27 @@
 package com.example;
 
 import com.example.api.ElpriserAPI;
+import com.example.api.HttpPriceSource;
+import com.example.api.LoadScheduler;
+import com.example.api.StubPriceServer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -393,6 +405,126 @@ class MainTest {
         DecimalFormat df = new DecimalFormat("0.00", symbols);
         return df.format(ore);
     }
+
+    @Test
+    void batch_shouldAnswerEveryLineInInputOrderWithSharedFetches(@TempDir Path dir) throws IOException {
+        ElpriserAPI.setMockResponse("""
+                [{"SEK_per_kWh":0.10,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"},
+                 {"SEK_per_kWh":0.20,"EUR_per_kWh":0.02,"EXR":10.0,"time_start":"2025-09-04T01:00:00+02:00","time_end":"2025-09-04T02:00:00+02:00"},
+                 {"SEK_per_kWh":0.30,"EUR_per_kWh":0.03,"EXR":10.0,"time_start":"2025-09-04T02:00:00+02:00","time_end":"2025-09-04T03:00:00+02:00"}]""");
+        Path queries = Files.writeString(dir.resolve("queries.txt"), """
+                # nattlig körning
+                --zone SE3 --date 2025-09-04 --charging 2h
+
+                --zone SE9 --date 2025-09-04
+                --zone se3 --date 2025-09-04 --sorted
+                """);
+
+        Main.main(new String[]{"--batch", queries.toString()});
+
+        String output = bos.toString();
+        assertThat(output.indexOf("### --zone SE3 --date 2025-09-04 --charging 2h")).isGreaterThanOrEqualTo(0)
+                .isLessThan(output.indexOf("Påbörja laddning"));
+        assertThat(output.indexOf("Påbörja laddning")).isLessThan(output.indexOf("### --zone SE9"));
+        assertThat(output.indexOf("### --zone SE9")).isLessThan(output.indexOf("Ogiltig zon"));
+        assertThat(output.indexOf("Ogiltig zon")).isLessThan(output.indexOf("### --zone se3"));
+        assertThat(output).contains("Besvarade 3 frågor med 2 unika hämtningar");
+    }
+
+    @Test
+    void affectedPrices_shouldCoverTheNewDayAndTheChargingTimeBeforeIt() {
+        LocalDate day = LocalDate.of(2025, 9, 4);
+        List<ElpriserAPI.Elpris> prices = new ArrayList<>();
+        for (int hour = 0; hour < 48; hour++) {
+            ZonedDateTime start = day.atStartOfDay(ZoneId.of("Europe/Stockholm")).plusHours(hour);
+            prices.add(new ElpriserAPI.Elpris(0.10, 0.01, 10.0, start, start.plusHours(1)));
+        }
+        ZonedDateTime morning = prices.get(8).timeStart();
+
+        List<ElpriserAPI.Elpris> tomorrow = Main.affectedPrices(prices, day.plusDays(1), Duration.ofHours(3), morning);
+        assertThat(tomorrow).hasSize(27);
+        assertThat(tomorrow.getFirst()).isEqualTo(prices.get(21));
+        // För dagens priser börjar fönstren nu och slutar laddningstiden in i morgondagen
+        List<ElpriserAPI.Elpris> today = Main.affectedPrices(prices, day, Duration.ofHours(3), morning);
+        assertThat(today).hasSize(19);
+        assertThat(today.getFirst()).isEqualTo(prices.get(8));
+    }
+
+    @Test
+    void batch_shouldFetchAMissingTomorrowOnlyOnce() throws IOException {
+        LocalDate day = LocalDate.of(2025, 9, 4);
+        try (StubPriceServer stub = StubPriceServer.start(StubPriceServer.Options.DEFAULT.withPublishedUntil(day))) {
+            ElpriserAPI api = new ElpriserAPI(false, new HttpPriceSource(stub.baseUrl()));
+
+            Main.runBatch(new BufferedReader(new StringReader("""
+                    --zone SE3 --date 2025-09-04 --charging 2h
+                    --zone SE3 --date 2025-09-04 --sorted
+                    --zone SE3 --date 2025-09-04 --format csv
+                    """)), api);
+
+            // Dagen och den ännu inte publicerade morgondagen hämtas en gång var, trots att cachningen är av
+            assertThat(stub.requests()).isEqualTo(2);
+            assertThat(stub.notFound()).isEqualTo(1);
+            assertThat(bos.toString()).contains("Besvarade 3 frågor med 2 unika hämtningar")
+                    .doesNotContain("Inga priser hittades");
+        }
+    }
+
+    @Test
+    void writePrices_shouldKeepMachineFormatClean_whenTomorrowIsMissing() throws IOException {
+        LocalDate day = LocalDate.of(2025, 9, 4);
+        try (StubPriceServer stub = StubPriceServer.start(StubPriceServer.Options.DEFAULT.withPublishedUntil(day))) {
+            ElpriserAPI api = new ElpriserAPI(false, new HttpPriceSource(stub.baseUrl()));
+
+            Main.runQuery(Main.parseUserInput(new String[]{"--zone", "SE3", "--date", day.toString(), "--format", "csv"}), () -> api);
+
+            // Morgondagens 404 får inte hamna före CSV-huvudet
+            List<String> lines = bos.toString().lines().toList();
+            assertThat(lines).hasSize(97);
+            assertThat(lines.get(0)).startsWith("zone,");
+            assertThat(stub.notFound()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void processAndPrintAllZones_shouldAlignEveryColumn() throws IOException {
+        LocalDate day = LocalDate.of(2025, 9, 4);
+        try (StubPriceServer stub = StubPriceServer.start(StubPriceServer.Options.DEFAULT.withPublishedUntil(day))) {
+            ElpriserAPI api = new ElpriserAPI(false, new HttpPriceSource(stub.baseUrl()));
+
+            Main.processAndPrintAllZones(day, api, true);
+
+            List<String> lines = bos.toString().lines().toList();
+            assertThat(lines).contains("Zon    Medel  Lägsta  Högsta  (öre)",
+                    "Tid             SE1     SE2     SE3     SE4  Skillnad");
+            assertThat(lines).filteredOn(line -> line.startsWith("SE")).hasSize(4)
+                    .allMatch(line -> line.length() == 28 && line.matches("SE\\d {2,}\\d+,\\d{2}( +\\d+,\\d{2}){2}"));
+            assertThat(lines).filteredOn(line -> line.matches("\\d{2}-\\d{2} .*")).hasSize(24)
+                    .allMatch(line -> line.length() == 53 && line.matches("\\d{2}-\\d{2} {6}( +-?\\d+,\\d{2}){5}"));
+            assertThat(lines).anyMatch(line -> line.startsWith("Största skillnad: "))
+                    .anyMatch(line -> line.matches("Medelskillnad: \\d+,\\d{2} öre"));
+        }
+    }
+
+    @Test
+    void chargingOutputs_shouldListWindowsAndLoadsWithSwedishDecimals() throws IOException {
+        LocalDate day = LocalDate.of(2025, 9, 4);
+        try (StubPriceServer stub = StubPriceServer.start(StubPriceServer.Options.DEFAULT.withPublishedUntil(day))) {
+            List<ElpriserAPI.Elpris> prices = new ElpriserAPI(false, new HttpPriceSource(stub.baseUrl()))
+                    .getPriser(day, ElpriserAPI.Prisklass.SE3);
+
+            Main.printAlternativeChargingWindows(prices, Duration.ofMinutes(90), 2);
+            Main.printLoadSchedule(prices, List.of(new LoadScheduler.Load("elbil", Duration.ofHours(4), 11)), 12.5);
+
+            assertThat(bos.toString().lines().toList()).contains(
+                    "=== Alternativa laddningsfönster (1 timme och 30 minuter) ===",
+                    "1. 2025-09-04 kl 09:15-10:45: totalt 67,25 öre, medel 11,21 öre",
+                    "2. 2025-09-04 kl 20:15-21:45: totalt 67,27 öre, medel 11,21 öre",
+                    "=== Schema för laster (max 12,5 kW) ===",
+                    "elbil: 2025-09-04 kl 08:00-12:00 (11,0 kW): 7,99 kr",
+                    "Högsta effekt: 11,0 kW");
+        }
+    }
 }
 class PriceRange {
     private final double min;
@@ -0,0 +1,91 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ChargingWindowOptimizerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    @Test
+    void findCheapest_shouldMatchBruteForceAndPreferEarliestStart() {
+        // 0.30 + 0.10 och 0.10 + 0.30 kostar lika mycket; det tidigaste fönstret ska vinna
+        List<ElpriserAPI.Elpris> prices = ElprisParser.parse(ElpriserAPITest.json(DAY, 0.50, 0.30, 0.10, 0.30, 0.60, 0.20, 0.20));
+
+        ChargingWindowOptimizer.ChargingWindow window = ChargingWindowOptimizer.findCheapest(prices, 2);
+
+        assertThat(window.startIndex()).isEqualTo(1);
+        assertThat(window.totalSekPerKWh()).isEqualTo(0.40, within(1e-12));
+        assertThat(window.start().getHour()).isEqualTo(1);
+        assertThat(window.end().getHour()).isEqualTo(3);
+    }
+
+    @Test
+    void findCheapest_shouldRoundDurationUpToWholeSlots() {
+        List<ElpriserAPI.Elpris> prices = ElprisParser.parse(ElpriserAPITest.json(DAY, 0.50, 0.10, 0.05, 0.40, 0.01));
+
+        ChargingWindowOptimizer.ChargingWindow window = ChargingWindowOptimizer.findCheapest(prices, Duration.ofMinutes(90));
+
+        assertThat(window.slotCount()).isEqualTo(2);
+        assertThat(window.startIndex()).isEqualTo(1);
+        assertThat(ChargingWindowOptimizer.findCheapest(prices, Duration.ofHours(6))).isNull();
+    }
+
+    @Test
+    void findCheapest_shouldNotSpanGapsBetweenDays() {
+        // Dag två ansluter inte till dag ett, så 23:00 + 00:00 är inget giltigt fönster
+        List<ElpriserAPI.Elpris> prices = new ArrayList<>(ElprisParser.parse(ElpriserAPITest.json(DAY, 0.90, 0.80, 0.01)));
+        prices.addAll(ElprisParser.parse(ElpriserAPITest.json(DAY.plusDays(2), 0.01, 0.70, 0.60)));
+
+        ChargingWindowOptimizer.ChargingWindow window = ChargingWindowOptimizer.findCheapest(prices, 2);
+
+        assertThat(window.startIndex()).isEqualTo(3);
+        assertThat(ChargingWindowOptimizer.cheapestStart(new double[]{3, 1, 1, 3}, 0, 4, 2)).isEqualTo(1);
+        assertThat(ChargingWindowOptimizer.cheapestStart(new double[]{3, 1}, 0, 2, 3)).isEqualTo(-1);
+    }
+
+    @Test
+    void findCheapest_shouldReturnNonOverlappingAlternativesCheapestFirst() {
+        List<ElpriserAPI.Elpris> prices = ElprisParser.parse(ElpriserAPITest.json(DAY, 0.50, 0.10, 0.10, 0.40, 0.05, 0.90, 0.20, 0.30));
+
+        List<ChargingWindowOptimizer.ChargingWindow> windows = ChargingWindowOptimizer.findCheapest(prices, Duration.ofHours(2), 3);
+
+        // 01-03 kostar 0,20, sedan 03-05 (0,45) och 06-08 (0,50); 02-04 och 00-02 överlappar 01-03
+        assertThat(windows).extracting(ChargingWindowOptimizer.ChargingWindow::startIndex).containsExactly(1, 3, 6);
+        assertThat(windows.get(1).totalSekPerKWh()).isEqualTo(0.45, within(1e-12));
+        assertThat(windows.get(1).meanSekPerKWh()).isEqualTo(0.225, within(1e-12));
+        assertThat(ChargingWindowOptimizer.findCheapest(prices, Duration.ofHours(2), 10)).hasSize(3);
+    }
+
+    @Test
+    void findCheapest_shouldAgreeBetweenOneAndManyWindowsOnNearTies() {
+        Random random = new Random(17);
+        for (int round = 0; round < 50; round++) {
+            // Få olika priser med fem decimaler ger många lika summor med olika avrundningsfel i flyttal
+            double[] sek = new double[24];
+            for (int i = 0; i < sek.length; i++) {
+                sek[i] = (10 + random.nextInt(4)) / 100.0 + random.nextInt(2) * 0.00001;
+            }
+            List<ElpriserAPI.Elpris> prices = ElprisParser.parse(ElpriserAPITest.json(DAY, sek));
+
+            for (int slots = 1; slots <= 6; slots++) {
+                ChargingWindowOptimizer.ChargingWindow single = ChargingWindowOptimizer.findCheapest(prices, slots);
+                List<ChargingWindowOptimizer.ChargingWindow> windows = ChargingWindowOptimizer.findCheapest(prices, slots, 24);
+
+                assertThat(windows.getFirst().startIndex()).isEqualTo(single.startIndex());
+                assertThat(single.startIndex()).isEqualTo(ChargingWindowOptimizer.cheapestStart(sek, 0, sek.length, slots));
+                for (int i = 1; i < windows.size(); i++) {
+                    assertThat(windows.get(i).totalSekPerKWh()).isGreaterThan(windows.get(i - 1).totalSekPerKWh() - 1e-9);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ElprisDiskCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<ElpriserAPI.Elpris> priser = List.of(
+            new ElpriserAPI.Elpris(0.12229, 0.01112, 10.997148,
+                    ZonedDateTime.parse("2025-10-26T01:00:00+02:00"), ZonedDateTime.parse("2025-10-26T02:00:00+02:00")),
+            new ElpriserAPI.Elpris(-0.0123, -0.0011, 10.997148,
+                    ZonedDateTime.parse("2025-10-26T02:00:00+01:00"), ZonedDateTime.parse("2025-10-26T03:00:00+01:00")));
+
+    @Test
+    void save_thenLoad_shouldRoundTripAllFields() throws Exception {
+        ElprisDiskCache cache = new ElprisDiskCache(dir);
+
+        cache.save("2025-10-26_SE3", priser);
+
+        assertThat(cache.load("2025-10-26_SE3")).isEqualTo(priser);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.map(p -> p.getFileName().toString())).containsExactly("2025-10-26_SE3.bin");
+        }
+    }
+
+    @Test
+    void save_shouldDeleteTempFilesLeftBehindForTheKey() throws Exception {
+        ElprisDiskCache cache = new ElprisDiskCache(dir);
+        Path leftover = Files.createFile(dir.resolve("2025-10-26_SE3123456.tmp"));
+        Files.setLastModifiedTime(leftover, FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+        Path inProgress = Files.createFile(dir.resolve("2025-10-26_SE3654321.tmp"));
+        Path otherKey = Files.createFile(dir.resolve("2025-10-26_SE4123456.tmp"));
+        Files.setLastModifiedTime(otherKey, FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+
+        cache.save("2025-10-26_SE3", priser);
+
+        assertThat(leftover).doesNotExist();
+        assertThat(inProgress).exists();
+        assertThat(otherKey).exists();
+    }
+
+    @Test
+    void load_shouldReturnNullForMissingOrCorruptFiles() throws Exception {
+        ElprisDiskCache cache = new ElprisDiskCache(dir);
+        cache.save("2025-10-26_SE3", priser);
+        Path file = dir.resolve("2025-10-26_SE3.bin");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertThat(cache.load("2025-10-26_SE4")).isNull();
+        assertThat(cache.load("2025-10-26_SE3")).isNull();
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ElprisParserTest {
+
+    private static final String JSON = """
+            [{"SEK_per_kWh":0.12229,"EUR_per_kWh":0.01112,"EXR":10.997148,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"},
+             {"time_end":"2025-09-04T02:00:00+02:00", "EXR":10.997148, "SEK_per_kWh":-0.00123, "extra":{"a":[1,"}"]}, "EUR_per_kWh":1.5e-3, "time_start":"2025-09-04T01:00:00+02:00"}]""";
+
+    @Test
+    void parse_shouldMatchJavaTimeAndDoubleParsing() {
+        List<ElpriserAPI.Elpris> priser = ElprisParser.parse(JSON);
+
+        assertThat(priser).hasSize(2);
+        assertThat(priser.get(0)).isEqualTo(new ElpriserAPI.Elpris(0.12229, 0.01112, 10.997148,
+                ZonedDateTime.parse("2025-09-04T00:00:00+02:00"), ZonedDateTime.parse("2025-09-04T01:00:00+02:00")));
+        assertThat(priser.get(1)).isEqualTo(new ElpriserAPI.Elpris(-0.00123, 1.5e-3, 10.997148,
+                ZonedDateTime.parse("2025-09-04T01:00:00+02:00"), ZonedDateTime.parse("2025-09-04T02:00:00+02:00")));
+    }
+
+    @Test
+    void parse_shouldGiveSameResultForAllInputTypes() throws Exception {
+        byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(ElprisParser.parse(ByteBuffer.wrap(bytes))).isEqualTo(ElprisParser.parse(JSON));
+        assertThat(ElprisParser.parse(new ByteArrayInputStream(bytes))).isEqualTo(ElprisParser.parse(JSON));
+    }
+
+    @Test
+    void parse_shouldSkipMalformedObjectAndReportItsOffset() {
+        String json = """
+                [{"SEK_per_kWh":abc,"EUR_per_kWh":0.01,"EXR":10.0,"time_start":"2025-09-04T00:00:00+02:00","time_end":"2025-09-04T01:00:00+02:00"},{"SEK_per_kWh":0.2,"EUR_per_kWh":0.02,"EXR":10.0,"time_start":"2025-09-04T01:00:00+02:00","time_end":"2025-09-04T02:00:00+02:00"},{"SEK_per_kWh":0.3}]""";
+        List<Long> offsets = new ArrayList<>();
+        List<Double> prices = new ArrayList<>();
+
+        int count = ElprisParser.parse(json, new ElprisParser.PriceSink() {
+            @Override
+            public void accept(double sekPerKWh, double eurPerKWh, double exr,
+                               long startEpochSecond, int startOffsetSeconds,
+                               long endEpochSecond, int endOffsetSeconds) {
+                prices.add(sekPerKWh);
+            }
+
+            @Override
+            public void malformed(long offset, String message) {
+                offsets.add(offset);
+            }
+        });
+
+        assertThat(count).isEqualTo(1);
+        assertThat(prices).containsExactly(0.2);
+        assertThat(offsets).containsExactly((long) json.indexOf("abc"), (long) json.lastIndexOf('{'));
+    }
+
+    @Test
+    void parse_shouldRejectTruncatedPayload() {
+        String truncated = JSON.substring(0, 60);
+
+        assertThatThrownBy(() -> ElprisParser.parse(truncated))
+                .isInstanceOf(ElprisParseException.class)
+                .satisfies(e -> assertThat(((ElprisParseException) e).getOffset()).isEqualTo(truncated.length()));
+    }
+
+    @Test
+    void parse_shouldReturnEmptyListForEmptyArray() {
+        assertThat(ElprisParser.parse(" [ ] ")).isEmpty();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.api;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ElpriserAPIHttpTest {
+
+    private static final String ETAG = "\"v1\"";
+
+    @TempDir
+    Path cacheDir;
+
+    private HttpServer server;
+    private final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+    private final List<String> ifNoneMatch = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        LocalDate today = LocalDate.now();
+        byte[] gzipped = gzip(ElpriserAPITest.json(today, 0.10, 0.20));
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            acceptEncodings.add(String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding")));
+            String validator = exchange.getRequestHeaders().getFirst("If-None-Match");
+            ifNoneMatch.add(String.valueOf(validator));
+            if (!exchange.getRequestURI().getPath().endsWith("_SE3.json")) {
+                exchange.sendResponseHeaders(404, -1);
+            } else if (ETAG.equals(validator)) {
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                exchange.getResponseHeaders().add("ETag", ETAG);
+                exchange.sendResponseHeaders(200, gzipped.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(gzipped);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void getPriser_shouldDecodeGzipAndRevalidateWithEtag() {
+        ElpriserAPI api = newApi();
+        LocalDate today = LocalDate.now();
+
+        List<ElpriserAPI.Elpris> first = api.getPriser(today, ElpriserAPI.Prisklass.SE3);
+        List<ElpriserAPI.Elpris> second = api.getPriser(today, ElpriserAPI.Prisklass.SE3);
+
+        assertThat(first).extracting(ElpriserAPI.Elpris::sekPerKWh).containsExactly(0.10, 0.20);
+        assertThat(second).isSameAs(first);
+        assertThat(acceptEncodings).containsOnly("gzip, deflate");
+        assertThat(ifNoneMatch).containsExactly("null", ETAG);
+
+        ElpriserMetrics.Snapshot metrics = api.metrics().snapshot();
+        assertThat(metrics.sourceFetches()).isEqualTo(2);
+        assertThat(metrics.notModified()).isEqualTo(1);
+        assertThat(metrics.bytesDownloaded()).isPositive();
+    }
+
+    @Test
+    void getPriser_shouldKeepValidatorsInDiskCache() {
+        LocalDate today = LocalDate.now();
+        newApi().getPriser(today, ElpriserAPI.Prisklass.SE3);
+
+        ElprisDiskCache.Entry entry = new ElprisDiskCache(cacheDir).loadEntry(today + "_SE3");
+
+        assertThat(entry).isNotNull();
+        assertThat(entry.etag()).isEqualTo(ETAG);
+        assertThat(entry.priser()).hasSize(2);
+    }
+
+    @Test
+    void getPriser_shouldReturnEmptyListOn404() {
+        assertThat(newApi().getPriser(LocalDate.now(), ElpriserAPI.Prisklass.SE1)).isEmpty();
+    }
+
+    private ElpriserAPI newApi() {
+        String baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1/prices";
+        // Livslängd noll gör att varje nytt anrop måste förnyas mot servern
+        return new ElpriserAPI(true, new HttpPriceSource(baseUrl), new ElprisDiskCache(cacheDir), Duration.ZERO);
+    }
+
+    private static byte[] gzip(String json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
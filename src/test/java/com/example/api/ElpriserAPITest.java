@@ -0,0 +1,126 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ElpriserAPITest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    @TempDir
+    Path archive;
+
+    @Test
+    void getPriserAsync_shouldCompleteWithSourceData() {
+        InMemoryPriceSource source = new InMemoryPriceSource().putJson(DAY, ElpriserAPI.Prisklass.SE3, json(DAY, 0.10));
+        ElpriserAPI api = new ElpriserAPI(false, source);
+
+        assertThat(api.getPriserAsync(DAY, ElpriserAPI.Prisklass.SE3).join())
+                .singleElement()
+                .satisfies(p -> assertThat(p.sekPerKWh()).isEqualTo(0.10));
+        assertThat(api.getPriserAsync(DAY.plusDays(1), ElpriserAPI.Prisklass.SE3).join()).isEmpty();
+    }
+
+    @Test
+    void getPriserBatch_shouldReturnResultsInInputOrder() {
+        InMemoryPriceSource source = new InMemoryPriceSource()
+                .putJson(DAY, ElpriserAPI.Prisklass.SE1, json(DAY, 0.10))
+                .putJson(DAY.plusDays(1), ElpriserAPI.Prisklass.SE1, json(DAY.plusDays(1), 0.20));
+        ElpriserAPI api = new ElpriserAPI(false, source);
+
+        List<List<ElpriserAPI.Elpris>> result = api.getPriserBatch(List.of(
+                new ElpriserAPI.PriceQuery(DAY.plusDays(1), ElpriserAPI.Prisklass.SE1),
+                new ElpriserAPI.PriceQuery(DAY.plusDays(2), ElpriserAPI.Prisklass.SE1),
+                new ElpriserAPI.PriceQuery(DAY, ElpriserAPI.Prisklass.SE1),
+                new ElpriserAPI.PriceQuery(DAY.plusDays(1), ElpriserAPI.Prisklass.SE1)), 2);
+
+        assertThat(result).hasSize(4);
+        assertThat(result.get(0).getFirst().sekPerKWh()).isEqualTo(0.20);
+        assertThat(result.get(1)).isEmpty();
+        assertThat(result.get(2).getFirst().sekPerKWh()).isEqualTo(0.10);
+        assertThat(result.get(3)).isSameAs(result.get(0));
+    }
+
+    @Test
+    void getPriser_withDateRange_shouldJoinDaysIntoOneSeries() {
+        // Två hela dagar som ansluter till varandra, följda av en dag utan data
+        double[] day1 = new double[24];
+        double[] day2 = new double[24];
+        Arrays.fill(day1, 0.10);
+        Arrays.fill(day2, 0.20);
+        InMemoryPriceSource source = new InMemoryPriceSource();
+        for (ElpriserAPI.Prisklass zone : ElpriserAPI.Prisklass.values()) {
+            source.putJson(DAY, zone, json(DAY, day1)).putJson(DAY.plusDays(1), zone, json(DAY.plusDays(1), day2));
+        }
+        ElpriserAPI api = new ElpriserAPI(false, source);
+
+        List<ElpriserAPI.Elpris> range = api.getPriser(DAY, DAY.plusDays(2), ElpriserAPI.Prisklass.SE3);
+        Map<ElpriserAPI.Prisklass, List<ElpriserAPI.Elpris>> perZone = api.getPriser(DAY, DAY.plusDays(1),
+                EnumSet.of(ElpriserAPI.Prisklass.SE1, ElpriserAPI.Prisklass.SE4));
+
+        assertThat(range).hasSize(48);
+        assertThat(range.get(23).sekPerKWh()).isEqualTo(0.10);
+        assertThat(range.get(24).sekPerKWh()).isEqualTo(0.20);
+        assertThat(PriceSeries.tryOf(range)).isNotNull();
+        assertThat(perZone).containsOnlyKeys(ElpriserAPI.Prisklass.SE1, ElpriserAPI.Prisklass.SE4);
+        assertThat(perZone.get(ElpriserAPI.Prisklass.SE4)).hasSize(48);
+        assertThatThrownBy(() -> api.getPriser(DAY, DAY.minusDays(1), ElpriserAPI.Prisklass.SE3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void directorySource_shouldReplayPlainAndGzippedFiles() throws IOException {
+        Files.createDirectories(archive.resolve("2025"));
+        Files.writeString(archive.resolve("2025/09-04_SE3.json"), json(DAY, 0.10, 0.20));
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(archive.resolve("2025/09-05_SE3.json.gz")))) {
+            out.write(json(DAY.plusDays(1), 0.30).getBytes(StandardCharsets.UTF_8));
+        }
+        ElpriserAPI api = new ElpriserAPI(true, new DirectoryPriceSource(archive));
+
+        assertThat(api.getPriser(DAY, ElpriserAPI.Prisklass.SE3)).extracting(ElpriserAPI.Elpris::sekPerKWh).containsExactly(0.10, 0.20);
+        assertThat(api.getPriser(DAY.plusDays(1), ElpriserAPI.Prisklass.SE3)).extracting(ElpriserAPI.Elpris::sekPerKWh).containsExactly(0.30);
+        assertThat(api.getPriser(DAY.plusDays(2), ElpriserAPI.Prisklass.SE3)).isEmpty();
+    }
+
+    @Test
+    void injectedSource_shouldIgnoreStaticMockHooks() {
+        ElpriserAPI.setMockResponse(json(DAY, 9.99));
+        try {
+            ElpriserAPI api = new ElpriserAPI(false, new InMemoryPriceSource().putJson(DAY, ElpriserAPI.Prisklass.SE3, json(DAY, 0.10)));
+
+            assertThat(api.getPriser(DAY, ElpriserAPI.Prisklass.SE3)).singleElement()
+                    .satisfies(p -> assertThat(p.sekPerKWh()).isEqualTo(0.10));
+        } finally {
+            ElpriserAPI.clearMockResponse();
+        }
+    }
+
+    static String json(LocalDate day, double... prices) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < prices.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format(Locale.US,
+                    "{\"SEK_per_kWh\":%.5f,\"EUR_per_kWh\":%.5f,\"EXR\":10.0,\"time_start\":\"%sT%02d:00:00+02:00\",\"time_end\":\"%sT%02d:00:00+02:00\"}",
+                    prices[i], prices[i] / 10, day, i, i + 1 < 24 ? day : day.plusDays(1), (i + 1) % 24));
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ElpriserMetricsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    @Test
+    void snapshot_shouldCountCacheHitsFetchesAndMissingDays() {
+        InMemoryPriceSource source = new InMemoryPriceSource().putJson(DAY, ElpriserAPI.Prisklass.SE3, ElpriserAPITest.json(DAY, 0.10));
+        ElpriserAPI api = new ElpriserAPI(true, source);
+
+        api.getPriser(DAY, ElpriserAPI.Prisklass.SE3);
+        api.getPriser(DAY, ElpriserAPI.Prisklass.SE3);
+        api.getPriserAsync(DAY.plusDays(1), ElpriserAPI.Prisklass.SE3).join();
+
+        ElpriserMetrics.Snapshot snapshot = api.metrics().snapshot();
+        assertThat(snapshot.sourceFetches()).isEqualTo(2);
+        assertThat(snapshot.memoryCacheHits()).isEqualTo(1);
+        assertThat(snapshot.notFound()).isEqualTo(1);
+        assertThat(snapshot.diskCacheHits()).isZero();
+        assertThat(snapshot.fetchLatency().count()).isEqualTo(2);
+    }
+
+    @Test
+    void histogram_shouldReportPercentilesWithinAFactorOfTwo() {
+        ElpriserMetrics.Histogram histogram = new ElpriserMetrics.Histogram();
+        for (int i = 1; i <= 99; i++) {
+            histogram.record(1_000);
+        }
+        histogram.record(1_000_000);
+
+        ElpriserMetrics.Histogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.count()).isEqualTo(100);
+        assertThat(snapshot.maxNanos()).isEqualTo(1_000_000);
+        assertThat(snapshot.percentileNanos(50)).isBetween(1_000L, 2_000L);
+        assertThat(snapshot.percentileNanos(100)).isEqualTo(1_000_000);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FixedDecimalTest {
+
+    private static final Locale SV = new Locale("sv", "SE");
+
+    @Test
+    void format_shouldRoundHalfUpOnTheShortestDecimalForm() {
+        assertThat(FixedDecimal.format(12.345, 2)).isEqualTo("12,35");
+        assertThat(FixedDecimal.format(12628.154999999999, 2)).isEqualTo("12628,15");
+        assertThat(FixedDecimal.format(-12.345, 2)).isEqualTo("-12,35");
+        assertThat(FixedDecimal.format(-0.001, 2)).isEqualTo("-0,00");
+        assertThat(FixedDecimal.format(0.05, 2)).isEqualTo("0,05");
+        assertThat(FixedDecimal.format(7.0, 0)).isEqualTo("7");
+        assertThat(FixedDecimal.append(new StringBuilder("x="), 0.123456, 5, '.').toString()).isEqualTo("x=0.12346");
+    }
+
+    @Test
+    void format_shouldMatchStringFormat() {
+        Random random = new Random(17);
+        for (int i = 0; i < 200_000; i++) {
+            double value = switch (i % 3) {
+                // Priser i öre med API:ets fem decimaler i kronor, ofta exakt på hälften
+                case 0 -> (random.nextInt(2_000_000) - 500_000) / 1000.0;
+                case 1 -> random.nextGaussian() * 100;
+                default -> (random.nextLong() % 10_000_000_000L) / 1e5;
+            };
+            for (int decimals : new int[]{1, 2, 5}) {
+                assertThat(FixedDecimal.append(new StringBuilder(), value, decimals, ',').toString())
+                        .as("%s med %d decimaler", value, decimals)
+                        .isEqualTo(String.format(SV, "%." + decimals + "f", value));
+            }
+        }
+        assertThat(FixedDecimal.format(Double.NaN, 2)).isEqualTo(String.format(SV, "%.2f", Double.NaN));
+        assertThat(FixedDecimal.format(1e15, 2)).isEqualTo(String.format(SV, "%.2f", 1e15));
+    }
+}
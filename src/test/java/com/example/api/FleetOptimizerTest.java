@@ -0,0 +1,75 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class FleetOptimizerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    @Test
+    void solve_shouldMatchSingleWindowSearchForEveryKernel() {
+        Random random = new Random(3);
+        double[] sek = new double[192];
+        for (int i = 0; i < sek.length; i++) {
+            // Fem decimaler som i API:et, med många lika priser för att pröva regeln om lika fönster
+            sek[i] = random.nextInt(40) / 100.0 + random.nextInt(3) * 0.00001;
+        }
+        int count = 2000;
+        int[] slots = new int[count];
+        int[] earliest = new int[count];
+        int[] latestEnd = new int[count];
+        for (int i = 0; i < count; i++) {
+            slots[i] = 1 + random.nextInt(40);
+            earliest[i] = random.nextInt(192);
+            latestEnd[i] = earliest[i] + random.nextInt(200);
+        }
+
+        List<FleetKernel> kernels = new ArrayList<>(List.of(new ScalarFleetKernel()));
+        // SIMD-looparna finns bara med -Pvector
+        if (FleetOptimizer.vectorKernel() != null) {
+            kernels.add(FleetOptimizer.vectorKernel());
+        }
+        for (FleetKernel kernel : kernels) {
+            FleetOptimizer.Result result = FleetOptimizer.solve(kernel, sek, null, slots, earliest, latestEnd);
+
+            for (int i = 0; i < count; i++) {
+                int expected = ChargingWindowOptimizer.cheapestStart(sek, earliest[i], Math.min(192, latestEnd[i]), slots[i]);
+                assertThat(result.start(i)).as("%s, fordon %d", kernel.name(), i).isEqualTo(expected);
+                if (expected >= 0) {
+                    double total = 0.0;
+                    for (int s = expected; s < expected + slots[i]; s++) {
+                        total = total + sek[s];
+                    }
+                    assertThat(result.totalSekPerKWh(i)).isEqualTo(total, within(1e-6));
+                } else {
+                    assertThat(result.totalSekPerKWh(i)).isNaN();
+                }
+            }
+        }
+    }
+
+    @Test
+    void solve_shouldUseTimesAndNotSpanGaps() {
+        List<ElpriserAPI.Elpris> prices = new ArrayList<>(ElprisParser.parse(ElpriserAPITest.json(DAY, 0.90, 0.80, 0.01)));
+        prices.addAll(ElprisParser.parse(ElpriserAPITest.json(DAY.plusDays(2), 0.01, 0.70, 0.60)));
+
+        FleetOptimizer.Result result = FleetOptimizer.solve(prices, List.of(
+                new FleetOptimizer.Request(Duration.ofHours(2), null, null),
+                new FleetOptimizer.Request(Duration.ofMinutes(30), prices.get(0).timeStart(), prices.get(2).timeStart()),
+                new FleetOptimizer.Request(Duration.ofHours(4), null, null)));
+
+        assertThat(result.start(0)).isEqualTo(3);
+        assertThat(result.meanSekPerKWh(0)).isEqualTo(0.355, within(1e-9));
+        assertThat(result.start(1)).isEqualTo(1);
+        assertThat(result.start(2)).isEqualTo(FleetOptimizer.NO_WINDOW);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LoadSchedulerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    @Test
+    void schedule_shouldSeparateLoadsThatWouldExceedTheFuse() {
+        List<ElpriserAPI.Elpris> prices = ElprisParser.parse(ElpriserAPITest.json(DAY, 0.90, 0.10, 0.20, 0.80, 0.30, 0.90));
+        List<LoadScheduler.Load> loads = List.of(
+                new LoadScheduler.Load("elbil", Duration.ofHours(2), 10.0),
+                new LoadScheduler.Load("bastu", Duration.ofHours(1), 6.0));
+
+        LoadScheduler.Plan unlimited = LoadScheduler.schedule(prices, loads, 100.0);
+        LoadScheduler.Plan capped = LoadScheduler.schedule(prices, loads, 11.0);
+
+        assertThat(unlimited.placements().get(1).window().startIndex()).isEqualTo(1);
+        assertThat(unlimited.peakKW()).isEqualTo(16.0, within(1e-9));
+        // Elbilen får 01-03 och bastun flyttas till den billigaste lediga timmen
+        assertThat(capped.placements().get(0).load().name()).isEqualTo("elbil");
+        assertThat(capped.placements().get(0).window().startIndex()).isEqualTo(1);
+        assertThat(capped.placements().get(1).window().startIndex()).isEqualTo(4);
+        assertThat(capped.totalCostSek()).isEqualTo(0.30 * 10 + 0.30 * 6, within(1e-9));
+        assertThat(capped.peakKW()).isLessThanOrEqualTo(11.0);
+        assertThat(capped.status()).isEqualTo(LoadScheduler.Status.OPTIMAL);
+        assertThat(LoadScheduler.schedule(prices, loads, 8.0).status()).isEqualTo(LoadScheduler.Status.EXCEEDS_MAX_POWER);
+        assertThat(LoadScheduler.schedule(prices, loads, 12.0).status()).isEqualTo(LoadScheduler.Status.OPTIMAL);
+    }
+
+    @Test
+    void schedule_shouldTellTooFewPricesApartFromExceedingMaxPower() {
+        List<ElpriserAPI.Elpris> prices = ElprisParser.parse(ElpriserAPITest.json(DAY, 0.90, 0.10, 0.20));
+        List<LoadScheduler.Load> tooLong = List.of(new LoadScheduler.Load("elbil", Duration.ofHours(4), 10.0));
+        List<LoadScheduler.Load> overlapping = List.of(
+                new LoadScheduler.Load("elbil", Duration.ofHours(2), 2.0),
+                new LoadScheduler.Load("bastu", Duration.ofHours(2), 2.0));
+
+        assertThat(LoadScheduler.schedule(prices, tooLong, 100.0).status()).isEqualTo(LoadScheduler.Status.TOO_FEW_PRICES);
+        assertThat(LoadScheduler.schedule(prices, overlapping, 2.0).status()).isEqualTo(LoadScheduler.Status.EXCEEDS_MAX_POWER);
+        assertThat(LoadScheduler.schedule(prices, overlapping, 2.0).scheduled()).isFalse();
+    }
+
+    @Test
+    void schedule_shouldMatchBruteForce() {
+        Random random = new Random(7);
+        for (int round = 0; round < 100; round++) {
+            int n = 6 + random.nextInt(4);
+            double[] sek = new double[n];
+            for (int i = 0; i < n; i++) {
+                sek[i] = random.nextInt(100) / 100.0;
+            }
+            List<ElpriserAPI.Elpris> prices = ElprisParser.parse(ElpriserAPITest.json(DAY, sek));
+            List<LoadScheduler.Load> loads = new ArrayList<>();
+            int count = 1 + random.nextInt(3);
+            for (int i = 0; i < count; i++) {
+                loads.add(new LoadScheduler.Load("last" + i, Duration.ofHours(1 + random.nextInt(3)), 1 + random.nextInt(3)));
+            }
+            double maxKW = 2 + random.nextInt(4);
+
+            LoadScheduler.Plan plan = LoadScheduler.schedule(prices, loads, maxKW);
+            double expected = bruteForce(sek, loads, maxKW, 0, new double[n]);
+
+            if (expected == Double.POSITIVE_INFINITY) {
+                assertThat(plan.scheduled()).isFalse();
+            } else {
+                assertThat(plan.totalCostSek()).isEqualTo(expected, within(1e-9));
+                assertThat(plan.peakKW()).isLessThanOrEqualTo(maxKW + 1e-9);
+            }
+        }
+    }
+
+    private static double bruteForce(double[] sek, List<LoadScheduler.Load> loads, double maxKW, int d, double[] usage) {
+        if (d == loads.size()) {
+            return 0.0;
+        }
+        LoadScheduler.Load load = loads.get(d);
+        int length = (int) load.duration().toHours();
+        double best = Double.POSITIVE_INFINITY;
+        for (int start = 0; start + length <= sek.length; start++) {
+            boolean fits = true;
+            double cost = 0.0;
+            for (int i = start; i < start + length; i++) {
+                fits = fits && usage[i] + load.kW() <= maxKW;
+                cost = cost + sek[i] * load.kW();
+            }
+            if (!fits) {
+                continue;
+            }
+            for (int i = start; i < start + length; i++) {
+                usage[i] = usage[i] + load.kW();
+            }
+            best = Math.min(best, cost + bruteForce(sek, loads, maxKW, d + 1, usage));
+            for (int i = start; i < start + length; i++) {
+                usage[i] = usage[i] - load.kW();
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriceSeriesTest {
+
+    @Test
+    void asList_shouldEqualTheParsedRecords() {
+        String json = ElpriserAPITest.json(LocalDate.of(2025, 9, 4), 0.10, 0.20, 0.30);
+        List<ElpriserAPI.Elpris> records = ElprisParser.parse(json);
+
+        PriceSeries series = PriceSeries.of(records);
+
+        assertThat(series.size()).isEqualTo(3);
+        assertThat(series.slotSeconds()).isEqualTo(3600);
+        assertThat(series.asList()).isEqualTo(records);
+        assertThat(PriceSeries.of(series.asList())).isSameAs(series);
+        assertThat(PriceSeries.sekColumn(series.asList())).isSameAs(series.sekPerKWh());
+    }
+
+    @Test
+    void asList_shouldKeepOffsetsAcrossDaylightSavingChange() {
+        // 2025-10-26 har 25 timmar i Sverige; klockan 03:00 sommartid blir 02:00 vintertid
+        List<ElpriserAPI.Elpris> records = quarters("2025-10-26T00:00:00+02:00", 100);
+
+        PriceSeries series = PriceSeries.of(records);
+        PriceSeries hourly = series.rollup(4);
+
+        assertThat(series.asList()).isEqualTo(records);
+        assertThat(hourly.size()).isEqualTo(25);
+        assertThat(hourly.sekPerKWh(0)).isEqualTo(1.5);
+        assertThat(hourly.timeStart(3).toString()).isEqualTo("2025-10-26T02:00+01:00");
+    }
+
+    @Test
+    void rankOrder_shouldSortByPriceAndKeepTimeOrderForTies() {
+        LocalDate day = LocalDate.of(2025, 9, 4);
+        PriceSeries series = PriceSeries.of(ElprisParser.parse(ElpriserAPITest.json(day, 0.30, 0.10, 0.20, 0.10, 0.50, 0.20)));
+
+        assertThat(series.rankOrder()).containsExactly(1, 3, 2, 5, 0, 4);
+        assertThat(series.rankOrder()).isSameAs(series.rankOrder());
+        assertThat(series.rankOf(0)).isEqualTo(4);
+        assertThat(series.rankOf(3)).isEqualTo(1);
+        assertThat(series.cheapest(3)).containsExactly(1, 3, 2);
+        assertThat(series.cheapest(10)).hasSize(6);
+        assertThat(series.sortedView()).extracting(ElpriserAPI.Elpris::sekPerKWh)
+                .containsExactly(0.10, 0.10, 0.20, 0.20, 0.30, 0.50);
+    }
+
+    @Test
+    void rankOrder_shouldMatchAStableSortAcrossBothDays() {
+        Random random = new Random(5);
+        double[] today = new double[24];
+        double[] tomorrow = new double[24];
+        for (int i = 0; i < 24; i++) {
+            today[i] = random.nextInt(20) / 100.0;
+            tomorrow[i] = random.nextInt(20) / 100.0;
+        }
+        List<ElpriserAPI.Elpris> both = PriceSeries.concat(
+                ElprisParser.parse(ElpriserAPITest.json(LocalDate.of(2025, 9, 4), today)),
+                ElprisParser.parse(ElpriserAPITest.json(LocalDate.of(2025, 9, 5), tomorrow)));
+
+        List<ElpriserAPI.Elpris> expected = new ArrayList<>(both);
+        expected.sort(Comparator.comparingDouble(ElpriserAPI.Elpris::sekPerKWh));
+
+        PriceSeries series = PriceSeries.of(both);
+        assertThat(series.size()).isEqualTo(48);
+        assertThat(series.sortedView()).isEqualTo(expected);
+        for (int rank = 0; rank < series.size(); rank++) {
+            assertThat(series.rankOf(series.rankOrder()[rank])).isEqualTo(rank);
+        }
+    }
+
+    @Test
+    void hourly_shouldFollowClockHoursOnDaylightSavingDays() {
+        // 2025-03-30 har 23 timmar; klockan hoppar från 02:00 till 03:00
+        PriceSeries spring = PriceSeries.of(quarters("2025-03-30T00:00:00+01:00", 92));
+        PriceSeries autumn = PriceSeries.of(quarters("2025-10-26T00:00:00+02:00", 100));
+
+        assertThat(spring.hourly().size()).isEqualTo(23);
+        assertThat(spring.hourly().timeStart(2).toString()).isEqualTo("2025-03-30T03:00+02:00");
+        assertThat(spring.hourly().sekPerKWh(22)).isEqualTo(89.5);
+        assertThat(autumn.hourly().size()).isEqualTo(25);
+        assertThat(autumn.hourly()).isSameAs(autumn.hourly());
+        assertThat(autumn.hourly().hourly()).isSameAs(autumn.hourly());
+    }
+
+    @Test
+    void hourly_shouldAverageIncompleteHours() {
+        // Serien börjar 00:30, så första timmen har bara två kvartar
+        PriceSeries series = PriceSeries.of(quarters("2025-09-04T00:30:00+02:00", 6));
+
+        PriceSeries hourly = series.hourly();
+
+        assertThat(hourly.size()).isEqualTo(2);
+        assertThat(hourly.timeStart(0).toString()).isEqualTo("2025-09-04T00:00+02:00");
+        assertThat(hourly.sekPerKWh(0)).isEqualTo(0.5);
+        assertThat(hourly.sekPerKWh(1)).isEqualTo(3.5);
+    }
+
+    @Test
+    void concat_shouldJoinAdjacentSeriesAndFallBackOtherwise() {
+        PriceSeries today = PriceSeries.of(ElprisParser.parse(ElpriserAPITest.json(LocalDate.of(2025, 9, 4), 0.1, 0.2)));
+        List<ElpriserAPI.Elpris> gap = ElprisParser.parse(ElpriserAPITest.json(LocalDate.of(2025, 9, 5), 0.3));
+
+        assertThat(PriceSeries.concat(today, today)).isNull();
+        List<ElpriserAPI.Elpris> combined = PriceSeries.concat(today.asList(), gap);
+        assertThat(combined).hasSize(3);
+        assertThat(PriceSeries.tryOf(combined)).isNull();
+    }
+
+    @Test
+    void of_shouldRejectIrregularLists() {
+        assertThatThrownBy(() -> PriceSeries.of(List.of())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Kvartspriser 0, 1, 2, ... med start {@code start}. API:et anger tider med fast offset, inte med zon-id.
+     */
+    private static List<ElpriserAPI.Elpris> quarters(String start, int count) {
+        List<ElpriserAPI.Elpris> records = new ArrayList<>();
+        ZoneId stockholm = ZoneId.of("Europe/Stockholm");
+        ZonedDateTime first = ZonedDateTime.parse(start);
+        for (int i = 0; i < count; i++) {
+            ZonedDateTime from = first.plusMinutes(15L * i).withZoneSameInstant(stockholm).toOffsetDateTime().toZonedDateTime();
+            ZonedDateTime to = first.plusMinutes(15L * (i + 1)).withZoneSameInstant(stockholm).toOffsetDateTime().toZonedDateTime();
+            records.add(new ElpriserAPI.Elpris(i, i / 10.0, 10.0, from, to));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceServerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private ElpriserAPI api;
+    private PriceServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        double[] today = new double[24];
+        Arrays.fill(today, 0.60);
+        today[1] = 0.10;
+        today[2] = 0.20;
+        today[23] = 0.40;
+        InMemoryPriceSource source = new InMemoryPriceSource()
+                .putJson(DAY, ElpriserAPI.Prisklass.SE3, ElpriserAPITest.json(DAY, today))
+                .putJson(DAY.plusDays(1), ElpriserAPI.Prisklass.SE3, ElpriserAPITest.json(DAY.plusDays(1), 0.05, 0.50));
+        api = new ElpriserAPI(true, source);
+        server = PriceServer.start(api, new InetSocketAddress("localhost", 0));
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void endpoints_shouldAnswerFromTheSharedApi() throws Exception {
+        HttpResponse<String> prices = get("/prices?zone=se3&date=2025-09-04&format=csv");
+        assertThat(prices.statusCode()).isEqualTo(200);
+        assertThat(prices.body().lines().toList()).hasSize(25)
+                .element(2).asString().startsWith("SE3,2025-09-04T01:00:00+02:00,2025-09-04T02:00:00+02:00,0.10000,");
+
+        HttpResponse<String> stats = get("/stats?zone=SE3&date=2025-09-04");
+        assertThat(stats.body()).contains("\"count\":24", "\"mean\":0.55417",
+                "\"min\":{\"start\":\"2025-09-04T01:00+02:00\",\"end\":\"2025-09-04T02:00+02:00\",\"sekPerKWh\":0.10000}");
+        // Ett upprepat anrop besvaras ur svarscachen med samma innehåll
+        assertThat(get("/stats?zone=SE3&date=2025-09-04").body()).isEqualTo(stats.body());
+
+        HttpResponse<String> charging = get("/charging?zone=SE3&date=2025-09-04&duration=2h&alternatives=2");
+        assertThat(charging.body()).contains("\"durationMinutes\":120",
+                "{\"start\":\"2025-09-04T23:00+02:00\",\"end\":\"2025-09-05T01:00+02:00\",\"totalSekPerKWh\":0.45000,\"meanSekPerKWh\":0.22500}",
+                "{\"start\":\"2025-09-04T01:00+02:00\",\"end\":\"2025-09-04T03:00+02:00\",\"totalSekPerKWh\":0.30000,");
+    }
+
+    @Test
+    void endpoints_shouldReportBadRequestsAndMissingDays() throws Exception {
+        assertThat(List.of(
+                get("/prices?date=2025-09-04").statusCode(),
+                get("/prices?zone=SE9").statusCode(),
+                get("/stats?zone=SE3&date=4/9").statusCode(),
+                get("/charging?zone=SE3&date=2025-09-04&duration=abc").statusCode(),
+                get("/prices?zone=SE3&date=2025-09-20").statusCode()))
+                .containsExactly(400, 400, 400, 400, 404);
+
+        HttpResponse<String> post = client.send(HttpRequest.newBuilder(uri("/health"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(post.statusCode()).isEqualTo(405);
+        assertThat(get("/health").body()).isEqualTo("{\"status\":\"ok\"}");
+    }
+
+    @Test
+    void endpoints_shouldOnlyAnswerTheirExactPath() throws Exception {
+        assertThat(List.of(
+                get("/pricesfoo?zone=SE3&date=2025-09-04").statusCode(),
+                get("/stats/anything?zone=SE3&date=2025-09-04").statusCode(),
+                get("/health/").statusCode(),
+                get("/").statusCode()))
+                .containsExactly(404, 404, 404, 404);
+        assertThat(get("/stats?zone=SE3&date=2025-09-04").statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void errors_shouldEscapeControlCharactersFromTheRequest() throws Exception {
+        HttpResponse<String> response = get("/prices?zone=%0A%22%5C&date=2025-09-04");
+        assertThat(response.statusCode()).isEqualTo(400);
+        assertThat(response.body()).isEqualTo("{\"error\":\"Ogiltig zon: \\n\\\"\\\\ (välj SE1-SE4)\"}");
+
+        String body = get("/stats?zone=SE3&date=%01%09%1F").body();
+        // Giltig JSON: inga oskyddade kontrolltecken och bara kända escape-sekvenser i strängen
+        assertThat(body).doesNotContainPattern("[\\x00-\\x1F]")
+                .matches("\\{\"error\":\"([^\"\\\\]|\\\\[\"\\\\nrt]|\\\\u[0-9a-f]{4})*\"}")
+                .contains("\\u0001\\t\\u001f");
+    }
+
+    @Test
+    void charging_shouldNotFetchAMissingTomorrowForEveryRequest() throws Exception {
+        // 2025-09-06 saknas, så varje svar för 2025-09-05 räknas fram utan morgondagen
+        for (int i = 0; i < 5; i++) {
+            assertThat(get("/charging?zone=SE3&date=2025-09-05&duration=1h").statusCode()).isEqualTo(200);
+        }
+        ElpriserMetrics.Snapshot metrics = api.metrics().snapshot();
+        assertThat(metrics.notFound()).isEqualTo(1);
+        assertThat(metrics.sourceFetches()).isEqualTo(2);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(path)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.port() + path);
+    }
+}
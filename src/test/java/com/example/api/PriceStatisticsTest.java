@@ -0,0 +1,91 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PriceStatisticsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    @Test
+    void of_shouldComputeAllStatisticsInOnePass() {
+        List<ElpriserAPI.Elpris> prices = ElprisParser.parse(ElpriserAPITest.json(DAY, 0.40, 0.10, 0.30, 0.20, 0.10, 0.50));
+
+        PriceStatistics statistics = PriceStatistics.of(prices);
+
+        assertThat(statistics.count()).isEqualTo(6);
+        assertThat(statistics.mean()).isEqualTo(0.26666666, within(1e-6));
+        assertThat(statistics.median()).isEqualTo(0.25, within(1e-12));
+        assertThat(statistics.percentile(10)).isEqualTo(0.10, within(1e-12));
+        assertThat(statistics.percentile(90)).isEqualTo(0.45, within(1e-12));
+        assertThat(statistics.cheapThreshold()).isEqualTo(0.125, within(1e-12));
+        assertThat(statistics.standardDeviation()).isEqualTo(Math.sqrt(0.02222222), within(1e-6));
+        // Det tidigaste av två lika låga priser
+        assertThat(statistics.minPrice()).isEqualTo(prices.get(1));
+        assertThat(statistics.maxPrice()).isEqualTo(prices.get(5));
+    }
+
+    @Test
+    void of_shouldLetASingleSlotBeBothMinAndMax() {
+        List<ElpriserAPI.Elpris> prices = ElprisParser.parse(ElpriserAPITest.json(DAY, 0.42));
+
+        PriceStatistics statistics = PriceStatistics.of(prices);
+
+        assertThat(statistics.minPrice()).isSameAs(statistics.maxPrice());
+        assertThat(statistics.median()).isEqualTo(0.42);
+        assertThat(statistics.standardDeviation()).isZero();
+    }
+
+    @Test
+    void merge_shouldEqualStatisticsOverAllDays() {
+        Random random = new Random(11);
+        PriceStatistics merged = new PriceStatistics();
+        PriceStatistics all = new PriceStatistics();
+        double[] values = new double[30 * 96];
+        for (int day = 0; day < 30; day++) {
+            PriceStatistics daily = new PriceStatistics();
+            for (int i = 0; i < 96; i++) {
+                double price = random.nextInt(300_000) / 100_000.0 - 0.1;
+                values[day * 96 + i] = price;
+                daily.add(price);
+                all.add(price);
+            }
+            merged.merge(daily);
+        }
+        Arrays.sort(values);
+
+        assertThat(merged.count()).isEqualTo(values.length);
+        assertThat(merged.mean()).isEqualTo(all.mean(), within(1e-12));
+        assertThat(merged.variance()).isEqualTo(all.variance(), within(1e-12));
+        assertThat(merged.min()).isEqualTo(values[0]);
+        assertThat(merged.max()).isEqualTo(values[values.length - 1]);
+        assertThat(merged.median()).isEqualTo((values[1439] + values[1440]) / 2, within(1e-12));
+        assertThat(merged.percentile(90)).isEqualTo(all.percentile(90), within(1e-12));
+    }
+
+    @Test
+    void percentile_shouldMatchSortedPricesWithRepeatsAndNegatives() {
+        Random random = new Random(5);
+        PriceStatistics statistics = new PriceStatistics();
+        double[] values = new double[5_000];
+        for (int i = 0; i < values.length; i++) {
+            // Få olika priser, så att hinkarna får många perioder var, och några negativa
+            values[i] = (random.nextInt(700) - 100) / 1_000.0;
+            statistics.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (int rank = 0; rank < values.length; rank += 97) {
+            assertThat(statistics.percentile(100.0 * rank / (values.length - 1))).isEqualTo(values[rank], within(1e-9));
+        }
+        assertThat(statistics.percentile(0)).isEqualTo(values[0]);
+        assertThat(statistics.percentile(100)).isEqualTo(values[values.length - 1]);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceWatcherTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+
+    @Test
+    void poll_shouldWaitForPublishTimeAndThenBackOffUntilTomorrowArrives() {
+        InMemoryPriceSource source = new InMemoryPriceSource().putJson(DAY, ElpriserAPI.Prisklass.SE3, ElpriserAPITest.json(DAY, 0.10));
+        List<LocalDate> delivered = new ArrayList<>();
+        PriceWatcher watcher = new PriceWatcher(new ElpriserAPI(false, source), ElpriserAPI.Prisklass.SE3,
+                (day, prices) -> delivered.add(day), Clock.system(STOCKHOLM), Duration.ofMinutes(5), Duration.ofMinutes(15),
+                Duration.ofDays(2));
+
+        assertThat(watcher.poll(at(DAY, 9, 0))).isEqualTo(Duration.ofHours(4));
+        assertThat(delivered).containsExactly(DAY);
+
+        assertThat(watcher.poll(at(DAY, 13, 0))).isEqualTo(Duration.ofMinutes(5));
+        assertThat(watcher.poll(at(DAY, 13, 5))).isEqualTo(Duration.ofMinutes(10));
+        assertThat(watcher.poll(at(DAY, 13, 15))).isEqualTo(Duration.ofMinutes(15));
+        assertThat(watcher.poll(at(DAY, 13, 30))).isEqualTo(Duration.ofMinutes(15));
+        assertThat(delivered).containsExactly(DAY);
+
+        source.putJson(DAY.plusDays(1), ElpriserAPI.Prisklass.SE3, ElpriserAPITest.json(DAY.plusDays(1), 0.20));
+        assertThat(watcher.poll(at(DAY, 13, 45))).isEqualTo(Duration.ofHours(23).plusMinutes(15));
+        assertThat(delivered).containsExactly(DAY, DAY.plusDays(1));
+    }
+
+    @Test
+    void poll_shouldNotRedeliverDaysAfterMidnight() {
+        InMemoryPriceSource source = new InMemoryPriceSource()
+                .putJson(DAY, ElpriserAPI.Prisklass.SE3, ElpriserAPITest.json(DAY, 0.10))
+                .putJson(DAY.plusDays(1), ElpriserAPI.Prisklass.SE3, ElpriserAPITest.json(DAY.plusDays(1), 0.20));
+        List<LocalDate> delivered = new ArrayList<>();
+        PriceWatcher watcher = new PriceWatcher(new ElpriserAPI(false, source), ElpriserAPI.Prisklass.SE3,
+                (day, prices) -> delivered.add(day));
+
+        watcher.poll(at(DAY, 14, 0));
+        assertThat(watcher.poll(at(DAY.plusDays(1), 13, 0))).isEqualTo(PriceWatcher.DEFAULT_INITIAL_BACKOFF);
+
+        assertThat(delivered).containsExactly(DAY, DAY.plusDays(1));
+        assertThat(watcher.knownPrices()).containsOnlyKeys(DAY.plusDays(1));
+    }
+
+    @Test
+    void poll_shouldRevalidateKnownDaysAndDeliverCorrections() {
+        InMemoryPriceSource source = new InMemoryPriceSource().putJson(DAY, ElpriserAPI.Prisklass.SE3, ElpriserAPITest.json(DAY, 0.10));
+        List<Double> delivered = new ArrayList<>();
+        PriceWatcher watcher = new PriceWatcher(new ElpriserAPI(false, source), ElpriserAPI.Prisklass.SE3,
+                (day, prices) -> delivered.add(prices.getFirst().sekPerKWh()), Clock.system(STOCKHOLM),
+                Duration.ofMinutes(5), Duration.ofMinutes(15), Duration.ofHours(1));
+
+        assertThat(watcher.poll(at(DAY, 9, 0))).isEqualTo(Duration.ofHours(1));
+        source.putJson(DAY, ElpriserAPI.Prisklass.SE3, ElpriserAPITest.json(DAY, 0.12));
+        assertThat(watcher.poll(at(DAY, 9, 30))).isEqualTo(Duration.ofMinutes(30));
+        assertThat(delivered).containsExactly(0.10);
+
+        // Rättelsen upptäcks vid nästa kontroll, men oförändrade priser levereras inte igen
+        assertThat(watcher.poll(at(DAY, 10, 0))).isEqualTo(Duration.ofHours(1));
+        assertThat(watcher.poll(at(DAY, 11, 0))).isEqualTo(Duration.ofHours(1));
+        assertThat(delivered).containsExactly(0.10, 0.12);
+    }
+
+    private static ZonedDateTime at(LocalDate day, int hour, int minute) {
+        return day.atTime(hour, minute).atZone(STOCKHOLM);
+    }
+}
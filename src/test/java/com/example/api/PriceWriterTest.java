@@ -0,0 +1,69 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceWriterTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    @Test
+    void csv_shouldWriteOneLinePerSlot() throws IOException {
+        List<ElpriserAPI.Elpris> prices = ElprisParser.parse(ElpriserAPITest.json(DAY, 0.12345, -0.01));
+
+        String csv = write(PriceWriter.Format.CSV, ElpriserAPI.Prisklass.SE3, prices);
+
+        assertThat(csv.split("\n")).containsExactly(
+                "zone,time_start,time_end,sek_per_kwh,eur_per_kwh,exr",
+                "SE3,2025-09-04T00:00:00+02:00,2025-09-04T01:00:00+02:00,0.12345,0.01235,10.00000",
+                "SE3,2025-09-04T01:00:00+02:00,2025-09-04T02:00:00+02:00,-0.01000,-0.00100,10.00000");
+    }
+
+    @Test
+    void json_shouldBeReadableByTheParser() throws IOException {
+        List<ElpriserAPI.Elpris> prices = ElprisParser.parse(ElpriserAPITest.json(DAY, 0.10, 0.20, 0.30));
+
+        String json = write(PriceWriter.Format.JSON, ElpriserAPI.Prisklass.SE1, prices);
+
+        assertThat(json).contains("\"zone\":\"SE1\"");
+        assertThat(ElprisParser.parse(json)).isEqualTo(prices);
+        assertThat(write(PriceWriter.Format.JSON, ElpriserAPI.Prisklass.SE1, List.of()).trim()).isEqualTo("[]");
+    }
+
+    @Test
+    void binary_shouldRoundTripSeriesAndPlainLists() throws IOException {
+        List<ElpriserAPI.Elpris> series = ElprisParser.parse(ElpriserAPITest.json(DAY, 0.10, 0.20, 0.30));
+        // En lista med ett glapp kan inte lagras som serie och skrivs från objekten
+        List<ElpriserAPI.Elpris> gap = new ArrayList<>(ElprisParser.parse(ElpriserAPITest.json(DAY, 0.40)));
+        gap.addAll(ElprisParser.parse(ElpriserAPITest.json(DAY.plusDays(2), 0.50)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PriceWriter writer = PriceWriter.create(PriceWriter.Format.BIN, out)) {
+            writer.write(ElpriserAPI.Prisklass.SE2, series);
+            writer.write(ElpriserAPI.Prisklass.SE4, gap);
+        }
+        List<PriceWriter.Block> blocks = PriceWriter.readBinary(new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(blocks).containsExactly(
+                new PriceWriter.Block(ElpriserAPI.Prisklass.SE2, series),
+                new PriceWriter.Block(ElpriserAPI.Prisklass.SE4, gap));
+    }
+
+    private static String write(PriceWriter.Format format, ElpriserAPI.Prisklass zone, List<ElpriserAPI.Elpris> prices)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PriceWriter writer = PriceWriter.create(format, out)) {
+            writer.write(zone, prices);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrisCacheTest {
+
+    @Test
+    void put_shouldEvictLeastRecentlyUsedWhenWeightIsExceeded() {
+        PrisCache<String> cache = new PrisCache<>(10, String::length);
+        cache.put("a", "aaaa", null);
+        cache.put("b", "bbbb", null);
+        cache.getIfPresent("a");
+        cache.put("c", "cccc", null);
+
+        assertThat(cache.getIfPresent("a")).isEqualTo("aaaa");
+        assertThat(cache.getIfPresent("b")).isNull();
+        assertThat(cache.getIfPresent("c")).isEqualTo("cccc");
+        assertThat(cache.weight()).isEqualTo(8);
+    }
+
+    @Test
+    void getIfPresent_shouldHideExpiredEntriesButKeepThemStale() {
+        AtomicLong now = new AtomicLong();
+        PrisCache<String> cache = new PrisCache<>(100, String::length, now::get);
+        cache.put("idag", "x", Duration.ofMinutes(5));
+        cache.put("igår", "y", null);
+
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+
+        assertThat(cache.getIfPresent("idag")).isNull();
+        assertThat(cache.getStale("idag")).isEqualTo("x");
+        assertThat(cache.getIfPresent("igår")).isEqualTo("y");
+    }
+
+    @Test
+    void getOrLoad_shouldCollapseConcurrentMissesIntoOneLoad() throws Exception {
+        PrisCache<String> cache = new PrisCache<>(100, String::length);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.getOrLoad("2025-09-04_SE3", () -> {
+                    loads.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    cache.put("2025-09-04_SE3", "priser", null);
+                    return "priser";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("priser");
+            }
+        }
+        assertThat(loads).hasValue(1);
+    }
+}
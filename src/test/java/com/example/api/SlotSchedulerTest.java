@@ -0,0 +1,141 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SlotSchedulerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    @Test
+    void schedule_shouldPickCheapestSlotsWhenUnconstrained() {
+        List<ElpriserAPI.Elpris> prices = ElprisParser.parse(ElpriserAPITest.json(DAY, 0.50, 0.10, 0.90, 0.20, 0.80, 0.05));
+
+        SlotScheduler.Schedule schedule = SlotScheduler.schedule(prices, Duration.ofHours(3), SlotScheduler.Constraints.none());
+
+        assertThat(schedule.runs()).extracting(ChargingWindowOptimizer.ChargingWindow::startIndex).containsExactly(1, 3, 5);
+        assertThat(schedule.totalSekPerKWh()).isEqualTo(0.35, within(1e-12));
+        assertThat(schedule.meanSekPerKWh()).isEqualTo(0.35 / 3, within(1e-12));
+    }
+
+    @Test
+    void schedule_shouldHonourMinRunMaxSwitchesAndDeadline() {
+        List<ElpriserAPI.Elpris> prices = ElprisParser.parse(ElpriserAPITest.json(DAY, 0.50, 0.10, 0.90, 0.20, 0.30, 0.05, 0.01));
+
+        SlotScheduler.Schedule minRun = SlotScheduler.schedule(prices, Duration.ofHours(4),
+                SlotScheduler.Constraints.none().withMinRun(Duration.ofHours(2)));
+        SlotScheduler.Schedule oneRun = SlotScheduler.schedule(prices, Duration.ofHours(2),
+                SlotScheduler.Constraints.none().withMaxSwitches(1).withDeadline(prices.get(4).timeEnd()));
+
+        assertThat(minRun.runs()).extracting(ChargingWindowOptimizer.ChargingWindow::startIndex).containsExactly(3);
+        assertThat(minRun.runs().getFirst().slotCount()).isEqualTo(4);
+        assertThat(oneRun.runs()).hasSize(1);
+        assertThat(oneRun.runs().getFirst().startIndex()).isEqualTo(3);
+        assertThat(SlotScheduler.schedule(prices, Duration.ofHours(6),
+                SlotScheduler.Constraints.none().withDeadline(prices.get(4).timeEnd()))).isNull();
+    }
+
+    @Test
+    void schedule_shouldMatchBruteForce() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int n = 4 + random.nextInt(8);
+            double[] sek = new double[n];
+            for (int i = 0; i < n; i++) {
+                sek[i] = random.nextInt(100) / 100.0;
+            }
+            // Ibland en dag som inte ansluter, så att körningar bryts vid glappet
+            List<ElpriserAPI.Elpris> prices = new ArrayList<>();
+            int split = random.nextBoolean() ? n : 1 + random.nextInt(n - 1);
+            prices.addAll(ElprisParser.parse(ElpriserAPITest.json(DAY, Arrays.copyOfRange(sek, 0, split))));
+            if (split < n) {
+                prices.addAll(ElprisParser.parse(ElpriserAPITest.json(DAY.plusDays(2), Arrays.copyOfRange(sek, split, n))));
+            }
+            int k = 1 + random.nextInt(n);
+            int minRun = 1 + random.nextInt(3);
+            int maxSwitches = 1 + random.nextInt(3);
+
+            SlotScheduler.Schedule schedule = SlotScheduler.schedule(prices, k, minRun, maxSwitches, n);
+            double expected = bruteForce(sek, split, k, minRun, maxSwitches);
+
+            if (expected == Double.POSITIVE_INFINITY) {
+                assertThat(schedule).isNull();
+            } else {
+                assertThat(schedule.slotCount()).isEqualTo(k);
+                assertThat(schedule.totalSekPerKWh()).isEqualTo(expected, within(1e-9));
+                assertThat(schedule.runs()).hasSizeLessThanOrEqualTo(maxSwitches)
+                        .allSatisfy(run -> assertThat(run.slotCount()).isGreaterThanOrEqualTo(minRun));
+            }
+        }
+    }
+
+    private static double bruteForce(double[] sek, int split, int k, int minRun, int maxSwitches) {
+        int n = sek.length;
+        double best = Double.POSITIVE_INFINITY;
+        for (int mask = 0; mask < 1 << n; mask++) {
+            if (Integer.bitCount(mask) != k) {
+                continue;
+            }
+            int runs = 0;
+            int length = 0;
+            boolean valid = true;
+            double cost = 0.0;
+            for (int i = 0; i <= n && valid; i++) {
+                boolean chosen = i < n && (mask & 1 << i) != 0;
+                if (chosen && length > 0 && i != split) {
+                    length++;
+                } else {
+                    if (length > 0) {
+                        runs++;
+                        valid = length >= minRun && runs <= maxSwitches;
+                    }
+                    length = chosen ? 1 : 0;
+                }
+                if (chosen) {
+                    cost = cost + sek[i];
+                }
+            }
+            if (valid && cost < best) {
+                best = cost;
+            }
+        }
+        return best;
+    }
+
+    @Test
+    void schedule_shouldFallBackToOneRunAboveTheExactTableLimit() {
+        // 4096 perioder, 4095 att välja och högst ett påslag: 4096 · 4096 · 2 · 2 beslut, precis på gränsen
+        int k = 4095;
+        assertThat(SlotScheduler.exactDecisions(4096, k, 1, 1)).isEqualTo(SlotScheduler.MAX_EXACT_DECISIONS);
+        assertThat(SlotScheduler.exactDecisions(4097, k, 1, 1)).isGreaterThan(SlotScheduler.MAX_EXACT_DECISIONS);
+
+        for (int n : new int[]{4096, 4097}) {
+            double[] sek = new double[n];
+            Arrays.fill(sek, 0.10);
+            // Den dyraste perioden i mitten, så att de billigaste perioderna ger två körningar
+            sek[n / 2] = 0.90;
+            PriceSeries.Builder builder = new PriceSeries.Builder(n);
+            long start = DAY.toEpochDay() * 86_400;
+            for (int i = 0; i < n; i++) {
+                builder.accept(sek[i], sek[i] / 11, 11.0, start + i * 900L, 0, start + (i + 1) * 900L, 0);
+            }
+            List<ElpriserAPI.Elpris> prices = builder.toList();
+
+            SlotScheduler.Schedule schedule = SlotScheduler.schedule(prices, k, 1, 1, n);
+
+            assertThat(schedule.exact()).as("%d perioder", n).isEqualTo(n == 4096);
+            assertThat(schedule.runs()).hasSize(1);
+            assertThat(schedule.slotCount()).isEqualTo(k);
+            assertThat(schedule.totalSekPerKWh()).isEqualTo(0.90 + (k - 1) * 0.10, within(1e-9));
+        }
+    }
+}
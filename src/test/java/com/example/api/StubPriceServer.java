@@ -0,0 +1,244 @@
+package com.example.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * En lokal server med samma URL-struktur som elprisetjustnu.se
+ * ({@code /api/v1/prices/yyyy/MM-dd_SEx.json}), så att hela HTTP-vägen i {@link ElpriserAPI}
+ * (anslutningar, komprimering, 404 för dagar som inte publicerats och tolkning) kan testas och
+ * belastas utan nätverk.
+ * <p>
+ * Svarstid, andel fel och svarens storlek styrs med {@link Options}. Priserna genereras
+ * deterministiskt per dag och zon och sparas, så att det är klienten och inte servern som mäts.
+ */
+public final class StubPriceServer implements AutoCloseable {
+
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+    private static final Pattern PATH = Pattern.compile("/api/v1/prices/(\\d{4})/(\\d{2})-(\\d{2})_(SE[1-4])\\.json");
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX");
+
+    /**
+     * @param latency Fast svarstid för varje förfrågan.
+     * @param jitter Slumpmässig extra svarstid, jämnt fördelad mellan noll och detta värde.
+     * @param errorRate Andel förfrågningar (0–1) som besvaras med HTTP 500.
+     * @param slotMinutes Minuter per pris: 60 ger 24 priser per dygn, 15 ger 96 och 5 ger 288.
+     * @param publishedUntil Sista dagen som har priser; senare dagar ger HTTP 404. Null för alla dagar.
+     * @param gzip Om svaren komprimeras när klienten accepterar gzip.
+     */
+    public record Options(Duration latency, Duration jitter, double errorRate, int slotMinutes,
+                          LocalDate publishedUntil, boolean gzip) {
+
+        public static final Options DEFAULT = new Options(Duration.ZERO, Duration.ZERO, 0.0, 15, null, true);
+
+        public Options {
+            if (latency.isNegative() || jitter.isNegative()) {
+                throw new IllegalArgumentException("Svarstiden får inte vara negativ");
+            }
+            if (errorRate < 0.0 || errorRate > 1.0) {
+                throw new IllegalArgumentException("errorRate måste vara mellan 0 och 1");
+            }
+            if (slotMinutes < 1 || 60 % slotMinutes != 0) {
+                throw new IllegalArgumentException("slotMinutes måste gå jämnt upp i en timme");
+            }
+        }
+
+        public Options withLatency(Duration latency, Duration jitter) {
+            return new Options(latency, jitter, errorRate, slotMinutes, publishedUntil, gzip);
+        }
+
+        public Options withErrorRate(double errorRate) {
+            return new Options(latency, jitter, errorRate, slotMinutes, publishedUntil, gzip);
+        }
+
+        public Options withSlotMinutes(int slotMinutes) {
+            return new Options(latency, jitter, errorRate, slotMinutes, publishedUntil, gzip);
+        }
+
+        public Options withPublishedUntil(LocalDate publishedUntil) {
+            return new Options(latency, jitter, errorRate, slotMinutes, publishedUntil, gzip);
+        }
+
+        public Options withGzip(boolean gzip) {
+            return new Options(latency, jitter, errorRate, slotMinutes, publishedUntil, gzip);
+        }
+    }
+
+    static {
+        // Utan TCP_NODELAY väntar svaren på fördröjda ACK:ar (~40 ms per anrop på localhost), vilket
+        // döljer klientens egen latens. Egenskapen läses när JDK:ns HTTP-server används första gången.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private record Payload(byte[] json, byte[] gzipped) {}
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private volatile Options options;
+    private final Map<String, Payload> payloads = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+
+    private StubPriceServer(HttpServer server, ExecutorService executor, Options options) {
+        this.server = server;
+        this.executor = executor;
+        this.options = options;
+    }
+
+    /**
+     * Startar servern på en ledig port på 127.0.0.1, med en virtuell tråd per förfrågan.
+     */
+    public static StubPriceServer start(Options options) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        StubPriceServer stub = new StubPriceServer(server, executor, options);
+        server.createContext("/", stub::handle);
+        server.setExecutor(executor);
+        server.start();
+        return stub;
+    }
+
+    /**
+     * @return Bas-URL för {@link HttpPriceSource#HttpPriceSource(String)}.
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1/prices";
+    }
+
+    /**
+     * Byter inställningar för kommande förfrågningar, t.ex. för att simulera ett avbrott.
+     */
+    public void setOptions(Options options) {
+        this.options = options;
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    public long notFound() {
+        return notFound.sum();
+    }
+
+    public long bytesSent() {
+        return bytesSent.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.increment();
+            Options current = options;
+            sleep(current);
+
+            Matcher matcher = PATH.matcher(exchange.getRequestURI().getPath());
+            if (!matcher.matches()) {
+                notFound.increment();
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            if (current.errorRate() > 0 && ThreadLocalRandom.current().nextDouble() < current.errorRate()) {
+                errors.increment();
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            LocalDate day = LocalDate.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                    Integer.parseInt(matcher.group(3)));
+            if (current.publishedUntil() != null && day.isAfter(current.publishedUntil())) {
+                notFound.increment();
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            Payload payload = payloads.computeIfAbsent(day + "_" + matcher.group(4) + "_" + current.slotMinutes(),
+                    key -> payload(day, matcher.group(4), current.slotMinutes()));
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            byte[] body = payload.json();
+            if (current.gzip() && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+                body = payload.gzipped();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+            bytesSent.add(body.length);
+        }
+    }
+
+    private static void sleep(Options options) {
+        long nanos = options.latency().toNanos();
+        if (!options.jitter().isZero()) {
+            nanos += ThreadLocalRandom.current().nextLong(options.jitter().toNanos() + 1);
+        }
+        if (nanos > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(nanos));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Priser för hela dygnet i svensk tid, så att dygn med sommartidsomställning får 23 eller 25 timmar.
+     */
+    private static Payload payload(LocalDate day, String zone, int slotMinutes) {
+        long seed = day.toEpochDay() * 31 + zone.charAt(2);
+        ZonedDateTime start = day.atStartOfDay(STOCKHOLM);
+        ZonedDateTime end = day.plusDays(1).atStartOfDay(STOCKHOLM);
+        StringBuilder json = new StringBuilder(120 * 24 * 60 / slotMinutes).append('[');
+        for (int i = 0; start.isBefore(end); i++) {
+            ZonedDateTime next = start.plusMinutes(slotMinutes);
+            double sek = 0.5 + 0.4 * Math.sin((seed + i) / 7.0);
+            json.append(i == 0 ? "" : ",").append(String.format(Locale.ROOT,
+                    "{\"SEK_per_kWh\":%.5f,\"EUR_per_kWh\":%.5f,\"EXR\":11.0,\"time_start\":\"%s\",\"time_end\":\"%s\"}",
+                    sek, sek / 11, TIMESTAMP.format(start), TIMESTAMP.format(next)));
+            start = next;
+        }
+        byte[] bytes = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Payload(bytes, gzipped.toByteArray());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StubPriceServerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 28);
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void getPriser_shouldFetchParseAndFallBackToEmptyOverHttp() throws Exception {
+        try (StubPriceServer stub = StubPriceServer.start(StubPriceServer.Options.DEFAULT.withPublishedUntil(DAY.plusDays(2)))) {
+            ElpriserAPI api = newApi(stub);
+
+            assertThat(api.getPriser(DAY, ElpriserAPI.Prisklass.SE3)).hasSize(96);
+            // Sommartiden börjar 2025-03-30, ett dygn med 23 timmar
+            assertThat(api.getPriser(DAY.plusDays(2), ElpriserAPI.Prisklass.SE3)).hasSize(92);
+            assertThat(api.getPriser(DAY.plusDays(3), ElpriserAPI.Prisklass.SE3)).isEmpty();
+
+            stub.setOptions(StubPriceServer.Options.DEFAULT.withErrorRate(1.0));
+            assertThat(api.getPriser(DAY.plusDays(1), ElpriserAPI.Prisklass.SE4)).isEmpty();
+
+            ElpriserMetrics.Snapshot metrics = api.metrics().snapshot();
+            assertThat(metrics.notFound()).isEqualTo(1);
+            assertThat(metrics.errors()).isEqualTo(1);
+            assertThat(stub.requests()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void getPriser_shouldFetchEachDayOnceUnderConcurrentLoad() throws Exception {
+        StubPriceServer.Options options = StubPriceServer.Options.DEFAULT
+                .withLatency(Duration.ofMillis(20), Duration.ofMillis(10));
+        try (StubPriceServer stub = StubPriceServer.start(options);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            ElpriserAPI api = newApi(stub);
+
+            List<Future<List<ElpriserAPI.Elpris>>> results = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                LocalDate day = DAY.minusDays(i % 20);
+                results.add(executor.submit(() -> api.getPriser(day, ElpriserAPI.Prisklass.SE3)));
+            }
+            for (Future<List<ElpriserAPI.Elpris>> result : results) {
+                assertThat(result.get()).hasSize(96);
+            }
+            assertThat(stub.requests()).isEqualTo(20);
+        }
+    }
+
+    private ElpriserAPI newApi(StubPriceServer stub) {
+        return new ElpriserAPI(true, new HttpPriceSource(stub.baseUrl()), new ElprisDiskCache(cacheDir), ElpriserAPI.FRESH_DATA_TTL);
+    }
+}
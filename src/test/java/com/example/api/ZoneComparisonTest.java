@@ -0,0 +1,55 @@
+package com.example.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ZoneComparisonTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+
+    @Test
+    void of_shouldComputeStatisticsAndSpreadPerSlot() {
+        Map<ElpriserAPI.Prisklass, List<ElpriserAPI.Elpris>> prices = new EnumMap<>(ElpriserAPI.Prisklass.class);
+        prices.put(ElpriserAPI.Prisklass.SE1, ElprisParser.parse(ElpriserAPITest.json(DAY, 0.10, 0.20, 0.30)));
+        prices.put(ElpriserAPI.Prisklass.SE3, ElprisParser.parse(ElpriserAPITest.json(DAY, 0.40, 0.20, 0.90)));
+        prices.put(ElpriserAPI.Prisklass.SE4, ElprisParser.parse(ElpriserAPITest.json(DAY, 0.50, 0.10, 1.10)));
+
+        ZoneComparison comparison = ZoneComparison.of(prices);
+
+        assertThat(comparison.zones()).containsExactly(ElpriserAPI.Prisklass.SE1, ElpriserAPI.Prisklass.SE3, ElpriserAPI.Prisklass.SE4);
+        assertThat(comparison.slotCount()).isEqualTo(3);
+        assertThat(comparison.spread(0)).isEqualTo(0.40, within(1e-9));
+        assertThat(comparison.cheapestZone(1)).isEqualTo(ElpriserAPI.Prisklass.SE4);
+        assertThat(comparison.dearestZone(1)).isEqualTo(ElpriserAPI.Prisklass.SE1);
+        assertThat(comparison.maxSpreadSlot()).isEqualTo(2);
+        assertThat(comparison.statistics(ElpriserAPI.Prisklass.SE3).mean()).isEqualTo(0.50, within(1e-9));
+        assertThat(comparison.statistics(ElpriserAPI.Prisklass.SE3).minPrice()).isEqualTo(prices.get(ElpriserAPI.Prisklass.SE3).get(1));
+        assertThat(comparison.spreadStatistics().mean()).isEqualTo((0.40 + 0.10 + 0.80) / 3, within(1e-9));
+    }
+
+    @Test
+    void of_shouldAlignZonesWithMissingSlotsOnTime() {
+        Map<ElpriserAPI.Prisklass, List<ElpriserAPI.Elpris>> prices = new EnumMap<>(ElpriserAPI.Prisklass.class);
+        prices.put(ElpriserAPI.Prisklass.SE1, ElprisParser.parse(ElpriserAPITest.json(DAY, 0.10, 0.20, 0.30)));
+        // SE2 saknar första timmen
+        prices.put(ElpriserAPI.Prisklass.SE2, ElprisParser.parse(ElpriserAPITest.json(DAY, 0.99, 0.50, 0.60)).subList(1, 3));
+        prices.put(ElpriserAPI.Prisklass.SE3, List.of());
+
+        ZoneComparison comparison = ZoneComparison.of(prices);
+
+        assertThat(comparison.slotCount()).isEqualTo(3);
+        assertThat(comparison.sekPerKWh(ElpriserAPI.Prisklass.SE2, 0)).isNaN();
+        assertThat(comparison.sekPerKWh(ElpriserAPI.Prisklass.SE2, 1)).isEqualTo(0.50);
+        assertThat(comparison.spread(0)).isZero();
+        assertThat(comparison.spread(2)).isEqualTo(0.30, within(1e-9));
+        assertThat(comparison.timeStart(1)).isEqualTo(prices.get(ElpriserAPI.Prisklass.SE1).get(1).timeStart());
+        assertThat(comparison.statistics(ElpriserAPI.Prisklass.SE3).isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.bench;
+
+import com.example.api.ChargingWindowOptimizer;
+import com.example.api.FleetOptimizer;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Mäter genomströmningen för {@link FleetOptimizer} jämfört med en sökning per fordon.
+ * Kör efter {@code mvn -Pvector test-compile}, som även kompilerar SIMD-looparna, med och utan SIMD:
+ * Kör efter {@code mvn test-compile}, med och utan SIMD:
+ * <pre>
+ * java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes com.example.bench.FleetBenchmark [fordon] [perioder]
+ * java -Delpriser.vector=false -cp target/classes:target/test-classes com.example.bench.FleetBenchmark
+ * </pre>
+ */
+public class FleetBenchmark {
+
+    private static final int ROUNDS = 200;
+
+    public static void main(String[] args) {
+        int vehicles = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int slotCount = args.length > 1 ? Integer.parseInt(args[1]) : 192;
+
+        Random random = new Random(1);
+        double[] sek = new double[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            sek[i] = 0.5 + 0.4 * Math.sin(i / 12.0) + random.nextInt(20_000) / 100_000.0;
+        }
+        int[] slots = new int[vehicles];
+        int[] earliest = new int[vehicles];
+        int[] latestEnd = new int[vehicles];
+        for (int i = 0; i < vehicles; i++) {
+            slots[i] = 4 + random.nextInt(32);
+            earliest[i] = random.nextInt(slotCount / 2);
+            latestEnd[i] = earliest[i] + slots[i] + random.nextInt(slotCount);
+        }
+
+        System.out.println("Fordon: " + vehicles + ", perioder: " + slotCount + ", loopar: " + FleetOptimizer.kernelName());
+
+        long checksum = 0;
+        double perVehicle = Double.MAX_VALUE;
+        double batch = Double.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < vehicles; i++) {
+                checksum += ChargingWindowOptimizer.cheapestStart(sek, earliest[i], Math.min(slotCount, latestEnd[i]), slots[i]);
+            }
+            perVehicle = Math.min(perVehicle, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            FleetOptimizer.Result result = FleetOptimizer.solve(sek, slots, earliest, latestEnd);
+            batch = Math.min(batch, System.nanoTime() - start);
+            checksum += result.start(round % vehicles);
+        }
+
+        print("Ett fordon i taget", vehicles, perVehicle);
+        print("FleetOptimizer", vehicles, batch);
+        System.out.println("(kontrollsumma " + checksum + ")");
+    }
+
+    private static void print(String label, int vehicles, double nanos) {
+        System.out.printf(Locale.ROOT, "%-20s %10.2f ms  %,14.0f fordon/s%n", label, nanos / 1e6, vehicles / (nanos / 1e9));
+    }
+}
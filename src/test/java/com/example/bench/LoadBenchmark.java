@@ -0,0 +1,126 @@
+package com.example.bench;
+
+import com.example.api.ElprisDiskCache;
+import com.example.api.ElprisLog;
+import com.example.api.ElpriserAPI;
+import com.example.api.HttpPriceSource;
+import com.example.api.StubPriceServer;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Belastar {@link ElpriserAPI#getPriser(LocalDate, ElpriserAPI.Prisklass)} över HTTP mot en lokal
+ * {@link StubPriceServer} och skriver genomströmning och latens (p50/p99) för fyra faser:
+ * <ul>
+ *     <li>Kall: varje (dag, zon) hämtas en gång i följd, med tomma cachar.</li>
+ *     <li>Varm: samma nycklar igen från minnes-cachen.</li>
+ *     <li>Samtidig: många trådar mot tomma cachar, så att samtidiga anrop för samma nyckel slås ihop.</li>
+ *     <li>Samtidig utan cache: varje anrop går hela vägen till servern.</li>
+ * </ul>
+ * De sista dagarna ligger efter serverns publicerade dagar, så en del anrop går till 404-vägen.
+ * Kolumnen "server" är antalet förfrågningar som nådde servern, "tomma" anrop som gav en tom
+ * lista (404 eller fel) och "fel" misslyckade hämtningar enligt {@code ElpriserMetrics}.
+ * Disk-cachen hamnar i en ny temporär katalog för varje nytt API.
+ * <p>
+ * Kör efter {@code mvn test-compile}:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.bench.LoadBenchmark [anrop] [trådar] [latens ms] [felandel] [minuter per pris]
+ * java -cp target/classes:target/test-classes com.example.bench.LoadBenchmark 5000 128 20 0.01 15
+ * </pre>
+ */
+public class LoadBenchmark {
+
+    private static final LocalDate LAST_PUBLISHED = LocalDate.of(2025, 9, 4);
+    private static final int DAYS = 50;
+    private static final int UNPUBLISHED_DAYS = 2;
+
+    public static void main(String[] args) throws Exception {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        Duration latency = Duration.ofMillis(args.length > 2 ? Long.parseLong(args[2]) : 20);
+        double errorRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.01;
+        int slotMinutes = args.length > 4 ? Integer.parseInt(args[4]) : 15;
+
+        // Fel och 404 räknas i ElpriserMetrics istället för att skrivas ut för varje anrop
+        ElprisLog.setLevel(ElprisLog.Level.OFF);
+        List<ElpriserAPI.PriceQuery> keys = new ArrayList<>();
+        for (int day = -DAYS + UNPUBLISHED_DAYS; day < UNPUBLISHED_DAYS; day++) {
+            for (ElpriserAPI.Prisklass zone : ElpriserAPI.Prisklass.values()) {
+                keys.add(new ElpriserAPI.PriceQuery(LAST_PUBLISHED.plusDays(day + 1), zone));
+            }
+        }
+
+        StubPriceServer.Options options = StubPriceServer.Options.DEFAULT
+                .withLatency(latency, latency.dividedBy(2))
+                .withErrorRate(errorRate)
+                .withSlotMinutes(slotMinutes)
+                .withPublishedUntil(LAST_PUBLISHED);
+        try (StubPriceServer stub = StubPriceServer.start(options)) {
+            System.out.printf(Locale.ROOT, "Nycklar: %d, anrop: %d, trådar: %d, latens: %d ms +0-%d ms, felandel: %.3f, %d priser per dygn%n",
+                    keys.size(), calls, threads, latency.toMillis(), latency.dividedBy(2).toMillis(), errorRate, 24 * 60 / slotMinutes);
+            System.out.printf(Locale.ROOT, "%-22s %7s %9s %10s %9s %9s %9s %8s %7s %6s%n",
+                    "Fas", "anrop", "tid ms", "anrop/s", "p50 ms", "p99 ms", "max ms", "server", "tomma", "fel");
+
+            ElpriserAPI api = newApi(stub, true);
+            run("Kall", stub, api, keys, keys.size(), 1);
+            run("Varm", stub, api, keys, calls, 1);
+            run("Samtidig", stub, newApi(stub, true), keys, calls, threads);
+            run("Samtidig utan cache", stub, newApi(stub, false), keys, calls, threads);
+        }
+    }
+
+    private static ElpriserAPI newApi(StubPriceServer stub, boolean caching) throws Exception {
+        System.setProperty(ElprisDiskCache.CACHE_DIR_PROPERTY, Files.createTempDirectory("elpriser-load").toString());
+        return new ElpriserAPI(caching, new HttpPriceSource(stub.baseUrl()));
+    }
+
+    /**
+     * Kör {@code calls} anrop från {@code threads} virtuella trådar som var och en tar nästa anrop
+     * så snart den förra är klar. Anrop nummer {@code i} hämtar nyckel {@code i % keys.size()}.
+     */
+    private static void run(String label, StubPriceServer stub, ElpriserAPI api, List<ElpriserAPI.PriceQuery> keys,
+                            int calls, int threads) throws InterruptedException {
+        long serverRequestsBefore = stub.requests();
+        long errorsBefore = api.metrics().snapshot().errors();
+        long[] latencies = new long[calls];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger empty = new AtomicInteger();
+
+        long start = System.nanoTime();
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofVirtual().start(() -> {
+                for (int i = next.getAndIncrement(); i < calls; i = next.getAndIncrement()) {
+                    ElpriserAPI.PriceQuery key = keys.get(i % keys.size());
+                    long callStart = System.nanoTime();
+                    if (api.getPriser(key.datum(), key.prisklass()).isEmpty()) {
+                        empty.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - callStart;
+                }
+            }));
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf(Locale.ROOT, "%-22s %7d %9.1f %10.0f %9.3f %9.3f %9.3f %8d %7d %6d%n",
+                label, calls, elapsed / 1e6, calls / (elapsed / 1e9),
+                percentile(latencies, 50) / 1e6, percentile(latencies, 99) / 1e6, latencies[calls - 1] / 1e6,
+                stub.requests() - serverRequestsBefore, empty.get(), api.metrics().snapshot().errors() - errorsBefore);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
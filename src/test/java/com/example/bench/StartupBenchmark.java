@@ -0,0 +1,107 @@
+package com.example.bench;
+
+import com.example.api.ElprisDiskCache;
+import com.example.api.ElpriserAPI;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Mäter starttiden för {@code com.example.Main} i nya JVM:er: tiden till första utskrivna byte
+ * och tiden tills processen har avslutats, för {@code --help} och för en dag som redan finns i
+ * disk-cachen (ingen nätverkstrafik). Disk-cachen fylls i en temporär katalog innan mätningen.
+ * <p>
+ * Kör efter {@code mvn test-compile}, och för jämförelse med ett arkiv efter {@code mvn -Pappcds package}:
+ * <pre>
+ * java -cp target/classes:target/test-classes com.example.bench.StartupBenchmark [körningar]
+ * java -cp target/classes:target/test-classes com.example.bench.StartupBenchmark 20 target/JavaTemplate-1.0-SNAPSHOT.jar target/elpriser.aot
+ * </pre>
+ * Det andra argumentet är klassvägen för de startade JVM:erna (arkiv kräver en jar), och det tredje
+ * ett AOT-arkiv ({@code .aot}, JDK 24+) eller ett CDS-arkiv ({@code .jsa}).
+ */
+public class StartupBenchmark {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 9, 4);
+    private static final ZoneId STOCKHOLM = ZoneId.of("Europe/Stockholm");
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        String classPath = args.length > 1 ? args[1] : System.getProperty("java.class.path");
+        String archive = args.length > 2 ? args[2] : null;
+
+        Path cacheDir = Files.createTempDirectory("elpriser-startup");
+        ElprisDiskCache cache = new ElprisDiskCache(cacheDir);
+        cache.save(DAY + "_SE3", quarterHours(DAY));
+        cache.save(DAY.plusDays(1) + "_SE3", quarterHours(DAY.plusDays(1)));
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> jvm = new ArrayList<>(List.of(java, "-D" + ElprisDiskCache.CACHE_DIR_PROPERTY + "=" + cacheDir, "-cp", classPath));
+        System.out.println("Körningar: " + runs + ", klassväg: " + classPath);
+
+        measure("--help", jvm, runs, "--help");
+        measure("Cachad dag", jvm, runs, "--zone", "SE3", "--date", DAY.toString(), "--charging", "2h");
+        if (archive != null) {
+            List<String> archived = new ArrayList<>(jvm);
+            archived.add(1, archive.endsWith(".jsa") ? "-XX:SharedArchiveFile=" + archive : "-XX:AOTCache=" + archive);
+            measure("--help, arkiv", archived, runs, "--help");
+            measure("Cachad dag, arkiv", archived, runs, "--zone", "SE3", "--date", DAY.toString(), "--charging", "2h");
+        }
+    }
+
+    private static void measure(String label, List<String> jvm, int runs, String... mainArgs) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(jvm);
+        command.add("com.example.Main");
+        command.addAll(List.of(mainArgs));
+
+        run(command); // Uppvärmning av filsystemets cache
+        long[] firstOutput = new long[runs];
+        long[] total = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long[] times = run(command);
+            firstOutput[i] = times[0];
+            total[i] = times[1];
+        }
+        Arrays.sort(firstOutput);
+        Arrays.sort(total);
+        System.out.printf(Locale.ROOT, "%-20s första utskrift median %7.1f ms (min %7.1f)   klar median %7.1f ms (min %7.1f)%n",
+                label, firstOutput[runs / 2] / 1e6, firstOutput[0] / 1e6, total[runs / 2] / 1e6, total[0] / 1e6);
+    }
+
+    /**
+     * @return Nanosekunder till första byte på stdout och till att processen avslutats.
+     */
+    private static long[] run(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        long firstOutput;
+        try (InputStream out = process.getInputStream()) {
+            out.read();
+            firstOutput = System.nanoTime() - start;
+            out.transferTo(OutputStream.nullOutputStream());
+        }
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Main avslutades med kod " + process.exitValue() + ": " + command);
+        }
+        return new long[]{firstOutput, System.nanoTime() - start};
+    }
+
+    private static List<ElpriserAPI.Elpris> quarterHours(LocalDate day) {
+        List<ElpriserAPI.Elpris> prices = new ArrayList<>(96);
+        ZonedDateTime start = day.atStartOfDay(STOCKHOLM);
+        for (int i = 0; i < 96; i++) {
+            double sek = 0.5 + 0.4 * Math.sin(i / 12.0);
+            prices.add(new ElpriserAPI.Elpris(sek, sek / 11, 11.0, start.plusMinutes(15L * i), start.plusMinutes(15L * (i + 1))));
+        }
+        return prices;
+    }
+}